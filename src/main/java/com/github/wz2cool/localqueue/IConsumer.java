@@ -1,6 +1,9 @@
 package com.github.wz2cool.localqueue;
 
+import com.github.wz2cool.localqueue.event.BatchMessageListener;
 import com.github.wz2cool.localqueue.event.CloseListener;
+import com.github.wz2cool.localqueue.event.MessageListener;
+import com.github.wz2cool.localqueue.event.MessageViewListener;
 import com.github.wz2cool.localqueue.model.message.QueueMessage;
 import com.github.wz2cool.localqueue.model.page.PageInfo;
 import com.github.wz2cool.localqueue.model.page.SortDirection;
@@ -84,6 +87,36 @@ public interface IConsumer extends AutoCloseable {
      */
     void ack(List<QueueMessage> messages);
 
+    /**
+     * subscribe message view, messages are pushed by the read thread without copy and auto acked,
+     * take / poll should not be used until unsubscribe.
+     *
+     * @param listener message view listener
+     */
+    void subscribe(MessageViewListener listener);
+
+    /**
+     * subscribe message, messages are pushed by the read thread and auto acked,
+     * take / poll should not be used until unsubscribe.
+     *
+     * @param listener message listener
+     */
+    void subscribeMessage(MessageListener listener);
+
+    /**
+     * subscribe messages in batch, available messages up to max batch size are pushed by the read thread
+     * in one call and auto acked, take / poll should not be used until unsubscribe.
+     *
+     * @param listener     batch message listener
+     * @param maxBatchSize max batch size
+     */
+    void subscribeMessages(BatchMessageListener listener, int maxBatchSize);
+
+    /**
+     * unsubscribe, consume by take / poll again.
+     */
+    void unsubscribe();
+
     /**
      * move to position.
      *
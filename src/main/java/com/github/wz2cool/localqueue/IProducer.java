@@ -2,6 +2,9 @@ package com.github.wz2cool.localqueue;
 
 import com.github.wz2cool.localqueue.event.CloseListener;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * producer interface.
  *
@@ -36,6 +39,103 @@ public interface IProducer extends AutoCloseable {
      */
     boolean offer(String tag, String messageKey, String message);
 
+    /**
+     * offer binary message to queue, the bytes should not be modified after offer.
+     *
+     * @param message message
+     * @return true if success
+     */
+    boolean offerBytes(byte[] message);
+
+    /**
+     * offer binary message to queue, the bytes should not be modified after offer.
+     *
+     * @param messageKey message key
+     * @param message    message
+     * @return true if success
+     */
+    boolean offerBytes(String messageKey, byte[] message);
+
+    /**
+     * offer binary message to queue, the bytes should not be modified after offer.
+     *
+     * @param tag        tag
+     * @param messageKey message key
+     * @param message    message
+     * @return true if success
+     */
+    boolean offerBytes(String tag, String messageKey, byte[] message);
+
+    /**
+     * offer binary message to queue, the remaining bytes of buffer are written,
+     * position of buffer will not be changed.
+     *
+     * @param message message
+     * @return true if success
+     */
+    boolean offerBuffer(ByteBuffer message);
+
+    /**
+     * offer binary message to queue, the remaining bytes of buffer are written,
+     * position of buffer will not be changed.
+     *
+     * @param messageKey message key
+     * @param message    message
+     * @return true if success
+     */
+    boolean offerBuffer(String messageKey, ByteBuffer message);
+
+    /**
+     * offer binary message to queue, the remaining bytes of buffer are written,
+     * position of buffer will not be changed.
+     *
+     * @param tag        tag
+     * @param messageKey message key
+     * @param message    message
+     * @return true if success
+     */
+    boolean offerBuffer(String tag, String messageKey, ByteBuffer message);
+
+    /**
+     * offer message to queue, complete after message written.
+     *
+     * @param messageKey message key
+     * @param message    message
+     * @return the future of position, complete exceptionally if failed
+     */
+    CompletableFuture<Long> offerAsync(String messageKey, String message);
+
+    /**
+     * offer message to queue, complete after message written.
+     *
+     * @param tag        tag
+     * @param messageKey message key
+     * @param message    message
+     * @return the future of position, complete exceptionally if failed
+     */
+    CompletableFuture<Long> offerAsync(String tag, String messageKey, String message);
+
+    /**
+     * blocking thread until message written.
+     *
+     * @param messageKey message key
+     * @param message    message
+     * @return position of message
+     * @throws InterruptedException if interrupted while waiting
+     */
+    long offerAndWait(String messageKey, String message) throws InterruptedException;
+
+    /**
+     * blocking thread until message written.
+     *
+     * @param tag        tag
+     * @param messageKey message key
+     * @param message    message
+     * @return position of message
+     * @throws InterruptedException if interrupted while waiting
+     */
+    long offerAndWait(String tag, String messageKey, String message) throws InterruptedException;
+
     /**
      * is closed
      *
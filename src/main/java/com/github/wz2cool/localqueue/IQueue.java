@@ -3,6 +3,8 @@ package com.github.wz2cool.localqueue;
 import com.github.wz2cool.localqueue.event.CloseListener;
 import com.github.wz2cool.localqueue.model.enums.ConsumeFromWhere;
 
+import java.nio.ByteBuffer;
+
 /**
  * queue interface
  *
@@ -27,6 +29,40 @@ public interface IQueue extends AutoCloseable {
      */
     boolean offer(String messageKey, String message);
 
+    /**
+     * offer binary message to queue
+     *
+     * @param message message
+     * @return true if success
+     */
+    boolean offerBytes(byte[] message);
+
+    /**
+     * offer binary message to queue
+     *
+     * @param messageKey message key
+     * @param message    message
+     * @return true if success
+     */
+    boolean offerBytes(String messageKey, byte[] message);
+
+    /**
+     * offer binary message to queue
+     *
+     * @param message message
+     * @return true if success
+     */
+    boolean offerBuffer(ByteBuffer message);
+
+    /**
+     * offer binary message to queue
+     *
+     * @param messageKey message key
+     * @param message    message
+     * @return true if success
+     */
+    boolean offerBuffer(String messageKey, ByteBuffer message);
+
     /**
      * get consumer
      *
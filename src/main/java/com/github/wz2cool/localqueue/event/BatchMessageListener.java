@@ -0,0 +1,22 @@
+package com.github.wz2cool.localqueue.event;
+
+import com.github.wz2cool.localqueue.model.message.QueueMessage;
+
+import java.util.List;
+
+/**
+ * batch message listener
+ *
+ * @author frank
+ */
+public interface BatchMessageListener {
+
+    /**
+     * on messages, messages are auto acked if no exception thrown,
+     * otherwise the same batch will be delivered again.
+     *
+     * @param messages messages, not empty, the list is only valid during this call
+     * @throws Exception handle error
+     */
+    void onMessages(List<QueueMessage> messages) throws Exception;
+}
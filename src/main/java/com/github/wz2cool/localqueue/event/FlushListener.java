@@ -0,0 +1,14 @@
+package com.github.wz2cool.localqueue.event;
+
+/**
+ * flush listener, called by the write thread of producer after messages are appended to file.
+ *
+ * @author frank
+ */
+public interface FlushListener {
+
+    /**
+     * on flush, should not block.
+     */
+    void onFlush();
+}
@@ -0,0 +1,20 @@
+package com.github.wz2cool.localqueue.event;
+
+import com.github.wz2cool.localqueue.model.message.QueueMessage;
+
+/**
+ * message listener
+ *
+ * @author frank
+ */
+public interface MessageListener {
+
+    /**
+     * on message, message is auto acked if no exception thrown,
+     * otherwise the same message will be delivered again.
+     *
+     * @param message message
+     * @throws Exception handle error
+     */
+    void onMessage(QueueMessage message) throws Exception;
+}
@@ -0,0 +1,19 @@
+package com.github.wz2cool.localqueue.event;
+
+import com.github.wz2cool.localqueue.model.message.MessageView;
+
+/**
+ * message view listener, called by the read thread of consumer.
+ *
+ * @author frank
+ */
+public interface MessageViewListener {
+
+    /**
+     * on message, message is auto acked if no exception thrown,
+     * otherwise the same message will be delivered again.
+     *
+     * @param message message view, only valid during this call
+     */
+    void onMessage(MessageView message);
+}
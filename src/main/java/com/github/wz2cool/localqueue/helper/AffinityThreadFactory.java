@@ -0,0 +1,62 @@
+package com.github.wz2cool.localqueue.helper;
+
+import net.openhft.affinity.AffinityLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * thread factory that binds each thread to a cpu for its whole life, e.g. busy read / flush loops
+ * on cpus isolated by isolcpus. only works on linux, threads are not bound on other os.
+ *
+ * @author frank
+ */
+public class AffinityThreadFactory implements ThreadFactory {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final String namePrefix;
+    private final int[] cpuIds;
+    private final AtomicInteger threadCount = new AtomicInteger(0);
+
+    /**
+     * constructor
+     *
+     * @param namePrefix name prefix of threads
+     * @param cpuIds     cpus used one by one by new threads, empty to pick any free reserved cpu
+     */
+    public AffinityThreadFactory(final String namePrefix, final int... cpuIds) {
+        if (Objects.isNull(namePrefix) || namePrefix.isEmpty()) {
+            throw new IllegalArgumentException("namePrefix cannot be null or empty");
+        }
+        this.namePrefix = namePrefix;
+        this.cpuIds = Objects.isNull(cpuIds) ? new int[0] : cpuIds.clone();
+    }
+
+    @Override
+    public Thread newThread(final Runnable r) {
+        int index = threadCount.getAndIncrement();
+        Thread thread = new Thread(() -> runWithAffinity(index, r), namePrefix + index);
+        thread.setDaemon(false);
+        return thread;
+    }
+
+    private void runWithAffinity(final int index, final Runnable r) {
+        AffinityLock lock = null;
+        try {
+            lock = cpuIds.length == 0 ? AffinityLock.acquireLock() : AffinityLock.acquireLock(cpuIds[index % cpuIds.length]);
+        } catch (Exception ex) {
+            // still run the task, only without affinity
+            logger.warn("[local-queue] bind thread {} to cpu error", Thread.currentThread().getName(), ex);
+        }
+        try {
+            r.run();
+        } finally {
+            if (Objects.nonNull(lock)) {
+                lock.release();
+            }
+        }
+    }
+}
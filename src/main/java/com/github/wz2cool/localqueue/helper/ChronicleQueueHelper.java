@@ -6,6 +6,9 @@ import net.openhft.chronicle.queue.DefaultCycleCalculator;
 import net.openhft.chronicle.queue.RollCycle;
 import net.openhft.chronicle.queue.RollCycles;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.TimeZone;
 
 /**
@@ -20,6 +23,19 @@ public class ChronicleQueueHelper {
         return DefaultCycleCalculator.INSTANCE.currentCycle(rollCycle, timeProvider, offsetMillis);
     }
 
+    /**
+     * get the file name (without suffix) of cycle, same as the cycle file of queue.
+     *
+     * @param rollCycle roll cycle
+     * @param cycle     cycle
+     * @return file name
+     */
+    public static String cycleFileName(final RollCycle rollCycle, final int cycle) {
+        // cycle of queue is already shifted by time provider, so format in UTC.
+        return DateTimeFormatter.ofPattern(rollCycle.format()).withZone(ZoneOffset.UTC)
+                .format(Instant.ofEpochMilli((long) cycle * rollCycle.lengthInMillis()));
+    }
+
     public static RollCycle getRollCycle(final RollCycleType rollCycleType) {
         switch (rollCycleType) {
             case HOURLY:
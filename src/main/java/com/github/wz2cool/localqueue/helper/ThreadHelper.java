@@ -0,0 +1,87 @@
+package com.github.wz2cool.localqueue.helper;
+
+import com.github.wz2cool.localqueue.model.enums.ThreadType;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Thread Helper
+ *
+ * @author frank
+ */
+public class ThreadHelper {
+
+    // Thread.ofVirtual() of java 21+, null if not supported.
+    private static final Method OF_VIRTUAL_METHOD;
+    private static final Method BUILDER_NAME_METHOD;
+    private static final Method BUILDER_FACTORY_METHOD;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            // compiled for java 8, so virtual thread api is looked up at runtime.
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+        } catch (ClassNotFoundException | NoSuchMethodException ex) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL_METHOD = ofVirtual;
+        BUILDER_NAME_METHOD = name;
+        BUILDER_FACTORY_METHOD = factory;
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL_METHOD != null;
+    }
+
+    /**
+     * create thread factory of thread type.
+     *
+     * @param threadType thread type
+     * @param namePrefix name prefix of virtual threads, platform threads use default names
+     * @return thread factory
+     */
+    public static ThreadFactory newThreadFactory(final ThreadType threadType, final String namePrefix) {
+        switch (threadType) {
+            case PLATFORM:
+                return Executors.defaultThreadFactory();
+            case VIRTUAL:
+                return newVirtualThreadFactory(namePrefix);
+            default:
+                throw new IllegalArgumentException("threadType is not support.");
+        }
+    }
+
+    /**
+     * use custom thread factory if any, otherwise create thread factory of thread type.
+     *
+     * @param threadFactory custom thread factory, nullable
+     * @param threadType    thread type
+     * @param namePrefix    name prefix of virtual threads
+     * @return thread factory
+     */
+    public static ThreadFactory getThreadFactory(final ThreadFactory threadFactory, final ThreadType threadType,
+                                                 final String namePrefix) {
+        return Objects.nonNull(threadFactory) ? threadFactory : newThreadFactory(threadType, namePrefix);
+    }
+
+    private static ThreadFactory newVirtualThreadFactory(final String namePrefix) {
+        if (!isVirtualThreadSupported()) {
+            throw new IllegalStateException("virtual thread requires java 21+");
+        }
+        try {
+            Object builder = OF_VIRTUAL_METHOD.invoke(null);
+            builder = BUILDER_NAME_METHOD.invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY_METHOD.invoke(builder);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("create virtual thread factory error", ex);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.model.enums.IdleStrategyType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * idle strategy of consumer read thread, idle is called when no new message,
+ * reset is called when there is new message.
+ *
+ * @author frank
+ */
+public abstract class IdleStrategy {
+
+    /**
+     * create idle strategy.
+     *
+     * @param type         idle strategy type
+     * @param pullInterval max idle time (ms) of one call
+     * @return idle strategy
+     */
+    public static IdleStrategy create(final IdleStrategyType type, final long pullInterval) {
+        switch (type) {
+            case SLEEP:
+                return new SleepingIdleStrategy(pullInterval);
+            case BUSY_SPIN:
+                return new BusySpinIdleStrategy();
+            case YIELD:
+                return new YieldingIdleStrategy();
+            case BACKOFF:
+                return new BackoffIdleStrategy(pullInterval);
+            case BLOCKING:
+                return new BlockingIdleStrategy(pullInterval);
+            default:
+                throw new IllegalArgumentException("idleStrategyType is not support.");
+        }
+    }
+
+    /**
+     * no new message.
+     *
+     * @throws InterruptedException if interrupted
+     */
+    public abstract void idle() throws InterruptedException;
+
+    /**
+     * no new message on shared reader thread of read engine, which should never block or spin,
+     * the read step is run again after the returned delay instead.
+     *
+     * @return delay (ms), 0 to read again at once after read steps of other consumers
+     */
+    public abstract long idleDelay();
+
+    /**
+     * got new message.
+     */
+    public void reset() {
+    }
+
+    /**
+     * new message may be available, only blocking strategy is woken up.
+     */
+    public void wakeUp() {
+    }
+
+    /**
+     * whether read is woken up by producer flush.
+     *
+     * @return true if wakeUp works
+     */
+    public boolean isWakeUpSupported() {
+        return false;
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    static class SleepingIdleStrategy extends IdleStrategy {
+
+        private final long pullInterval;
+
+        SleepingIdleStrategy(final long pullInterval) {
+            this.pullInterval = pullInterval;
+        }
+
+        @Override
+        public void idle() throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(pullInterval);
+        }
+
+        @Override
+        public long idleDelay() {
+            return pullInterval;
+        }
+    }
+
+    static class BusySpinIdleStrategy extends IdleStrategy {
+
+        @Override
+        public void idle() throws InterruptedException {
+            checkInterrupted();
+        }
+
+        @Override
+        public long idleDelay() {
+            return 0;
+        }
+    }
+
+    static class YieldingIdleStrategy extends IdleStrategy {
+
+        @Override
+        public void idle() throws InterruptedException {
+            checkInterrupted();
+            Thread.yield();
+        }
+
+        @Override
+        public long idleDelay() {
+            return 0;
+        }
+    }
+
+    static class BackoffIdleStrategy extends IdleStrategy {
+
+        private static final int MAX_SPINS = 100;
+        private static final int MAX_YIELDS = 100;
+        private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+
+        private final long maxParkNanos;
+        private int spins = 0;
+        private int yields = 0;
+        private long parkNanos = MIN_PARK_NANOS;
+
+        BackoffIdleStrategy(final long pullInterval) {
+            this.maxParkNanos = TimeUnit.MILLISECONDS.toNanos(pullInterval);
+        }
+
+        @Override
+        public void idle() throws InterruptedException {
+            checkInterrupted();
+            if (spins < MAX_SPINS) {
+                spins++;
+                return;
+            }
+            if (yields < MAX_YIELDS) {
+                yields++;
+                Thread.yield();
+                return;
+            }
+            LockSupport.parkNanos(parkNanos);
+            parkNanos = Math.min(parkNanos << 1, maxParkNanos);
+        }
+
+        @Override
+        public long idleDelay() {
+            if (spins < MAX_SPINS) {
+                spins++;
+                return 0;
+            }
+            if (yields < MAX_YIELDS) {
+                yields++;
+                return 0;
+            }
+            long delay = TimeUnit.NANOSECONDS.toMillis(parkNanos);
+            parkNanos = Math.min(parkNanos << 1, maxParkNanos);
+            return delay;
+        }
+
+        @Override
+        public void reset() {
+            spins = 0;
+            yields = 0;
+            parkNanos = MIN_PARK_NANOS;
+        }
+    }
+
+    static class BlockingIdleStrategy extends IdleStrategy {
+
+        private final long maxParkNanos;
+        // wake up before park is not lost
+        private final AtomicBoolean signaled = new AtomicBoolean(false);
+        private volatile Thread waiter;
+
+        private final long pullInterval;
+
+        BlockingIdleStrategy(final long pullInterval) {
+            this.pullInterval = pullInterval;
+            this.maxParkNanos = TimeUnit.MILLISECONDS.toNanos(pullInterval);
+        }
+
+        @Override
+        public void idle() throws InterruptedException {
+            waiter = Thread.currentThread();
+            try {
+                // still wait at most pullInterval for producers of other process
+                if (!signaled.getAndSet(false)) {
+                    LockSupport.parkNanos(this, maxParkNanos);
+                }
+            } finally {
+                waiter = null;
+            }
+            checkInterrupted();
+        }
+
+        @Override
+        public long idleDelay() {
+            // still read after pullInterval for producers of other process
+            return pullInterval;
+        }
+
+        @Override
+        public boolean isWakeUpSupported() {
+            return true;
+        }
+
+        @Override
+        public void wakeUp() {
+            if (signaled.getAndSet(true)) {
+                return;
+            }
+            Thread thread = waiter;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.helper.ChronicleQueueHelper;
+import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.map.ChronicleMap;
+import net.openhft.chronicle.queue.RollCycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * message key -> first position index, one ChronicleMap file per roll cycle under dataDir/key-index,
+ * file name is the same as the cycle file of queue, so old files can be cleaned up in the same way.
+ * two sentinel entries record the range which is not indexed:
+ * positions before start sentinel (index enabled in the middle of cycle) and from overflow sentinel (map is full).
+ *
+ * @author frank
+ */
+public class KeyIndex implements AutoCloseable {
+
+    public static final String KEY_INDEX_DIR_NAME = "key-index";
+    public static final String FILE_SUFFIX = ".dat";
+    public static final int DEFAULT_ENTRIES_PER_CYCLE = SimpleProducerConfig.DEFAULT_KEY_INDEX_ENTRIES;
+    private static final String START_SENTINEL = "\u0000start";
+    private static final String OVERFLOW_SENTINEL = "\u0000overflow";
+    private static final int MAX_OPENED_READ_MAPS = 24;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final File indexDir;
+    private final RollCycle rollCycle;
+    private final int entriesPerCycle;
+
+    // writer, should be called with the write lock of producer
+    private int writeCycle = Integer.MIN_VALUE;
+    private ChronicleMap<String, Long> writeMap;
+    private long writeCount;
+    private boolean writeOverflow;
+
+    // reader, opened maps of recent cycles
+    private final Map<Integer, ChronicleMap<String, Long>> readMaps = new LinkedHashMap<Integer, ChronicleMap<String, Long>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ChronicleMap<String, Long>> eldest) {
+            if (size() > MAX_OPENED_READ_MAPS) {
+                eldest.getValue().close();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * constructor
+     *
+     * @param dataDir         data dir of queue
+     * @param rollCycle       roll cycle of queue
+     * @param entriesPerCycle max keys of one cycle, existing file keeps its own
+     */
+    public KeyIndex(final File dataDir, final RollCycle rollCycle, final int entriesPerCycle) {
+        this.indexDir = getIndexDir(dataDir);
+        this.rollCycle = rollCycle;
+        this.entriesPerCycle = entriesPerCycle;
+    }
+
+    /**
+     * get index dir of data dir.
+     *
+     * @param dataDir data dir of queue
+     * @return index dir
+     */
+    public static File getIndexDir(final File dataDir) {
+        return new File(dataDir, KEY_INDEX_DIR_NAME);
+    }
+
+    private File getIndexFile(final int cycle) {
+        return new File(indexDir, ChronicleQueueHelper.cycleFileName(rollCycle, cycle) + FILE_SUFFIX);
+    }
+
+    // region writer
+
+    /**
+     * record the first position of message key in its cycle.
+     *
+     * @param messageKey message key, null is ignored
+     * @param position   position of message
+     */
+    public void put(final String messageKey, final long position) {
+        if (Objects.isNull(messageKey)) {
+            return;
+        }
+        int cycle = rollCycle.toCycle(position);
+        if (cycle != writeCycle) {
+            openWriteMap(cycle, position);
+        }
+        if (writeOverflow) {
+            return;
+        }
+        // keep one entry for overflow sentinel
+        if (writeCount >= entriesPerCycle - 1) {
+            writeMap.putIfAbsent(OVERFLOW_SENTINEL, position);
+            writeOverflow = true;
+            logger.warn("[KeyIndex] key index of cycle {} is full, position: {}", cycle, position);
+            return;
+        }
+        if (Objects.isNull(writeMap.putIfAbsent(messageKey, position))) {
+            writeCount++;
+        }
+    }
+
+    private void openWriteMap(final int cycle, final long position) {
+        closeWriteMap();
+        try {
+            Files.createDirectories(indexDir.toPath());
+            this.writeMap = ChronicleMap.of(String.class, Long.class)
+                    .name(KEY_INDEX_DIR_NAME + "-" + cycle)
+                    .averageKeySize(64)
+                    .entries(entriesPerCycle)
+                    .createPersistedTo(getIndexFile(cycle));
+        } catch (Exception ex) {
+            throw new IORuntimeException("[KeyIndex.openWriteMap] error", ex);
+        }
+        this.writeCycle = cycle;
+        this.writeMap.putIfAbsent(START_SENTINEL, position);
+        this.writeOverflow = writeMap.containsKey(OVERFLOW_SENTINEL);
+        this.writeCount = writeMap.size();
+    }
+
+    private void closeWriteMap() {
+        if (Objects.nonNull(writeMap) && !writeMap.isClosed()) {
+            writeMap.close();
+        }
+        writeMap = null;
+        writeCycle = Integer.MIN_VALUE;
+    }
+
+    // endregion
+
+    // region reader
+
+    /**
+     * lookup message key in one cycle.
+     *
+     * @param cycle      cycle
+     * @param messageKey message key
+     * @return lookup result, null if cycle is not indexed
+     */
+    public synchronized Lookup lookup(final int cycle, final String messageKey) {
+        ChronicleMap<String, Long> map = readMaps.get(cycle);
+        if (Objects.isNull(map)) {
+            File file = getIndexFile(cycle);
+            if (!file.exists()) {
+                return null;
+            }
+            try {
+                map = ChronicleMap.of(String.class, Long.class)
+                        .name(KEY_INDEX_DIR_NAME + "-" + cycle)
+                        .averageKeySize(64)
+                        .entries(entriesPerCycle)
+                        .createPersistedTo(file);
+            } catch (Exception ex) {
+                logger.warn("[KeyIndex] open key index error, cycle: {}", cycle, ex);
+                return null;
+            }
+            readMaps.put(cycle, map);
+        }
+        Long start = map.get(START_SENTINEL);
+        if (Objects.isNull(start)) {
+            return null;
+        }
+        Long position = map.get(messageKey);
+        Long overflow = map.get(OVERFLOW_SENTINEL);
+        return new Lookup(Objects.isNull(position) ? -1 : position, start,
+                Objects.isNull(overflow) ? Long.MAX_VALUE : overflow);
+    }
+
+    // endregion
+
+    @Override
+    public synchronized void close() {
+        closeWriteMap();
+        for (ChronicleMap<String, Long> map : readMaps.values()) {
+            map.close();
+        }
+        readMaps.clear();
+    }
+
+    /**
+     * lookup result of one cycle.
+     */
+    public static final class Lookup {
+        private final long position;
+        private final long indexedFrom;
+        private final long indexedTo;
+
+        Lookup(long position, long indexedFrom, long indexedTo) {
+            this.position = position;
+            this.indexedFrom = indexedFrom;
+            this.indexedTo = indexedTo;
+        }
+
+        /**
+         * @return first position of key in indexed range, -1 if not found
+         */
+        public long getPosition() {
+            return position;
+        }
+
+        /**
+         * @return positions before this are not indexed
+         */
+        public long getIndexedFrom() {
+            return indexedFrom;
+        }
+
+        /**
+         * @return positions from this are not indexed, Long.MAX_VALUE if all indexed
+         */
+        public long getIndexedTo() {
+            return indexedTo;
+        }
+    }
+}
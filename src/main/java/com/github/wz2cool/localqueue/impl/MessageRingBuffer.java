@@ -0,0 +1,251 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.model.enums.OverflowPolicy;
+import com.github.wz2cool.localqueue.model.message.InternalWriteMessage;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * bounded multi-producer / single-consumer ring buffer, all slots are pre-allocated.
+ * offer only copy the fields into the claimed slot, so there is no allocation on the hot path.
+ *
+ * @author frank
+ */
+public class MessageRingBuffer {
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final int capacity;
+    private final int mask;
+    private final InternalWriteMessage[] slots;
+    // sequence of each slot, slot is writable when sequence == position, readable when sequence == position + 1
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(0);
+    // not only consumer, producers also move head under DROP_OLDEST policy.
+    private final AtomicLong head = new AtomicLong(0);
+    private final OverflowPolicy overflowPolicy;
+    private volatile Thread waitingConsumer;
+    private volatile boolean closed = false;
+
+    /**
+     * constructor
+     *
+     * @param capacity       capacity, will round up to power of 2 (at least 2)
+     * @param overflowPolicy what to do when buffer is full
+     */
+    public MessageRingBuffer(final int capacity, final OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should > 0");
+        }
+        if (capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity should <= 2^30");
+        }
+        // sequence of readable slot is position + 1, so capacity 1 can not tell full from empty.
+        this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.overflowPolicy = overflowPolicy;
+        this.slots = new InternalWriteMessage[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            slots[i] = new InternalWriteMessage();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * offer message.
+     *
+     * @param tag        tag
+     * @param messageKey message key
+     * @param content    content
+     * @return true if success
+     */
+    public boolean offer(final String tag, final String messageKey, final String content) {
+        return offer(tag, messageKey, content, null);
+    }
+
+    /**
+     * offer message.
+     *
+     * @param tag        tag
+     * @param messageKey message key
+     * @param content    content
+     * @param future     complete with position after written, nullable
+     * @return true if success
+     */
+    public boolean offer(final String tag, final String messageKey, final String content, final CompletableFuture<Long> future) {
+        return offer(tag, messageKey, content, null, future);
+    }
+
+    /**
+     * offer binary message, the content bytes should not be modified after offer.
+     *
+     * @param tag          tag
+     * @param messageKey   message key
+     * @param contentBytes content bytes
+     * @param future       complete with position after written, nullable
+     * @return true if success
+     */
+    public boolean offer(final String tag, final String messageKey, final byte[] contentBytes, final CompletableFuture<Long> future) {
+        return offer(tag, messageKey, null, contentBytes, future);
+    }
+
+    private boolean offer(final String tag, final String messageKey, final String content, final byte[] contentBytes,
+                          final CompletableFuture<Long> future) {
+        while (true) {
+            if (closed) {
+                return false;
+            }
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    InternalWriteMessage slot = slots[index];
+                    slot.setTag(tag);
+                    slot.setMessageKey(messageKey);
+                    slot.setContent(content);
+                    slot.setContentBytes(contentBytes);
+                    slot.setFuture(future);
+                    sequences.lazySet(index, position + 1);
+                    wakeUpConsumer();
+                    return true;
+                }
+            } else if (diff < 0) {
+                // full
+                if (!handleOverflow()) {
+                    return false;
+                }
+            }
+            // else another producer has claimed this position, retry.
+        }
+    }
+
+    private boolean handleOverflow() {
+        switch (overflowPolicy) {
+            case FAIL_FAST:
+                return false;
+            case DROP_OLDEST:
+                pollOne(null);
+                return true;
+            case BLOCK:
+            default:
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                return true;
+        }
+    }
+
+    /**
+     * drain messages into targets, should only call by one consumer thread.
+     *
+     * @param targets     messages to copy into, reuse by consumer
+     * @param maxElements max elements
+     * @param timeout     wait timeout if empty
+     * @param unit        time unit
+     * @return the count of drained messages
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public int drainTo(final InternalWriteMessage[] targets, final int maxElements, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        int limit = Math.min(maxElements, targets.length);
+        int count = drainTo(targets, limit);
+        if (count > 0 || timeout <= 0) {
+            return count;
+        }
+        waitingConsumer = Thread.currentThread();
+        try {
+            // check again, producer may offer before we set waiting consumer.
+            if (isEmpty()) {
+                LockSupport.parkNanos(this, unit.toNanos(timeout));
+            }
+        } finally {
+            waitingConsumer = null;
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        return drainTo(targets, limit);
+    }
+
+    private int drainTo(final InternalWriteMessage[] targets, final int limit) {
+        int count = 0;
+        while (count < limit && pollOne(targets[count])) {
+            count++;
+        }
+        return count;
+    }
+
+    private boolean pollOne(final InternalWriteMessage target) {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    InternalWriteMessage slot = slots[index];
+                    if (target != null) {
+                        target.copyFrom(slot);
+                    } else if (Objects.nonNull(slot.getFuture())) {
+                        slot.getFuture().completeExceptionally(new IllegalStateException("message is dropped"));
+                    }
+                    slot.clear();
+                    sequences.lazySet(index, position + capacity);
+                    return true;
+                }
+            } else if (diff < 0) {
+                // empty
+                return false;
+            }
+            // else another thread has taken this position, retry.
+        }
+    }
+
+    private void wakeUpConsumer() {
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    public boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * stop accepting messages, blocking offer will return false.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * drop all messages which have not been drained.
+     *
+     * @param cause waiting offers will complete with this exception
+     */
+    public void clear(final Throwable cause) {
+        InternalWriteMessage target = new InternalWriteMessage();
+        while (pollOne(target)) {
+            if (Objects.nonNull(target.getFuture())) {
+                target.getFuture().completeExceptionally(cause);
+            }
+        }
+    }
+}
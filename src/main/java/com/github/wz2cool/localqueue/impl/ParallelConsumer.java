@@ -0,0 +1,248 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.event.MessageListener;
+import com.github.wz2cool.localqueue.helper.ThreadHelper;
+import com.github.wz2cool.localqueue.model.config.ParallelConsumerConfig;
+import com.github.wz2cool.localqueue.model.message.QueueMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * parallel consumer, messages are dispatched to workers by messageKey,
+ * messages of the same key are handled in order, different keys are handled concurrently.
+ * position is committed by selective ack, so it never passes an unhandled message.
+ * a message still failing after maxRetries is passed to dead letter listener and skipped.
+ *
+ * @author frank
+ */
+public class ParallelConsumer implements AutoCloseable {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final ParallelConsumerConfig config;
+    private final SimpleConsumer consumer;
+    private final MessageListener listener;
+    // nullable, only log the skipped message if null
+    private final MessageListener deadLetterListener;
+    private final long pullInterval;
+    // one lane per worker
+    private final List<BlockingQueue<QueueMessage>> lanes;
+    private final ExecutorService dispatchExecutor;
+    private final ExecutorService workerExecutor;
+    private final AtomicBoolean isClosing = new AtomicBoolean(false);
+    private final AtomicBoolean isClosed = new AtomicBoolean(false);
+    // spread messages without key, should only call by dispatchExecutor
+    private int nextLane = 0;
+    // taken but not dispatched yet, kept after error so that they are never lost, should only call by dispatchExecutor
+    private final ArrayDeque<QueueMessage> dispatchQueue = new ArrayDeque<>();
+
+    /**
+     * constructor
+     *
+     * @param config   the config of parallel consumer
+     * @param listener message listener, called by workers concurrently
+     */
+    public ParallelConsumer(final ParallelConsumerConfig config, final MessageListener listener) {
+        this(config, listener, null);
+    }
+
+    /**
+     * constructor
+     *
+     * @param config             the config of parallel consumer
+     * @param listener           message listener, called by workers concurrently
+     * @param deadLetterListener called with message still failing after maxRetries, then message is acked and skipped,
+     *                           null to only log it
+     */
+    public ParallelConsumer(final ParallelConsumerConfig config, final MessageListener listener,
+                            final MessageListener deadLetterListener) {
+        if (Objects.isNull(listener)) {
+            throw new IllegalArgumentException("listener cannot be null");
+        }
+        this.config = config;
+        this.listener = listener;
+        this.deadLetterListener = deadLetterListener;
+        this.pullInterval = config.getConsumerConfig().getPullInterval();
+        this.consumer = new SimpleConsumer(config.getConsumerConfig());
+        this.lanes = new ArrayList<>(config.getParallelism());
+        ThreadFactory threadFactory = ThreadHelper.getThreadFactory(config.getConsumerConfig().getThreadFactory(),
+                config.getConsumerConfig().getThreadType(), "local-queue-worker-");
+        this.dispatchExecutor = Executors.newSingleThreadExecutor(threadFactory);
+        this.workerExecutor = Executors.newFixedThreadPool(config.getParallelism(), threadFactory);
+        for (int i = 0; i < config.getParallelism(); i++) {
+            BlockingQueue<QueueMessage> lane = new ArrayBlockingQueue<>(config.getLaneCapacity());
+            lanes.add(lane);
+            workerExecutor.execute(() -> work(lane));
+        }
+        dispatchExecutor.execute(this::dispatch);
+    }
+
+    public long getAckedReadPosition() {
+        return consumer.getAckedReadPosition();
+    }
+
+    public boolean isClosed() {
+        return isClosed.get();
+    }
+
+    private void dispatch() {
+        logDebug("[dispatch] start");
+        try {
+            while (!isClosing.get()) {
+                try {
+                    dispatchBatch();
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    // keep dispatching, messages taken but not dispatched are still in dispatchQueue
+                    logger.error("[dispatch] error", e);
+                    TimeUnit.MILLISECONDS.sleep(pullInterval);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            logDebug("[dispatch] end");
+        }
+    }
+
+    private void dispatchBatch() throws InterruptedException {
+        // in selective ack mode, taken messages are not taken again before restart, never drop them.
+        if (dispatchQueue.isEmpty()) {
+            dispatchQueue.addAll(consumer.batchTake(config.getBatchSize(), pullInterval, TimeUnit.MILLISECONDS));
+        }
+        while (!dispatchQueue.isEmpty()) {
+            QueueMessage message = dispatchQueue.peekFirst();
+            BlockingQueue<QueueMessage> lane = lanes.get(laneOf(message));
+            // lane is full, wait for worker
+            while (!lane.offer(message, pullInterval, TimeUnit.MILLISECONDS)) {
+                if (isClosing.get()) {
+                    return;
+                }
+            }
+            dispatchQueue.pollFirst();
+        }
+    }
+
+    private int laneOf(final QueueMessage message) {
+        String messageKey = message.getMessageKey();
+        if (Objects.isNull(messageKey)) {
+            nextLane = (nextLane + 1) % lanes.size();
+            return nextLane;
+        }
+        return (messageKey.hashCode() & Integer.MAX_VALUE) % lanes.size();
+    }
+
+    private void work(final BlockingQueue<QueueMessage> lane) {
+        try {
+            while (!isClosing.get()) {
+                QueueMessage message = lane.poll(pullInterval, TimeUnit.MILLISECONDS);
+                if (Objects.isNull(message)) {
+                    continue;
+                }
+                // retry the same message to keep the order of key
+                int retries = 0;
+                while (!handle(message)) {
+                    if (isClosing.get()) {
+                        return;
+                    }
+                    if (config.getMaxRetries() != -1 && retries >= config.getMaxRetries()) {
+                        deadLetter(message);
+                        break;
+                    }
+                    retries++;
+                    TimeUnit.MILLISECONDS.sleep(pullInterval);
+                }
+                ack(message);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ack(final QueueMessage message) {
+        try {
+            consumer.ack(message);
+        } catch (Exception e) {
+            // worker keeps running, message is delivered again if position is not committed
+            logger.error("[local-queue] ack error, position: {}", message.getPosition(), e);
+        }
+    }
+
+    // message is acked after this, otherwise it blocks its lane and holds back position forever
+    private void deadLetter(final QueueMessage message) {
+        logger.error("[local-queue] message skipped after {} retries, position: {}", config.getMaxRetries(), message.getPosition());
+        if (Objects.isNull(deadLetterListener)) {
+            return;
+        }
+        try {
+            deadLetterListener.onMessage(message);
+        } catch (Exception e) {
+            logger.error("[local-queue] dead letter listener error, position: {}", message.getPosition(), e);
+        }
+    }
+
+    private boolean handle(final QueueMessage message) {
+        try {
+            listener.onMessage(message);
+            return true;
+        } catch (Exception e) {
+            logger.error("[local-queue] message listener error, position: {}", message.getPosition(), e);
+            return false;
+        }
+    }
+
+    /**
+     * stop dispatching and wait for handling messages, messages left in lanes are not acked
+     * and will be consumed again after restart.
+     */
+    @Override
+    public void close() {
+        logDebug("[close] start");
+        if (!isClosing.compareAndSet(false, true)) {
+            logDebug("[close] is closing");
+            return;
+        }
+        try {
+            dispatchExecutor.shutdown();
+            workerExecutor.shutdown();
+            try {
+                if (!dispatchExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    dispatchExecutor.shutdownNow();
+                }
+                if (!workerExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    workerExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                dispatchExecutor.shutdownNow();
+                workerExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            consumer.close();
+            isClosed.set(true);
+        } finally {
+            logDebug("[close] end");
+        }
+    }
+
+    // region logger
+
+    private void logDebug(String format) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(format);
+        }
+    }
+
+    // endregion
+}
@@ -0,0 +1,108 @@
+package com.github.wz2cool.localqueue.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * flush positions of all consumers of SimpleQueue to one position store in a single pass of shared timer,
+ * instead of one store and one timer task per consumer. only changed positions are written.
+ *
+ * @author frank
+ */
+class PositionFlusher implements AutoCloseable {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final PositionStore positionStore;
+    private final Map<String, LongSupplier> positions = new ConcurrentHashMap<>();
+    // last written position of each consumer, guarded by this
+    private final Map<String, Long> flushedPositions = new ConcurrentHashMap<>();
+    private final SharedTimer.Registration registration;
+    // guarded by this
+    private boolean isClosed = false;
+
+    /**
+     * constructor
+     *
+     * @param positionFile   position file shared by consumers
+     * @param intervalMillis flush interval (ms)
+     */
+    PositionFlusher(final File positionFile, final long intervalMillis) {
+        this.positionStore = new PositionStore(positionFile);
+        this.registration = SharedTimer.getInstance().register(intervalMillis, this::flushAll);
+    }
+
+    /**
+     * position store shared by consumers, closed by this flusher.
+     *
+     * @return position store
+     */
+    PositionStore getPositionStore() {
+        return positionStore;
+    }
+
+    /**
+     * flush position of consumer from now on.
+     *
+     * @param consumerId consumer id
+     * @param position   acked position of consumer, -1 if nothing acked
+     */
+    void add(final String consumerId, final LongSupplier position) {
+        positions.put(consumerId, position);
+    }
+
+    /**
+     * flush position of consumer the last time and stop flushing it.
+     *
+     * @param consumerId consumer id
+     */
+    synchronized void remove(final String consumerId) {
+        LongSupplier position = positions.remove(consumerId);
+        if (Objects.nonNull(position) && !isClosed) {
+            flush(consumerId, position);
+        }
+        flushedPositions.remove(consumerId);
+    }
+
+    private synchronized void flushAll() {
+        if (isClosed) {
+            return;
+        }
+        for (Map.Entry<String, LongSupplier> entry : positions.entrySet()) {
+            flush(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void flush(final String consumerId, final LongSupplier position) {
+        try {
+            long value = position.getAsLong();
+            if (value == -1 || Objects.equals(flushedPositions.get(consumerId), value)) {
+                return;
+            }
+            positionStore.put(consumerId, value);
+            flushedPositions.put(consumerId, value);
+        } catch (Exception e) {
+            logger.error("[local-queue] flush position error, consumerId: {}", consumerId, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        registration.cancel();
+        synchronized (this) {
+            if (isClosed) {
+                return;
+            }
+            flushAll();
+            isClosed = true;
+            positions.clear();
+            flushedPositions.clear();
+            positionStore.close();
+        }
+    }
+}
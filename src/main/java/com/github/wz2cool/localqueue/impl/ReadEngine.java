@@ -0,0 +1,128 @@
+package com.github.wz2cool.localqueue.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * shared read engine, runs read steps of many consumers on a small thread pool
+ * instead of one dedicated read thread per consumer.
+ * each consumer gets a serial executor, so its tailer is still used by one task at a time.
+ *
+ * @author frank
+ */
+class ReadEngine implements AutoCloseable {
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final ExecutorService readerPool;
+    private volatile boolean isClosed = false;
+
+    /**
+     * constructor
+     *
+     * @param readerThreads thread count of reader pool
+     * @param threadFactory thread factory of reader pool
+     */
+    ReadEngine(final int readerThreads, final ThreadFactory threadFactory) {
+        this.readerPool = Executors.newFixedThreadPool(readerThreads, threadFactory);
+    }
+
+    /**
+     * create executor for one consumer, tasks are run one by one in submit order.
+     *
+     * @return serial executor
+     */
+    Executor newSerialExecutor() {
+        return new SerialExecutor(readerPool);
+    }
+
+    /**
+     * run task after delay on the daemon thread of shared timer, ignored if engine is closed.
+     * task should only submit read steps, which run on reader pool.
+     *
+     * @param task        task
+     * @param delayMillis delay (ms)
+     */
+    void schedule(final Runnable task, final long delayMillis) {
+        SharedTimer.getInstance().schedule(delayMillis, () -> {
+            if (isClosed) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (RejectedExecutionException ex) {
+                logger.debug("[ReadEngine] closed, task ignored");
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        isClosed = true;
+        readerPool.shutdown();
+        try {
+            if (!readerPool.awaitTermination(1, TimeUnit.SECONDS)) {
+                readerPool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            readerPool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class SerialExecutor implements Executor {
+
+        private final Executor executor;
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private Runnable active;
+
+        SerialExecutor(final Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public synchronized void execute(final Runnable task) {
+            tasks.add(() -> {
+                try {
+                    task.run();
+                } finally {
+                    runNext();
+                }
+            });
+            if (active == null) {
+                try {
+                    scheduleNext();
+                } catch (RejectedExecutionException ex) {
+                    // engine is closed, caller gets the error
+                    tasks.clear();
+                    active = null;
+                    throw ex;
+                }
+            }
+        }
+
+        private synchronized void runNext() {
+            try {
+                scheduleNext();
+            } catch (RejectedExecutionException ex) {
+                // engine is closed, drop the rest
+                tasks.clear();
+                active = null;
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            if ((active = tasks.poll()) != null) {
+                executor.execute(active);
+            }
+        }
+    }
+}
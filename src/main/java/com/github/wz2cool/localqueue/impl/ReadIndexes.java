@@ -0,0 +1,50 @@
+package com.github.wz2cool.localqueue.impl;
+
+import net.openhft.chronicle.queue.RollCycle;
+
+import java.io.File;
+
+/**
+ * tag dictionary, key index and time index read by consumers of one data dir.
+ * shared by all consumers of {@link SimpleQueue}, so each file is opened once per queue.
+ *
+ * @author frank
+ */
+class ReadIndexes implements AutoCloseable {
+
+    private final TagDictionary tagDictionary;
+    private final KeyIndex keyIndex;
+    private final TimeIndex timeIndex;
+
+    /**
+     * constructor, files are opened lazily on first lookup.
+     *
+     * @param dataDir   data dir of queue
+     * @param rollCycle roll cycle of queue
+     */
+    ReadIndexes(final File dataDir, final RollCycle rollCycle) {
+        this.tagDictionary = new TagDictionary(dataDir);
+        this.keyIndex = new KeyIndex(dataDir, rollCycle, KeyIndex.DEFAULT_ENTRIES_PER_CYCLE);
+        // interval is only for writer
+        this.timeIndex = new TimeIndex(dataDir, rollCycle, 1);
+    }
+
+    TagDictionary getTagDictionary() {
+        return tagDictionary;
+    }
+
+    KeyIndex getKeyIndex() {
+        return keyIndex;
+    }
+
+    TimeIndex getTimeIndex() {
+        return timeIndex;
+    }
+
+    @Override
+    public void close() {
+        tagDictionary.close();
+        keyIndex.close();
+        timeIndex.close();
+    }
+}
@@ -0,0 +1,248 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.model.enums.IdleStrategyType;
+import com.github.wz2cool.localqueue.model.message.InternalReadMessage;
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.wire.DocumentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * one tailer of read engine that reads new messages once for all caught up consumers of SimpleQueue,
+ * each excerpt is filtered by tag of every attached consumer and decoded at most once.
+ * consumers read by own tailer until they reach the position of this pass, and go back to own tailer
+ * when cache is full, listener is subscribed, position is moved or consumer is closed.
+ *
+ * @author frank
+ */
+class SharedReadPass implements AutoCloseable {
+
+    static final long UNKNOWN_POSITION = -1;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final ExcerptTailer tailer;
+    private final ReadEngine readEngine;
+    private final Executor passExecutor;
+    private final IdleStrategy idleStrategy;
+    private final int readBatchSize;
+    // reuse by pass, decoded once per excerpt for all matched consumers
+    private final InternalReadMessage readMessage;
+    // lock order: passLock, then closeLock of consumer
+    private final ReentrantLock passLock = new ReentrantLock();
+    // guarded by passLock
+    private final List<SimpleConsumer> consumers = new ArrayList<>();
+    private final AtomicBoolean isStepPending = new AtomicBoolean(false);
+    private final AtomicBoolean isTimerPending = new AtomicBoolean(false);
+    // guarded by passLock
+    private long lastReadPosition = UNKNOWN_POSITION;
+    // guarded by passLock
+    private long decodedPosition = UNKNOWN_POSITION;
+    private volatile boolean isClosed = false;
+
+    /**
+     * constructor
+     *
+     * @param queue            shared queue
+     * @param readEngine       read engine runs read steps of this pass
+     * @param idleStrategyType idle strategy when no new message
+     * @param pullInterval     pull interval (ms)
+     * @param readBatchSize    max excerpts read in one step
+     * @param tagResolver      resolve tag by tag id
+     */
+    SharedReadPass(final SingleChronicleQueue queue, final ReadEngine readEngine, final IdleStrategyType idleStrategyType,
+                   final long pullInterval, final int readBatchSize, final IntFunction<String> tagResolver) {
+        this.readEngine = readEngine;
+        this.passExecutor = readEngine.newSerialExecutor();
+        this.idleStrategy = IdleStrategy.create(idleStrategyType, pullInterval);
+        this.readBatchSize = readBatchSize;
+        this.readMessage = new InternalReadMessage(null, false, tagResolver);
+        this.tailer = queue.createTailer();
+        // read steps run on different threads of read engine, but one by one under pass lock.
+        this.tailer.singleThreadedCheckDisabled(true);
+    }
+
+    /**
+     * attach a caught up consumer, called by read step of consumer.
+     *
+     * @param consumer consumer
+     * @return true if attached, new messages are pushed by this pass from now on
+     */
+    boolean tryAttach(final SimpleConsumer consumer) {
+        boolean attached = false;
+        passLock.lock();
+        try {
+            if (isClosed) {
+                return false;
+            }
+            // no consumer follows pass, start from the first consumer
+            if (consumers.isEmpty() && !moveTo(consumer.getLastReadPosition())) {
+                return false;
+            }
+            if (consumer.attachSharedPass(lastReadPosition)) {
+                consumers.add(consumer);
+                attached = true;
+            }
+        } finally {
+            passLock.unlock();
+        }
+        // messages may be written before attach, or pass is behind consumer
+        requestStep();
+        return attached;
+    }
+
+    /**
+     * remove consumer before it is closed.
+     *
+     * @param consumer consumer
+     */
+    void detach(final SimpleConsumer consumer) {
+        passLock.lock();
+        try {
+            consumers.remove(consumer);
+        } finally {
+            passLock.unlock();
+        }
+    }
+
+    /**
+     * new messages may be available, only works with blocking idle strategy.
+     */
+    void wakeUp() {
+        if (idleStrategy.isWakeUpSupported()) {
+            requestStep();
+        }
+    }
+
+    /**
+     * decode excerpt for matched consumer, only once for all consumers of the same excerpt.
+     *
+     * @param bytes    bytes of excerpt
+     * @param start    start of excerpt
+     * @param position position of excerpt
+     * @return decoded message, only valid until next excerpt
+     */
+    InternalReadMessage decode(final Bytes<?> bytes, final long start, final long position) {
+        if (decodedPosition != position) {
+            bytes.readPosition(start);
+            readMessage.readMarshallable(bytes);
+            decodedPosition = position;
+        }
+        return readMessage;
+    }
+
+    private void requestStep() {
+        if (!isClosed && isStepPending.compareAndSet(false, true)) {
+            passExecutor.execute(this::step);
+        }
+    }
+
+    private void step() {
+        isStepPending.set(false);
+        boolean hasMessage = false;
+        passLock.lock();
+        try {
+            if (isClosed || consumers.isEmpty()) {
+                // idle until a consumer is attached
+                return;
+            }
+            for (int i = 0; i < readBatchSize && !consumers.isEmpty(); i++) {
+                if (!dispatchNext()) {
+                    break;
+                }
+                hasMessage = true;
+            }
+            if (consumers.isEmpty()) {
+                return;
+            }
+        } catch (Exception e) {
+            logger.error("[local-queue] shared read pass error", e);
+        } finally {
+            passLock.unlock();
+        }
+        if (hasMessage) {
+            idleStrategy.reset();
+            requestStep();
+            return;
+        }
+        long idleDelay = idleStrategy.idleDelay();
+        if (idleDelay <= 0) {
+            requestStep();
+        } else if (isTimerPending.compareAndSet(false, true)) {
+            readEngine.schedule(() -> {
+                isTimerPending.set(false);
+                requestStep();
+            }, idleDelay);
+        }
+    }
+
+    /**
+     * read next excerpt and offer it to every attached consumer, consumers which cannot take it are detached
+     * and read it again by own tailer.
+     *
+     * @return false if no message
+     */
+    private boolean dispatchNext() {
+        try (DocumentContext documentContext = tailer.readingDocument()) {
+            if (!documentContext.isPresent()) {
+                return false;
+            }
+            Bytes<?> bytes = documentContext.wire().bytes();
+            long start = bytes.readPosition();
+            long position = documentContext.index();
+            Iterator<SimpleConsumer> iterator = consumers.iterator();
+            while (iterator.hasNext()) {
+                bytes.readPosition(start);
+                if (!iterator.next().offerFromSharedPass(bytes, start, position, this)) {
+                    iterator.remove();
+                }
+            }
+            lastReadPosition = position;
+            return true;
+        }
+    }
+
+    /**
+     * move tailer after position, so that next read is the one after it.
+     */
+    private boolean moveTo(final long position) {
+        if (position == UNKNOWN_POSITION) {
+            return false;
+        }
+        if (position == lastReadPosition) {
+            return true;
+        }
+        lastReadPosition = UNKNOWN_POSITION;
+        if (!tailer.moveToIndex(position)) {
+            return false;
+        }
+        try (DocumentContext documentContext = tailer.readingDocument()) {
+            if (!documentContext.isPresent() || documentContext.index() != position) {
+                return false;
+            }
+        }
+        lastReadPosition = position;
+        return true;
+    }
+
+    @Override
+    public void close() {
+        passLock.lock();
+        try {
+            isClosed = true;
+            consumers.clear();
+            tailer.close();
+        } finally {
+            passLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.github.wz2cool.localqueue.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * process-wide timer for periodic housekeeping of producers and consumers (position flush, clean up)
+ * and delayed read steps of read engine.
+ * tasks with the same interval are run one after another in a single pass,
+ * so hundreds of consumers cost one daemon thread and one wakeup per interval.
+ * blocking tasks are only submitted by the timer and run on another daemon thread.
+ *
+ * @author frank
+ */
+final class SharedTimer {
+
+    private static final SharedTimer INSTANCE = new SharedTimer();
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "local-queue-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // runs blocking tasks like file clean up, so that they never delay other tasks of timer
+    private final ExecutorService blockingExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "local-queue-timer-blocking");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Long, TaskGroup> groups = new ConcurrentHashMap<>();
+
+    private SharedTimer() {
+    }
+
+    static SharedTimer getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * run task at once, then every interval together with other tasks of the same interval.
+     * should be short and never throw, or it delays other tasks.
+     *
+     * @param intervalMillis interval (ms)
+     * @param task           task
+     * @return registration, cancel it before releasing resources used by task
+     */
+    Registration register(final long intervalMillis, final Runnable task) {
+        return register(intervalMillis, task, false);
+    }
+
+    /**
+     * run blocking task at once, then every interval on a separate daemon thread,
+     * the tick of interval is skipped if last run is not finished.
+     *
+     * @param intervalMillis interval (ms)
+     * @param task           blocking task, e.g. file clean up
+     * @return registration
+     */
+    Registration registerBlocking(final long intervalMillis, final Runnable task) {
+        return register(intervalMillis, task, true);
+    }
+
+    private Registration register(final long intervalMillis, final Runnable task, final boolean isBlocking) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("intervalMillis should > 0");
+        }
+        Registration registration = new Registration(task, isBlocking);
+        while (true) {
+            TaskGroup group = groups.computeIfAbsent(intervalMillis, TaskGroup::new);
+            synchronized (group) {
+                // group is removed after the last task is cancelled, create a new one
+                if (group.isCancelled) {
+                    continue;
+                }
+                registration.group = group;
+                group.registrations.add(registration);
+            }
+            break;
+        }
+        scheduler.execute(registration::runOnce);
+        return registration;
+    }
+
+    /**
+     * run task once after delay, should be short, e.g. only submit work to other executor.
+     *
+     * @param delayMillis delay (ms)
+     * @param task        task
+     */
+    void schedule(final long delayMillis, final Runnable task) {
+        scheduler.schedule(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("[local-queue] timer task error", e);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private final class TaskGroup {
+        private final long intervalMillis;
+        private final ConcurrentLinkedQueue<Registration> registrations = new ConcurrentLinkedQueue<>();
+        private final ScheduledFuture<?> future;
+        // guarded by this
+        private boolean isCancelled = false;
+
+        private TaskGroup(final long intervalMillis) {
+            this.intervalMillis = intervalMillis;
+            this.future = scheduler.scheduleAtFixedRate(this::runAll, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void runAll() {
+            for (Registration registration : registrations) {
+                registration.run();
+            }
+        }
+
+        private synchronized void remove(final Registration registration) {
+            registrations.remove(registration);
+            if (registrations.isEmpty() && !isCancelled) {
+                isCancelled = true;
+                future.cancel(false);
+                groups.remove(intervalMillis, this);
+            }
+        }
+    }
+
+    final class Registration {
+        private final Runnable task;
+        private final boolean isBlocking;
+        // blocking task is submitted or running
+        private final AtomicBoolean isBlockingPending = new AtomicBoolean(false);
+        private volatile TaskGroup group;
+        private volatile boolean isCancelled = false;
+
+        private Registration(final Runnable task, final boolean isBlocking) {
+            this.task = task;
+            this.isBlocking = isBlocking;
+        }
+
+        private void runOnce() {
+            synchronized (group) {
+                run();
+            }
+        }
+
+        private void run() {
+            if (isCancelled) {
+                return;
+            }
+            if (!isBlocking) {
+                runTask();
+                return;
+            }
+            if (isBlockingPending.compareAndSet(false, true)) {
+                blockingExecutor.execute(() -> {
+                    try {
+                        if (!isCancelled) {
+                            runTask();
+                        }
+                    } finally {
+                        isBlockingPending.set(false);
+                    }
+                });
+            }
+        }
+
+        private void runTask() {
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("[local-queue] timer task error", e);
+            }
+        }
+
+        /**
+         * stop running task, task is not running when this method returns,
+         * unless it is called by task itself or it is a blocking task already started.
+         */
+        void cancel() {
+            TaskGroup currentGroup = group;
+            // wait for the running pass of group
+            synchronized (currentGroup) {
+                isCancelled = true;
+            }
+            currentGroup.remove(this);
+        }
+    }
+}
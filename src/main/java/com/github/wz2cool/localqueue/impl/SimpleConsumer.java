@@ -1,12 +1,20 @@
 package com.github.wz2cool.localqueue.impl;
 
 import com.github.wz2cool.localqueue.IConsumer;
+import com.github.wz2cool.localqueue.event.BatchMessageListener;
 import com.github.wz2cool.localqueue.event.CloseListener;
+import com.github.wz2cool.localqueue.event.MessageListener;
+import com.github.wz2cool.localqueue.event.MessageViewListener;
 import com.github.wz2cool.localqueue.helper.ChronicleQueueHelper;
+import com.github.wz2cool.localqueue.helper.ThreadHelper;
 import com.github.wz2cool.localqueue.model.config.SimpleConsumerConfig;
+import com.github.wz2cool.localqueue.model.enums.AckMode;
 import com.github.wz2cool.localqueue.model.enums.ConsumeFromWhere;
 import com.github.wz2cool.localqueue.model.message.InternalReadMessage;
+import com.github.wz2cool.localqueue.model.message.MessageHeader;
+import com.github.wz2cool.localqueue.model.message.MessageView;
 import com.github.wz2cool.localqueue.model.message.QueueMessage;
+import com.github.wz2cool.localqueue.model.message.ReadProjection;
 import com.github.wz2cool.localqueue.model.page.PageInfo;
 import com.github.wz2cool.localqueue.model.page.SortDirection;
 import com.github.wz2cool.localqueue.model.page.UpDown;
@@ -15,27 +23,34 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+import net.openhft.chronicle.bytes.Bytes;
 import net.openhft.chronicle.core.time.TimeProvider;
 import net.openhft.chronicle.queue.ChronicleQueue;
 import net.openhft.chronicle.queue.ExcerptTailer;
 import net.openhft.chronicle.queue.RollCycle;
 import net.openhft.chronicle.queue.TailerDirection;
 import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.wire.DocumentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,25 +61,70 @@ import org.slf4j.LoggerFactory;
  */
 public class SimpleConsumer implements IConsumer {
 
+    // skip non-matching excerpts in one lock
+    private static final int MAX_SKIP_PER_READ = 1024;
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final RollCycle defaultRollCycle;
     private final TimeProvider timeProvider;
     private final Set<String> matchTags;
+    private final TagFilter tagFilter;
     private final SimpleConsumerConfig config;
     private final PositionStore positionStore;
+    // null if position is flushed by own timer task, closed by SimpleQueue
+    private final PositionFlusher positionFlusher;
+    // false if indexes are shared by SimpleQueue, closed by owner
+    private final boolean ownsIndexes;
+    private final ReadIndexes readIndexes;
+    private final TagDictionary tagDictionary;
+    private final KeyIndex keyIndex;
+    private final TimeIndex timeIndex;
     private final SingleChronicleQueue queue;
-    // should only call by readCacheExecutor
+    // false if queue is shared by SimpleQueue, closed by owner
+    private final boolean ownsQueue;
+    // should only call by readExecutor
     private final ExcerptTailer mainTailer;
-    private final ExecutorService readCacheExecutor = Executors.newSingleThreadExecutor();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    // null if read by shared read engine of SimpleQueue
+    private final ExecutorService readCacheExecutor;
+    private final ReadEngine readEngine;
+    // runs read loop and tailer operations one by one, readCacheExecutor or serial executor of read engine
+    private final Executor readExecutor;
+    // a read step of read engine is submitted or running
+    private final AtomicBoolean isReadStepPending = new AtomicBoolean(false);
+    // a delayed read step of read engine is scheduled, at most one per consumer
+    private final AtomicBoolean isReadTimerPending = new AtomicBoolean(false);
+    // flush position on shared timer with other consumers, null if flushed by position flusher
+    private final SharedTimer.Registration flushPositionRegistration;
     private final LinkedBlockingQueue<QueueMessage> messageCache;
     private final ConcurrentLinkedQueue<CloseListener> closeListenerList = new ConcurrentLinkedQueue<>();
     private final AtomicLong ackedReadPosition = new AtomicLong(-1);
     private final AtomicBoolean isReadToCacheRunning = new AtomicBoolean(true);
     private final AtomicBoolean isClosing = new AtomicBoolean(false);
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
-    private final Object closeLocker = new Object();
+    // lock instead of monitor, read thread may wait in it without pinning virtual thread
+    private final ReentrantLock closeLock = new ReentrantLock();
     private final AtomicInteger positionVersion = new AtomicInteger(0);
+    private final boolean selectiveAck;
+    // should only call idle / reset by readExecutor
+    private final IdleStrategy idleStrategy;
+    // reuse by read thread, only for subscribe.
+    private final MessageView messageView = new MessageView();
+    private final InternalReadMessage subscribeReadMessage;
+    // reuse by read thread, tag is filtered by tagFilter before decoding.
+    private final InternalReadMessage cacheReadMessage;
+    // only for consume by tag index, should only call by readExecutor
+    private TagIndexReader tagIndexReader;
+    // not null if subscribed, called by read thread instead of filling cache.
+    private volatile ListenerReader listenerReader;
+    // listener failed, read again after pull interval, should only call by readExecutor
+    private boolean isListenerFailed = false;
+    // null if not read by read engine of SimpleQueue
+    private final SharedReadPass sharedReadPass;
+    // position of the last excerpt read or skipped by main tailer or shared read pass, unknown after main tailer is moved
+    private volatile long lastReadPosition = SharedReadPass.UNKNOWN_POSITION;
+    // messages are pushed by shared read pass and main tailer is not moved, changed under closeLock
+    private volatile boolean isOnSharedPass = false;
+    // main tailer is behind last read position after leaving shared read pass, guarded by closeLock
+    private boolean isMainTailerBehind = false;
 
     /**
      * constructor
@@ -72,99 +132,156 @@ public class SimpleConsumer implements IConsumer {
      * @param config the config of consumer
      */
     public SimpleConsumer(final SimpleConsumerConfig config) {
+        this(config, null, null, null, null, null);
+    }
+
+    /**
+     * constructor
+     *
+     * @param config        the config of consumer
+     * @param sharedQueue   queue shared with producer and other consumers, not closed by this consumer,
+     *                      null to create one
+     * @param readEngine    shared read engine, read steps are run by it and idle strategy only decides
+     *                      the delay of next step, null to read by own thread
+     * @param sharedIndexes tag dictionary and indexes shared with other consumers, not closed by this consumer,
+     *                      null to create them
+     * @param sharedReadPass read pass of read engine shared with other consumers, joined once caught up,
+     *                      null to always read by own tailer
+     * @param positionFlusher flush positions of all consumers in one pass, null to open own position store
+     */
+    SimpleConsumer(final SimpleConsumerConfig config, final SingleChronicleQueue sharedQueue, final ReadEngine readEngine,
+                   final ReadIndexes sharedIndexes, final SharedReadPass sharedReadPass,
+                   final PositionFlusher positionFlusher) {
         this.config = config;
+        this.readEngine = readEngine;
+        this.sharedReadPass = sharedReadPass;
+        this.readCacheExecutor = Objects.isNull(readEngine) ? Executors.newSingleThreadExecutor(
+                ThreadHelper.getThreadFactory(config.getThreadFactory(), config.getThreadType(), "local-queue-read-")) : null;
+        this.readExecutor = Objects.isNull(readEngine) ? readCacheExecutor : readEngine.newSerialExecutor();
         this.matchTags = getMatchTags(config.getSelectorTag());
+        this.selectiveAck = config.getAckMode() == AckMode.SELECTIVE;
+        this.idleStrategy = IdleStrategy.create(config.getIdleStrategyType(), config.getPullInterval());
         this.timeProvider = ChronicleQueueHelper.getTimeProvider(config.getTimeZone());
         this.messageCache = new LinkedBlockingQueue<>(config.getCacheSize());
-        this.positionStore = new PositionStore(config.getPositionFile());
+        this.positionFlusher = positionFlusher;
+        this.positionStore = Objects.isNull(positionFlusher)
+                ? new PositionStore(config.getPositionFile()) : positionFlusher.getPositionStore();
         this.defaultRollCycle = ChronicleQueueHelper.getRollCycle(config.getRollCycleType());
-        this.queue = ChronicleQueue.singleBuilder(config.getDataDir())
+        this.ownsIndexes = Objects.isNull(sharedIndexes);
+        this.readIndexes = ownsIndexes ? new ReadIndexes(config.getDataDir(), defaultRollCycle) : sharedIndexes;
+        this.tagDictionary = readIndexes.getTagDictionary();
+        this.keyIndex = readIndexes.getKeyIndex();
+        this.timeIndex = readIndexes.getTimeIndex();
+        this.tagFilter = new TagFilter(matchTags, tagDictionary::getTag);
+        this.subscribeReadMessage = new InternalReadMessage(null, false, tagDictionary::getTag);
+        this.cacheReadMessage = new InternalReadMessage(null, false, tagDictionary::getTag);
+        this.ownsQueue = Objects.isNull(sharedQueue);
+        this.queue = ownsQueue ? ChronicleQueue.singleBuilder(config.getDataDir())
                 .timeProvider(timeProvider)
                 .rollCycle(defaultRollCycle)
-                .build();
+                .build() : sharedQueue;
         this.mainTailer = initMainTailer();
         startReadToCache();
-        scheduler.scheduleAtFixedRate(this::flushPosition, 0, config.getFlushPositionInterval(), TimeUnit.MILLISECONDS);
+        if (Objects.isNull(positionFlusher)) {
+            this.flushPositionRegistration = SharedTimer.getInstance()
+                    .register(config.getFlushPositionInterval(), this::flushPosition);
+        } else {
+            this.flushPositionRegistration = null;
+            positionFlusher.add(config.getConsumerId(), ackedReadPosition::get);
+        }
     }
 
 
-    private final List<QueueMessage> pendingMessages = Collections.synchronizedList(new ArrayList<>());
+    // taken but not acked messages, keyed by position, redelivered by take / poll until acked.
+    // always empty in selective ack mode.
+    private final ConcurrentSkipListMap<Long, QueueMessage> pendingMessages = new ConcurrentSkipListMap<>();
+    // only for selective ack, positions read to cache but not acked.
+    private final ConcurrentSkipListSet<Long> inFlightPositions = new ConcurrentSkipListSet<>();
+    // only for selective ack, acked positions above the lowest in flight one, guarded by ackLocker.
+    private final TreeSet<Long> ackedAheadPositions = new TreeSet<>();
+    private final Object ackLocker = new Object();
 
     @Override
-    public synchronized QueueMessage take() throws InterruptedException {
-        if (!pendingMessages.isEmpty()) {
-            return pendingMessages.get(0);
+    public QueueMessage take() throws InterruptedException {
+        QueueMessage pendingMessage = firstPendingMessage();
+        if (Objects.nonNull(pendingMessage)) {
+            return pendingMessage;
         }
         QueueMessage message = this.messageCache.take();
-        pendingMessages.add(message);
+        addPendingMessage(message);
         return message;
     }
 
     @Override
-    public synchronized List<QueueMessage> batchTake(int maxBatchSize) throws InterruptedException {
-        if (!pendingMessages.isEmpty()) {
-            return pendingMessages.subList(0, Math.min(maxBatchSize, pendingMessages.size()));
+    public List<QueueMessage> batchTake(int maxBatchSize) throws InterruptedException {
+        List<QueueMessage> pending = firstPendingMessages(maxBatchSize);
+        if (!pending.isEmpty()) {
+            return pending;
         }
         List<QueueMessage> result = new ArrayList<>(maxBatchSize);
         QueueMessage take = this.messageCache.take();
         result.add(take);
         this.messageCache.drainTo(result, maxBatchSize - 1);
-        pendingMessages.addAll(result);
+        addPendingMessages(result);
         return result;
     }
 
     @Override
-    public synchronized Optional<QueueMessage> take(long timeout, TimeUnit unit) throws InterruptedException {
-        if (!pendingMessages.isEmpty()) {
-            return Optional.of(pendingMessages.get(0));
+    public Optional<QueueMessage> take(long timeout, TimeUnit unit) throws InterruptedException {
+        QueueMessage pendingMessage = firstPendingMessage();
+        if (Objects.nonNull(pendingMessage)) {
+            return Optional.of(pendingMessage);
         }
         QueueMessage message = this.messageCache.poll(timeout, unit);
         if (Objects.nonNull(message)) {
-            pendingMessages.add(message);
+            addPendingMessage(message);
         }
         return Optional.ofNullable(message);
     }
 
     @Override
-    public synchronized List<QueueMessage> batchTake(int maxBatchSize, long timeout, TimeUnit unit) throws InterruptedException {
-        if (!pendingMessages.isEmpty()) {
-            return pendingMessages.subList(0, Math.min(maxBatchSize, pendingMessages.size()));
+    public List<QueueMessage> batchTake(int maxBatchSize, long timeout, TimeUnit unit) throws InterruptedException {
+        List<QueueMessage> pending = firstPendingMessages(maxBatchSize);
+        if (!pending.isEmpty()) {
+            return pending;
         }
         List<QueueMessage> result = new ArrayList<>(maxBatchSize);
         QueueMessage poll = this.messageCache.poll(timeout, unit);
         if (Objects.nonNull(poll)) {
             result.add(poll);
             this.messageCache.drainTo(result, maxBatchSize - 1);
-            pendingMessages.addAll(result);
+            addPendingMessages(result);
         }
         return result;
     }
 
     @Override
-    public synchronized Optional<QueueMessage> poll() {
-        if (!pendingMessages.isEmpty()) {
-            return Optional.of(pendingMessages.get(0));
+    public Optional<QueueMessage> poll() {
+        QueueMessage pendingMessage = firstPendingMessage();
+        if (Objects.nonNull(pendingMessage)) {
+            return Optional.of(pendingMessage);
         }
         QueueMessage message = this.messageCache.poll();
         if (Objects.nonNull(message)) {
-            pendingMessages.add(message);
+            addPendingMessage(message);
         }
         return Optional.ofNullable(message);
     }
 
     @Override
-    public synchronized List<QueueMessage> batchPoll(int maxBatchSize) {
-        if (!pendingMessages.isEmpty()) {
-            return pendingMessages.subList(0, Math.min(maxBatchSize, pendingMessages.size()));
+    public List<QueueMessage> batchPoll(int maxBatchSize) {
+        List<QueueMessage> pending = firstPendingMessages(maxBatchSize);
+        if (!pending.isEmpty()) {
+            return pending;
         }
         List<QueueMessage> result = new ArrayList<>(maxBatchSize);
         this.messageCache.drainTo(result, maxBatchSize);
-        pendingMessages.addAll(result);
+        addPendingMessages(result);
         return result;
     }
 
     @Override
-    public synchronized void ack(final QueueMessage message) {
+    public void ack(final QueueMessage message) {
         if (Objects.isNull(message)) {
             return;
         }
@@ -172,12 +289,16 @@ public class SimpleConsumer implements IConsumer {
         if (message.getPositionVersion() != positionVersion.get()) {
             return;
         }
+        if (selectiveAck) {
+            ackSelective(Collections.singletonList(message));
+            return;
+        }
         ackedReadPosition.set(message.getPosition());
-        pendingMessages.remove(message);
+        pendingMessages.remove(message.getPosition(), message);
     }
 
     @Override
-    public synchronized void ack(final List<QueueMessage> messages) {
+    public void ack(final List<QueueMessage> messages) {
         if (Objects.isNull(messages) || messages.isEmpty()) {
             return;
         }
@@ -185,10 +306,307 @@ public class SimpleConsumer implements IConsumer {
         if (lastOne.getPositionVersion() != positionVersion.get()) {
             return;
         }
+        if (selectiveAck) {
+            ackSelective(messages);
+            return;
+        }
         ackedReadPosition.set(lastOne.getPosition());
-        pendingMessages.removeAll(messages);
+        for (QueueMessage message : messages) {
+            pendingMessages.remove(message.getPosition(), message);
+        }
+    }
+
+    // region pending
+
+    private void addPendingMessage(final QueueMessage message) {
+        if (selectiveAck) {
+            return;
+        }
+        pendingMessages.put(message.getPosition(), message);
+    }
+
+    private void addPendingMessages(final List<QueueMessage> messages) {
+        if (selectiveAck) {
+            return;
+        }
+        for (QueueMessage message : messages) {
+            pendingMessages.put(message.getPosition(), message);
+        }
+    }
+
+    private QueueMessage firstPendingMessage() {
+        Map.Entry<Long, QueueMessage> entry;
+        while ((entry = pendingMessages.firstEntry()) != null) {
+            QueueMessage message = entry.getValue();
+            if (message.getPositionVersion() == positionVersion.get()) {
+                return message;
+            }
+            // taken before move to other position, can never be acked.
+            pendingMessages.remove(entry.getKey(), message);
+        }
+        return null;
+    }
+
+    private List<QueueMessage> firstPendingMessages(final int maxBatchSize) {
+        if (pendingMessages.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<QueueMessage> result = new ArrayList<>();
+        for (QueueMessage message : pendingMessages.values()) {
+            if (result.size() >= maxBatchSize) {
+                break;
+            }
+            if (message.getPositionVersion() != positionVersion.get()) {
+                pendingMessages.remove(message.getPosition(), message);
+                continue;
+            }
+            result.add(message);
+        }
+        return result;
+    }
+
+    /**
+     * commit position to the highest acked one which has no unacked message before it.
+     */
+    private void ackSelective(final List<QueueMessage> messages) {
+        synchronized (ackLocker) {
+            for (QueueMessage message : messages) {
+                // already acked or moved to other position
+                if (inFlightPositions.remove(message.getPosition())) {
+                    ackedAheadPositions.add(message.getPosition());
+                }
+            }
+            if (ackedAheadPositions.isEmpty()) {
+                return;
+            }
+            Long lowestInFlight = inFlightPositions.ceiling(Long.MIN_VALUE);
+            Long watermark = Objects.isNull(lowestInFlight)
+                    ? ackedAheadPositions.last() : ackedAheadPositions.lower(lowestInFlight);
+            if (Objects.nonNull(watermark)) {
+                ackedReadPosition.set(watermark);
+                ackedAheadPositions.headSet(watermark, true).clear();
+            }
+        }
+    }
+
+    private void clearInFlight() {
+        synchronized (ackLocker) {
+            inFlightPositions.clear();
+            ackedAheadPositions.clear();
+        }
+    }
+
+    // endregion
+
+    // region subscribe
+
+    @Override
+    public void subscribe(final MessageViewListener listener) {
+        if (Objects.isNull(listener)) {
+            throw new IllegalArgumentException("listener cannot be null");
+        }
+        ExcerptHandler handler = (bytes, position) -> {
+            messageView.wrap(bytes, position, tagDictionary::getTag);
+            try {
+                listener.onMessage(messageView);
+                ackedReadPosition.set(position);
+                return true;
+            } catch (Exception e) {
+                logger.error("[local-queue] message listener error, position: {}", position, e);
+                return false;
+            } finally {
+                messageView.clear();
+            }
+        };
+        switchListener(() -> readToListener(handler));
     }
 
+    @Override
+    public void subscribeMessage(final MessageListener listener) {
+        if (Objects.isNull(listener)) {
+            throw new IllegalArgumentException("listener cannot be null");
+        }
+        ExcerptHandler handler = (bytes, position) -> {
+            subscribeReadMessage.readMarshallable(bytes);
+            try {
+                listener.onMessage(toQueueMessage(subscribeReadMessage, position));
+                ackedReadPosition.set(position);
+                return true;
+            } catch (Exception e) {
+                logger.error("[local-queue] message listener error, position: {}", position, e);
+                return false;
+            }
+        };
+        switchListener(() -> readToListener(handler));
+    }
+
+    @Override
+    public void subscribeMessages(final BatchMessageListener listener, final int maxBatchSize) {
+        if (Objects.isNull(listener)) {
+            throw new IllegalArgumentException("listener cannot be null");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize should > 0");
+        }
+        // reuse by read thread
+        List<QueueMessage> batch = new ArrayList<>(maxBatchSize);
+        ExcerptHandler handler = (bytes, position) -> {
+            subscribeReadMessage.readMarshallable(bytes);
+            batch.add(toQueueMessage(subscribeReadMessage, position));
+            return true;
+        };
+        switchListener(() -> readToBatchListener(listener, batch, handler, maxBatchSize));
+    }
+
+    @Override
+    public void unsubscribe() {
+        switchListener(null);
+    }
+
+    private void switchListener(final ListenerReader reader) {
+        logDebug("[switchListener] start");
+        stopReadToCache();
+        try {
+            CompletableFuture.runAsync(() -> {
+                closeLock.lock();
+                try {
+                    if (isClosing.get()) {
+                        logDebug("[switchListener] consumer is closing");
+                        return;
+                    }
+                    // listener is called by read step of this consumer, never by shared read pass
+                    catchUpMainTailer();
+                    rewindToUnacked();
+                    this.listenerReader = reader;
+                } finally {
+                    closeLock.unlock();
+                }
+            }, this.readExecutor).join();
+        } finally {
+            startReadToCache();
+            logDebug("[switchListener] end");
+        }
+    }
+
+    /**
+     * messages in cache or pending are read but not acked, move back so that they will be read again.
+     */
+    private void rewindToUnacked() {
+        Long firstUnackedPosition = getFirstUnackedPosition();
+        if (Objects.isNull(firstUnackedPosition)) {
+            return;
+        }
+        mainTailer.moveToIndex(firstUnackedPosition);
+        moveTagIndex(firstUnackedPosition);
+        lastReadPosition = SharedReadPass.UNKNOWN_POSITION;
+        positionVersion.incrementAndGet();
+        messageCache.clear();
+        pendingMessages.clear();
+        clearInFlight();
+    }
+
+    private Long getFirstUnackedPosition() {
+        if (selectiveAck) {
+            // in flight contains messages in cache
+            return inFlightPositions.ceiling(Long.MIN_VALUE);
+        }
+        QueueMessage firstUnacked = firstPendingMessage();
+        if (Objects.isNull(firstUnacked)) {
+            firstUnacked = messageCache.peek();
+        }
+        return Objects.isNull(firstUnacked) ? null : firstUnacked.getPosition();
+    }
+
+    /**
+     * read one message and push to listener.
+     *
+     * @return false if no message or listener failed
+     */
+    private boolean readToListener(final ExcerptHandler handler) throws InterruptedException {
+        if (!seekNextIndexed()) {
+            return false;
+        }
+        try (DocumentContext documentContext = mainTailer.readingDocument()) {
+            if (!documentContext.isPresent()) {
+                return false;
+            }
+            Bytes<?> bytes = documentContext.wire().bytes();
+            long position = documentContext.index();
+            if (!tagFilter.matches(bytes)) {
+                advanceIndexed(position);
+                return true;
+            }
+            if (handler.handle(bytes, position)) {
+                advanceIndexed(position);
+                return true;
+            }
+            // read this message again after pull interval, out of lock
+            documentContext.rollbackOnClose();
+            isListenerFailed = true;
+            return false;
+        }
+    }
+
+    /**
+     * read available messages up to max batch size and push to listener in one call,
+     * the whole batch is read again if listener failed.
+     *
+     * @return false if no message
+     */
+    private boolean readToBatchListener(final BatchMessageListener listener, final List<QueueMessage> batch,
+                                        final ExcerptHandler handler, final int maxBatchSize) throws InterruptedException {
+        batch.clear();
+        boolean hasMore = true;
+        // excerpts of other tags are skipped, limit the reads of one call
+        for (int i = 0; batch.size() < maxBatchSize && i < maxBatchSize + MAX_SKIP_PER_READ; i++) {
+            hasMore = readToListener(handler);
+            if (!hasMore) {
+                break;
+            }
+        }
+        if (batch.isEmpty()) {
+            return hasMore;
+        }
+        try {
+            listener.onMessages(batch);
+            ackedReadPosition.set(batch.get(batch.size() - 1).getPosition());
+        } catch (Exception e) {
+            long firstPosition = batch.get(0).getPosition();
+            logger.error("[local-queue] batch message listener error, position: {}", firstPosition, e);
+            mainTailer.moveToIndex(firstPosition);
+            moveTagIndex(firstPosition);
+            lastReadPosition = SharedReadPass.UNKNOWN_POSITION;
+            isListenerFailed = true;
+        } finally {
+            batch.clear();
+        }
+        return true;
+    }
+
+    /**
+     * handle excerpt of matched tag in read thread, ack it if needed.
+     */
+    private interface ExcerptHandler {
+
+        /**
+         * @return false if failed, the excerpt will be read again
+         */
+        boolean handle(Bytes<?> bytes, long position) throws InterruptedException;
+    }
+
+    /**
+     * read and push messages to subscribed listener.
+     */
+    private interface ListenerReader {
+
+        /**
+         * @return false if no message
+         */
+        boolean read() throws InterruptedException;
+    }
+
+    // endregion
+
     @Override
     public boolean moveToPosition(final long position) {
         logDebug("[moveToPosition] start");
@@ -227,7 +645,7 @@ public class SimpleConsumer implements IConsumer {
         }
         try (ExcerptTailer tailer = queue.createTailer()) {
             tailer.moveToIndex(position);
-            InternalReadMessage internalReadMessage = new InternalReadMessage();
+            InternalReadMessage internalReadMessage = new InternalReadMessage(null, false, tagDictionary::getTag);
             boolean readResult = tailer.readBytes(internalReadMessage);
             if (readResult) {
                 return Optional.of(toQueueMessage(internalReadMessage, position));
@@ -242,35 +660,94 @@ public class SimpleConsumer implements IConsumer {
         if (messageKey == null || messageKey.isEmpty()) {
             return Optional.empty();
         }
-        // reuse this message
-        InternalReadMessage internalReadMessage = new InternalReadMessage();
+        int startCycle = ChronicleQueueHelper.cycle(defaultRollCycle, timeProvider, searchTimestampStart);
+        // write time is taken before append, message near the end of window may roll to next cycle.
+        int endCycle = searchTimestampEnd >= System.currentTimeMillis() ? queue.lastCycle()
+                : Math.min(ChronicleQueueHelper.cycle(defaultRollCycle, timeProvider, searchTimestampEnd) + 1, queue.lastCycle());
+        // for performance, only read write time and compare raw key bytes, read the matched message fully.
+        InternalReadMessage internalReadMessage = new InternalReadMessage(null, ReadProjection.WRITE_TIME, tagDictionary::getTag);
+        internalReadMessage.setMatchKey(messageKey);
         try (ExcerptTailer tailer = queue.createTailer()) {
-            moveToNearByTimestamp(tailer, searchTimestampStart);
-            while (true) {
-                // for performance, ignore read content.
-                boolean readResult = tailer.readBytes(internalReadMessage);
-                if (!readResult) {
-                    return Optional.empty();
-                }
-                if (internalReadMessage.getWriteTime() < searchTimestampStart) {
-                    continue;
-                }
-                if (internalReadMessage.getWriteTime() > searchTimestampEnd) {
-                    return Optional.empty();
-                }
-                boolean moveToResult = tailer.moveToIndex(tailer.lastReadIndex());
-                if (!moveToResult) {
-                    return Optional.empty();
-                }
-                readResult = tailer.readBytes(internalReadMessage);
-                if (!readResult) {
-                    return Optional.empty();
+            for (int cycle = Math.max(startCycle, queue.firstCycle()); cycle <= endCycle; cycle++) {
+                long cycleStart = defaultRollCycle.toIndex(cycle, 0);
+                long cycleEnd = defaultRollCycle.toIndex(cycle + 1, 0);
+                // skip messages before window start
+                long scanStart = cycle == startCycle ? Math.max(cycleStart, floorPosition(tailer, cycle, searchTimestampStart)) : cycleStart;
+                KeyIndex.Lookup lookup = keyIndex.lookup(cycle, messageKey);
+                Optional<QueueMessage> result;
+                if (Objects.isNull(lookup)) {
+                    result = scanByKey(tailer, internalReadMessage, scanStart, cycleEnd, searchTimestampStart, searchTimestampEnd);
+                } else {
+                    result = getByKeyIndex(tailer, internalReadMessage, lookup, scanStart, cycleEnd, searchTimestampStart, searchTimestampEnd);
                 }
-                QueueMessage queueMessage = toQueueMessage(internalReadMessage, tailer.lastReadIndex());
-                if (Objects.equals(messageKey, queueMessage.getMessageKey())) {
-                    return Optional.of(queueMessage);
+                if (result.isPresent()) {
+                    return result;
                 }
             }
+            return Optional.empty();
+        }
+    }
+
+    private Optional<QueueMessage> getByKeyIndex(final ExcerptTailer tailer, final InternalReadMessage internalReadMessage,
+                                                 final KeyIndex.Lookup lookup, final long scanStart, final long cycleEnd,
+                                                 final long searchTimestampStart, final long searchTimestampEnd) {
+        // messages before index enabled
+        Optional<QueueMessage> result = scanByKey(tailer, internalReadMessage, scanStart, Math.min(lookup.getIndexedFrom(), cycleEnd),
+                searchTimestampStart, searchTimestampEnd);
+        if (result.isPresent()) {
+            return result;
+        }
+        long position = lookup.getPosition();
+        if (position < 0) {
+            // not in indexed range, only messages after index is full left.
+            return scanByKey(tailer, internalReadMessage, Math.max(lookup.getIndexedTo(), scanStart), cycleEnd,
+                    searchTimestampStart, searchTimestampEnd);
+        }
+        Optional<QueueMessage> first = get(position);
+        if (!first.isPresent() || first.get().getWriteTime() > searchTimestampEnd) {
+            return Optional.empty();
+        }
+        if (first.get().getWriteTime() >= searchTimestampStart) {
+            return first;
+        }
+        // index keeps the first position of key, duplicated key may be in window.
+        return scanByKey(tailer, internalReadMessage, position + 1, cycleEnd, searchTimestampStart, searchTimestampEnd);
+    }
+
+    /**
+     * scan [fromPosition, toPosition) for the first message of match key in time window.
+     */
+    private Optional<QueueMessage> scanByKey(final ExcerptTailer tailer, final InternalReadMessage internalReadMessage,
+                                             final long fromPosition, final long toPosition,
+                                             final long searchTimestampStart, final long searchTimestampEnd) {
+        if (fromPosition >= toPosition) {
+            return Optional.empty();
+        }
+        boolean moveResult = fromPosition == defaultRollCycle.toIndex(defaultRollCycle.toCycle(fromPosition), 0)
+                ? tailer.moveToCycle(defaultRollCycle.toCycle(fromPosition))
+                : tailer.moveToIndex(fromPosition);
+        if (!moveResult) {
+            return Optional.empty();
+        }
+        while (true) {
+            boolean readResult = tailer.readBytes(internalReadMessage);
+            if (!readResult) {
+                return Optional.empty();
+            }
+            long position = tailer.lastReadIndex();
+            if (position >= toPosition) {
+                return Optional.empty();
+            }
+            long writeTime = internalReadMessage.getWriteTime();
+            if (writeTime < searchTimestampStart) {
+                continue;
+            }
+            if (writeTime > searchTimestampEnd) {
+                return Optional.empty();
+            }
+            if (internalReadMessage.isKeyMatched()) {
+                return get(position);
+            }
         }
     }
 
@@ -287,37 +764,44 @@ public class SimpleConsumer implements IConsumer {
     }
 
     private QueueMessage toQueueMessage(final InternalReadMessage internalReadMessage, final long position) {
-        return new QueueMessage(
+        return QueueMessage.ofBytes(
                 internalReadMessage.getTag(),
                 internalReadMessage.getMessageKey(),
                 positionVersion.get(),
                 position,
-                internalReadMessage.getContent(),
+                internalReadMessage.getContentBytes(),
                 internalReadMessage.getWriteTime());
     }
 
     private boolean moveToPositionInternal(final long position) {
         return CompletableFuture.supplyAsync(() -> {
-            synchronized (closeLocker) {
-                try {
-                    if (isClosing.get()) {
-                        logDebug("[moveToPositionInternal] consumer is closing");
-                        return false;
-                    }
-                    logDebug("[moveToPositionInternal] start, position: {}", position);
-                    boolean moveToResult = mainTailer.moveToIndex(position);
-                    if (moveToResult) {
-                        positionVersion.incrementAndGet();
-                        messageCache.clear();
-                        ackedReadPosition.set(position);
-                    }
-                    logger.info("[local-queue] move to position: {}, result: {}", position, moveToResult);
-                    return moveToResult;
-                } finally {
-                    logDebug("[moveToPositionInternal] end");
+            closeLock.lock();
+            try {
+                if (isClosing.get()) {
+                    logDebug("[moveToPositionInternal] consumer is closing");
+                    return false;
                 }
+                logDebug("[moveToPositionInternal] start, position: {}", position);
+                leaveSharedPass();
+                isMainTailerBehind = false;
+                boolean moveToResult = mainTailer.moveToIndex(position);
+                // main tailer may be moved even if failed
+                lastReadPosition = SharedReadPass.UNKNOWN_POSITION;
+                if (moveToResult) {
+                    moveTagIndex(position);
+                    positionVersion.incrementAndGet();
+                    messageCache.clear();
+                    pendingMessages.clear();
+                    clearInFlight();
+                    ackedReadPosition.set(position);
+                }
+                logger.info("[local-queue] move to position: {}, result: {}", position, moveToResult);
+                return moveToResult;
+            } finally {
+                logDebug("[moveToPositionInternal] end");
+                closeLock.unlock();
             }
-        }, this.readCacheExecutor).join();
+        }, this.readExecutor).join();
     }
 
 
@@ -326,8 +810,8 @@ public class SimpleConsumer implements IConsumer {
         logDebug("[findPosition] start, timestamp: {}", timestamp);
         try (ExcerptTailer tailer = queue.createTailer()) {
             moveToNearByTimestamp(tailer, timestamp);
-            // reuse this message.
-            InternalReadMessage internalReadMessage = new InternalReadMessage(true);
+            // reuse this message, only write time is needed.
+            InternalReadMessage internalReadMessage = new InternalReadMessage(null, ReadProjection.WRITE_TIME, tagDictionary::getTag);
             while (true) {
                 boolean resultResult = tailer.readBytes(internalReadMessage);
                 if (resultResult) {
@@ -347,6 +831,18 @@ public class SimpleConsumer implements IConsumer {
         return ackedReadPosition.get();
     }
 
+    /**
+     * notify read thread that new messages may be available, only works with blocking idle strategy.
+     */
+    public void wakeUp() {
+        if (Objects.isNull(readEngine)) {
+            idleStrategy.wakeUp();
+        } else if (idleStrategy.isWakeUpSupported() && !isOnSharedPass) {
+            // shared read pass is woken up by SimpleQueue
+            requestReadStep();
+        }
+    }
+
     @Override
     public boolean isClosed() {
         return isClosed.get();
@@ -358,44 +854,42 @@ public class SimpleConsumer implements IConsumer {
 
     private void startReadToCache() {
         this.isReadToCacheRunning.set(true);
-        readCacheExecutor.execute(this::readToCache);
+        if (Objects.isNull(readEngine)) {
+            readExecutor.execute(this::readToCache);
+        } else {
+            requestReadStep();
+        }
     }
 
     private void readToCache() {
         try {
             logDebug("[readToCache] start");
-            long pullInterval = config.getPullInterval();
-            long fillCacheInterval = config.getFillCacheInterval();
-            // reuse this message.
-            InternalReadMessage internalReadMessage = new InternalReadMessage(this.matchTags);
             while (isReadToCacheRunning.get()) {
-                synchronized (closeLocker) {
+                try {
+                    boolean hasMessage;
+                    // lock once per batch, idle out of lock so that close is not blocked
+                    closeLock.lock();
                     try {
                         if (isClosing.get()) {
                             logDebug("[readToCache] consumer is closing");
                             return;
                         }
-
-                        boolean readResult = mainTailer.readBytes(internalReadMessage);
-                        if (!readResult) {
-                            TimeUnit.MILLISECONDS.sleep(pullInterval);
-                            continue;
-                        }
-                        String messageTag = internalReadMessage.getTag() == null ? "*" : internalReadMessage.getTag();
-                        if (matchTags.contains("*") || matchTags.contains(messageTag)) {
-                            long lastedReadIndex = mainTailer.lastReadIndex();
-                            QueueMessage queueMessage = toQueueMessage(internalReadMessage, lastedReadIndex);
-                            boolean offerResult = this.messageCache.offer(queueMessage, fillCacheInterval, TimeUnit.MILLISECONDS);
-                            if (!offerResult) {
-                                // if offer failed, move to last read position
-                                mainTailer.moveToIndex(lastedReadIndex);
-                            }
-                        }
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    } catch (Exception e) {
-                        logger.error("[local-queue] read to cache error", e);
+                        hasMessage = readBatch(cacheReadMessage, config.getFillCacheInterval(), config.getReadBatchSize());
+                    } finally {
+                        closeLock.unlock();
                     }
+                    if (hasMessage) {
+                        idleStrategy.reset();
+                    } else if (isListenerFailed) {
+                        isListenerFailed = false;
+                        TimeUnit.MILLISECONDS.sleep(config.getPullInterval());
+                    } else {
+                        idleStrategy.idle();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    logger.error("[local-queue] read to cache error", e);
                 }
             }
         } finally {
@@ -403,14 +897,342 @@ public class SimpleConsumer implements IConsumer {
         }
     }
 
+    // region read engine
+
+    /**
+     * submit a read step to read engine, at most one step is pending.
+     */
+    private void requestReadStep() {
+        if (isReadToCacheRunning.get() && !isClosing.get() && isReadStepPending.compareAndSet(false, true)) {
+            readExecutor.execute(this::readStep);
+        }
+    }
+
+    /**
+     * read one batch in read engine, then submit next step at once if there are messages,
+     * otherwise after idle delay of idle strategy or wake up.
+     */
+    private void readStep() {
+        isReadStepPending.set(false);
+        if (!isReadToCacheRunning.get()) {
+            return;
+        }
+        boolean hasMessage = false;
+        try {
+            closeLock.lock();
+            try {
+                if (isClosing.get()) {
+                    logDebug("[readStep] consumer is closing");
+                    return;
+                }
+                if (isOnSharedPass) {
+                    // messages are pushed by shared read pass
+                    return;
+                }
+                catchUpMainTailer();
+                // never wait for cache on shared thread, full cache is retried after pull interval
+                hasMessage = readBatch(cacheReadMessage, 0, config.getReadBatchSize());
+            } finally {
+                closeLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("[local-queue] read step error", e);
+        }
+        if (hasMessage) {
+            idleStrategy.reset();
+            requestReadStep();
+        } else if (isListenerFailed) {
+            isListenerFailed = false;
+            scheduleReadStep(config.getPullInterval());
+        } else if (Objects.nonNull(sharedReadPass) && sharedReadPass.tryAttach(this)) {
+            logDebug("[readStep] caught up, read by shared read pass");
+        } else {
+            long idleDelay = idleStrategy.idleDelay();
+            if (idleDelay <= 0) {
+                // busy strategies read again after steps of other consumers queued in read engine
+                requestReadStep();
+            } else {
+                scheduleReadStep(idleDelay);
+            }
+        }
+    }
+
+    /**
+     * request a read step after delay, unless one is already scheduled,
+     * wake ups of producer flush request steps at once and never add timers.
+     *
+     * @param delayMillis delay (ms)
+     */
+    private void scheduleReadStep(final long delayMillis) {
+        if (isReadTimerPending.compareAndSet(false, true)) {
+            readEngine.schedule(() -> {
+                isReadTimerPending.set(false);
+                requestReadStep();
+            }, delayMillis);
+        }
+    }
+
+    // endregion
+
+    // region shared read pass
+
+    long getLastReadPosition() {
+        return lastReadPosition;
+    }
+
+    /**
+     * join shared read pass if this consumer has read up to the same position and can take new messages.
+     *
+     * @param passReadPosition last read position of shared read pass
+     * @return true if joined
+     */
+    boolean attachSharedPass(final long passReadPosition) {
+        closeLock.lock();
+        try {
+            boolean canAttach = !isClosing.get() && isReadToCacheRunning.get() && !isOnSharedPass && !isMainTailerBehind
+                    && Objects.isNull(listenerReader) && Objects.isNull(tagIndexReader)
+                    && messageCache.remainingCapacity() > 0
+                    && passReadPosition != SharedReadPass.UNKNOWN_POSITION && passReadPosition == lastReadPosition;
+            if (canAttach) {
+                isOnSharedPass = true;
+            }
+            return canAttach;
+        } finally {
+            closeLock.unlock();
+        }
+    }
+
+    /**
+     * offer excerpt read by shared read pass to cache, non-matching excerpts are skipped without decoding.
+     *
+     * @return false if this consumer left shared read pass, the excerpt will be read again by main tailer
+     */
+    boolean offerFromSharedPass(final Bytes<?> bytes, final long start, final long position, final SharedReadPass pass) {
+        closeLock.lock();
+        try {
+            if (!isOnSharedPass) {
+                return false;
+            }
+            if (isClosing.get() || !isReadToCacheRunning.get()) {
+                // position is moved or listener is subscribed, main tailer catches up there
+                leaveSharedPass();
+                return false;
+            }
+            if (!tagFilter.matches(bytes)) {
+                lastReadPosition = position;
+                return true;
+            }
+            QueueMessage queueMessage = toQueueMessage(pass.decode(bytes, start, position), position);
+            if (selectiveAck) {
+                inFlightPositions.add(position);
+            }
+            if (messageCache.offer(queueMessage)) {
+                lastReadPosition = position;
+                return true;
+            }
+            if (selectiveAck) {
+                inFlightPositions.remove(position);
+            }
+            // cache is full, read by main tailer until caught up again
+            leaveSharedPass();
+            requestReadStep();
+            return false;
+        } catch (Exception e) {
+            logger.error("[local-queue] read from shared read pass error, position: {}", position, e);
+            leaveSharedPass();
+            requestReadStep();
+            return false;
+        } finally {
+            closeLock.unlock();
+        }
+    }
+
+    /**
+     * stop taking messages from shared read pass, should hold closeLock.
+     */
+    private void leaveSharedPass() {
+        if (isOnSharedPass) {
+            isOnSharedPass = false;
+            isMainTailerBehind = true;
+        }
+    }
+
+    /**
+     * move main tailer after last read position if messages were read by shared read pass, should hold closeLock.
+     */
+    private void catchUpMainTailer() {
+        leaveSharedPass();
+        if (!isMainTailerBehind) {
+            return;
+        }
+        isMainTailerBehind = false;
+        long position = lastReadPosition;
+        if (mainTailer.moveToIndex(position)) {
+            try (DocumentContext documentContext = mainTailer.readingDocument()) {
+                if (documentContext.isPresent() && documentContext.index() == position) {
+                    return;
+                }
+            }
+        }
+        logger.warn("[local-queue] catch up main tailer failed, position: {}", position);
+    }
+
+    // endregion
+
+    /**
+     * read up to read batch size messages to listener or cache,
+     * stop early if no message, cache is full or read thread is asked to stop.
+     *
+     * @param fillCacheInterval max wait time (ms) for free cache, 0 to return at once if cache is full
+     * @return false if no message read, cache is full or listener failed
+     */
+    private boolean readBatch(final InternalReadMessage internalReadMessage, final long fillCacheInterval,
+                              final int readBatchSize) throws InterruptedException {
+        ListenerReader reader = this.listenerReader;
+        for (int i = 0; i < readBatchSize; i++) {
+            if (i > 0 && !isReadToCacheRunning.get()) {
+                return true;
+            }
+            // only the first read of own read thread waits for free cache
+            if (Objects.isNull(reader) && messageCache.remainingCapacity() == 0 && (i > 0 || fillCacheInterval == 0)) {
+                return i > 0;
+            }
+            boolean hasMessage = Objects.nonNull(reader) ? reader.read()
+                    : readMatchedToCache(internalReadMessage, fillCacheInterval);
+            if (isListenerFailed) {
+                return false;
+            }
+            if (!hasMessage) {
+                return i > 0;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * read next matched message into cache, excerpts of other tags are skipped without decoding,
+     * at most {@link #MAX_SKIP_PER_READ} excerpts are checked in one call.
+     *
+     * @param fillCacheInterval max wait time (ms) for free cache, 0 to not wait
+     * @return false if no message, or message is not put into full cache
+     */
+    private boolean readMatchedToCache(final InternalReadMessage internalReadMessage, final long fillCacheInterval) throws InterruptedException {
+        for (int i = 0; i < MAX_SKIP_PER_READ; i++) {
+            if (!seekNextIndexed()) {
+                return false;
+            }
+            try (DocumentContext documentContext = mainTailer.readingDocument()) {
+                if (!documentContext.isPresent()) {
+                    return false;
+                }
+                Bytes<?> bytes = documentContext.wire().bytes();
+                long position = documentContext.index();
+                if (!tagFilter.matches(bytes)) {
+                    advanceIndexed(position);
+                    continue;
+                }
+                internalReadMessage.readMarshallable(bytes);
+                QueueMessage queueMessage = toQueueMessage(internalReadMessage, position);
+                if (selectiveAck) {
+                    // in flight before visible to take, so that watermark never pass it
+                    inFlightPositions.add(position);
+                }
+                boolean offerResult = fillCacheInterval == 0 ? this.messageCache.offer(queueMessage)
+                        : this.messageCache.offer(queueMessage, fillCacheInterval, TimeUnit.MILLISECONDS);
+                if (offerResult) {
+                    advanceIndexed(position);
+                } else {
+                    if (selectiveAck) {
+                        inFlightPositions.remove(position);
+                    }
+                    // if offer failed, read this message again
+                    documentContext.rollbackOnClose();
+                }
+                return offerResult;
+            }
+        }
+        return true;
+    }
+
+    // region tag index
+
+    private TagIndexReader createTagIndexReader(final long startPosition) {
+        if (!config.isConsumeByTagIndex()) {
+            return null;
+        }
+        if (matchTags.contains("*")) {
+            logger.warn("[local-queue] consume by tag index is ignored, selectorTag is *");
+            return null;
+        }
+        int[] tagIds = new int[matchTags.size()];
+        int i = 0;
+        for (String matchTag : matchTags) {
+            int tagId = tagDictionary.getOrCreateId(matchTag);
+            if (tagId <= 0) {
+                logger.warn("[local-queue] consume by tag index is ignored, tag has no id: {}", matchTag);
+                return null;
+            }
+            tagIds[i++] = tagId;
+        }
+        TagIndexReader reader = new TagIndexReader(config.getDataDir(), tagIds, defaultRollCycle, timeProvider);
+        reader.moveTo(startPosition);
+        return reader;
+    }
+
+    private void moveTagIndex(final long position) {
+        if (Objects.nonNull(tagIndexReader)) {
+            tagIndexReader.moveTo(position);
+        }
+    }
+
+    /**
+     * move main tailer to next indexed position, do nothing if not consume by tag index.
+     *
+     * @return false if no more indexed message
+     */
+    private boolean seekNextIndexed() {
+        if (Objects.isNull(tagIndexReader)) {
+            return true;
+        }
+        while (true) {
+            long position = tagIndexReader.peek();
+            if (position == -1) {
+                return false;
+            }
+            if (mainTailer.index() == position || mainTailer.moveToIndex(position)) {
+                return true;
+            }
+            logger.warn("[local-queue] indexed position not found, position: {}", position);
+            tagIndexReader.advance(position);
+        }
+    }
+
+    /**
+     * excerpt at position is consumed or skipped by main tailer.
+     */
+    private void advanceIndexed(final long position) {
+        lastReadPosition = position;
+        if (Objects.nonNull(tagIndexReader)) {
+            tagIndexReader.advance(position);
+        }
+    }
+
+    // endregion
+
     private ExcerptTailer initMainTailer() {
-        return CompletableFuture.supplyAsync(this::initMainTailerInternal, this.readCacheExecutor).join();
+        return CompletableFuture.supplyAsync(this::initMainTailerInternal, this.readExecutor).join();
     }
 
     private ExcerptTailer initMainTailerInternal() {
         try {
             logDebug("[initExcerptTailerInternal] start");
             ExcerptTailer tailer = queue.createTailer();
+            if (Objects.nonNull(readEngine)) {
+                // read steps run on different threads of read engine, but one by one by serial executor.
+                tailer.singleThreadedCheckDisabled(true);
+            }
             Optional<Long> lastPositionOptional = getLastPosition();
             if (lastPositionOptional.isPresent()) {
                 Long position = lastPositionOptional.get();
@@ -427,6 +1249,7 @@ public class SimpleConsumer implements IConsumer {
                     logDebug("[initExcerptTailerInternal] move to start");
                 }
             }
+            this.tagIndexReader = createTagIndexReader(tailer.index());
             return tailer;
         } finally {
             logDebug("[initExcerptTailer] end");
@@ -466,45 +1289,123 @@ public class SimpleConsumer implements IConsumer {
         }
         isClosing.set(true);
         stopReadToCache();
-        synchronized (closeLocker) {
-            try {
+        if (Objects.nonNull(sharedReadPass)) {
+            sharedReadPass.detach(this);
+        }
+        closeLock.lock();
+        try {
+            if (Objects.isNull(positionFlusher)) {
+                flushPositionRegistration.cancel();
                 if (!positionStore.isClosed()) {
                     positionStore.close();
                 }
-                scheduler.shutdown();
+            } else {
+                positionFlusher.remove(config.getConsumerId());
+            }
+            if (Objects.nonNull(readCacheExecutor)) {
                 readCacheExecutor.shutdown();
                 try {
-                    if (!scheduler.awaitTermination(1, TimeUnit.SECONDS)) {
-                        scheduler.shutdownNow();
-                    }
                     if (!readCacheExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
                         readCacheExecutor.shutdownNow();
                     }
                 } catch (InterruptedException e) {
-                    scheduler.shutdownNow();
                     readCacheExecutor.shutdownNow();
                     Thread.currentThread().interrupt();
                 }
-                if (!queue.isClosed()) {
-                    queue.close();
-                }
+            }
+            if (ownsQueue && !queue.isClosed()) {
+                queue.close();
+            }
+            if (!ownsQueue) {
+                // shared queue is still open, release tailer of this consumer
+                mainTailer.close();
+            }
+            if (Objects.nonNull(tagIndexReader)) {
+                tagIndexReader.close();
+            }
+            if (ownsIndexes) {
+                readIndexes.close();
+            }
 
-                for (CloseListener closeListener : closeListenerList) {
-                    closeListener.onClose();
-                }
-                isClosed.set(true);
-            } finally {
-                logDebug("[close] end");
+            for (CloseListener closeListener : closeListenerList) {
+                closeListener.onClose();
             }
+            isClosed.set(true);
+        } finally {
+            logDebug("[close] end");
+            closeLock.unlock();
         }
     }
 
     private void moveToNearByTimestamp(ExcerptTailer tailer, long timestamp) {
         int expectedCycle = ChronicleQueueHelper.cycle(defaultRollCycle, timeProvider, timestamp);
-        int currentCycle = tailer.cycle();
-        if (currentCycle != expectedCycle) {
-            boolean moveToCycleResult = tailer.moveToCycle(expectedCycle);
-            logDebug("[moveToNearByTimestamp] moveToCycleResult: {}", moveToCycleResult);
+        // jump to the last message before timestamp
+        long floorPosition = floorPosition(tailer, expectedCycle, timestamp);
+        if (floorPosition >= 0 && tailer.moveToIndex(floorPosition)) {
+            logDebug("[moveToNearByTimestamp] floorPosition: {}", floorPosition);
+            return;
+        }
+        // tailer may be moved by bisect, so always move to the start of cycle
+        boolean moveToCycleResult = tailer.moveToCycle(expectedCycle);
+        logDebug("[moveToNearByTimestamp] moveToCycleResult: {}", moveToCycleResult);
+        if (!moveToCycleResult) {
+            tailer.toStart();
+        }
+    }
+
+    /**
+     * find the last message before timestamp in cycle, time index narrows the range if exists.
+     *
+     * @return position, -1 if no message before timestamp in cycle
+     */
+    private long floorPosition(ExcerptTailer tailer, int cycle, long timestamp) {
+        long indexedPosition = timeIndex.floor(cycle, timestamp);
+        if (indexedPosition >= 0) {
+            return gallopFloorPosition(tailer, cycle, defaultRollCycle.toSequenceNumber(indexedPosition), timestamp);
+        }
+        if (!isBeforeTimestamp(tailer, defaultRollCycle.toIndex(cycle, 0), timestamp)) {
+            return -1;
+        }
+        return gallopFloorPosition(tailer, cycle, 0, timestamp);
+    }
+
+    /**
+     * write time is monotonic in cycle, find the last message before timestamp in O(log n) header reads.
+     *
+     * @param fromSequence sequence of a message before timestamp
+     * @return position
+     */
+    private long gallopFloorPosition(ExcerptTailer tailer, int cycle, long fromSequence, long timestamp) {
+        // exponential probe for the upper bound, sequence count of cycle is unknown
+        long maxSequence = defaultRollCycle.maxMessagesPerCycle() - 1;
+        long low = fromSequence;
+        long step = 1;
+        long high = low + step;
+        while (high <= maxSequence && isBeforeTimestamp(tailer, defaultRollCycle.toIndex(cycle, high), timestamp)) {
+            low = high;
+            step = step << 1;
+            high = low + step;
+        }
+        high = Math.min(high, maxSequence + 1);
+        // low is before timestamp, high is not
+        while (high - low > 1) {
+            long mid = (low + high) >>> 1;
+            if (isBeforeTimestamp(tailer, defaultRollCycle.toIndex(cycle, mid), timestamp)) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return defaultRollCycle.toIndex(cycle, low);
+    }
+
+    private boolean isBeforeTimestamp(ExcerptTailer tailer, long position, long timestamp) {
+        if (!tailer.moveToIndex(position)) {
+            return false;
+        }
+        try (DocumentContext documentContext = tailer.readingDocument()) {
+            return documentContext.isPresent()
+                    && MessageHeader.readWriteTime(documentContext.wire().bytes()) < timestamp;
         }
     }
 
@@ -535,7 +1436,7 @@ public class SimpleConsumer implements IConsumer {
             long start = -1;
             long end = -1;
             // reuse this message.
-            InternalReadMessage internalReadMessage = new InternalReadMessage();
+            InternalReadMessage internalReadMessage = new InternalReadMessage(null, false, tagDictionary::getTag);
             for (int i = 0; i < pageSize; i++) {
                 boolean readResult = tailer.readBytes(internalReadMessage);
                 if (!readResult) {
@@ -577,7 +1478,7 @@ public class SimpleConsumer implements IConsumer {
             }
             List<QueueMessage> data = new ArrayList<>();
             // reuse this message.
-            InternalReadMessage internalReadMessage = new InternalReadMessage();
+            InternalReadMessage internalReadMessage = new InternalReadMessage(null, false, tagDictionary::getTag);
             for (int i = 0; i < pageSize; i++) {
                 boolean readResult = tailer.readBytes(internalReadMessage);
                 if (!readResult) {
@@ -2,8 +2,11 @@ package com.github.wz2cool.localqueue.impl;
 
 import com.github.wz2cool.localqueue.IProducer;
 import com.github.wz2cool.localqueue.event.CloseListener;
+import com.github.wz2cool.localqueue.event.FlushListener;
 import com.github.wz2cool.localqueue.helper.ChronicleQueueHelper;
+import com.github.wz2cool.localqueue.helper.ThreadHelper;
 import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
+import com.github.wz2cool.localqueue.model.enums.WriteMode;
 import com.github.wz2cool.localqueue.model.message.InternalWriteMessage;
 import net.openhft.chronicle.core.time.TimeProvider;
 import net.openhft.chronicle.queue.ChronicleQueue;
@@ -15,13 +18,17 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * simple writer
@@ -36,36 +43,88 @@ public class SimpleProducer implements IProducer {
     private final TimeProvider timeProvider;
     private final SimpleProducerConfig config;
     private final SingleChronicleQueue queue;
-    private final LinkedBlockingQueue<InternalWriteMessage> messageCache = new LinkedBlockingQueue<>();
+    // false if queue is shared by SimpleQueue, closed by owner
+    private final boolean ownsQueue;
+    private final MessageRingBuffer messageCache;
+    // only for compact header or tag index
+    private final TagDictionary tagDictionary;
+    private final TagIndexWriter tagIndexWriter;
+    private final KeyIndex keyIndex;
+    private final TimeIndex timeIndex;
     // should only call by flushExecutor
     private final ExcerptAppender mainAppender;
-    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor();
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    // only for direct write mode, each offer thread has its own appender, closed with producer.
+    private final ThreadLocal<ExcerptAppender> directAppender;
+    private final ConcurrentLinkedQueue<ExcerptAppender> directAppenders = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<InternalWriteMessage> directMessage = ThreadLocal.withInitial(InternalWriteMessage::new);
+    private final ExecutorService flushExecutor;
+    // clean up old files on shared timer with other producers
+    private final SharedTimer.Registration cleanUpRegistration;
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyyMMdd");
     private final ConcurrentLinkedQueue<CloseListener> closeListeners = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<FlushListener> flushListeners = new ConcurrentLinkedQueue<>();
 
     private final AtomicBoolean isFlushRunning = new AtomicBoolean(true);
     private final AtomicBoolean isClosing = new AtomicBoolean(false);
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
-    private final Object closeLocker = new Object();
+    // writers hold read lock, so direct writers run in parallel and close waits for all of them.
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+    // index files expect ascending positions, so direct writes are serialized only if any index is on.
+    private final ReentrantLock directIndexLock = new ReentrantLock();
 
     public SimpleProducer(final SimpleProducerConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * constructor
+     *
+     * @param config      the config of producer
+     * @param sharedQueue queue shared with consumers, not closed by this producer, null to create one
+     */
+    SimpleProducer(final SimpleProducerConfig config, final SingleChronicleQueue sharedQueue) {
         this.config = config;
+        this.flushExecutor = Executors.newSingleThreadExecutor(
+                ThreadHelper.getThreadFactory(config.getThreadFactory(), config.getThreadType(), "local-queue-flush-"));
+        this.messageCache = new MessageRingBuffer(config.getCacheSize(), config.getOverflowPolicy());
+        this.tagDictionary = config.isCompactHeader() || config.isTagIndex() ? new TagDictionary(config.getDataDir()) : null;
+        this.flushMessagePool = new InternalWriteMessage[config.getFlushBatchSize()];
+        for (int i = 0; i < flushMessagePool.length; i++) {
+            flushMessagePool[i] = new InternalWriteMessage();
+        }
         this.timeProvider = ChronicleQueueHelper.getTimeProvider(config.getTimeZone());
         this.defaultRollCycle = ChronicleQueueHelper.getRollCycle(config.getRollCycleType());
-        this.queue = ChronicleQueue.singleBuilder(config.getDataDir())
+        this.ownsQueue = Objects.isNull(sharedQueue);
+        this.queue = ownsQueue ? ChronicleQueue.singleBuilder(config.getDataDir())
                 .rollCycle(defaultRollCycle)
                 .timeProvider(timeProvider)
-                .build();
+                .build() : sharedQueue;
         this.mainAppender = initMainAppender();
-        flushExecutor.execute(this::flush);
-        scheduler.scheduleAtFixedRate(() -> cleanUpOldFiles(config.getKeepDays()), 0, 1, TimeUnit.HOURS);
+        this.tagIndexWriter = config.isTagIndex()
+                ? new TagIndexWriter(config.getDataDir(), defaultRollCycle, timeProvider, tagDictionary) : null;
+        this.keyIndex = config.isKeyIndex()
+                ? new KeyIndex(config.getDataDir(), defaultRollCycle, config.getKeyIndexEntries()) : null;
+        this.timeIndex = config.isTimeIndex()
+                ? new TimeIndex(config.getDataDir(), defaultRollCycle, config.getTimeIndexInterval()) : null;
+        this.directAppender = ThreadLocal.withInitial(this::createDirectAppender);
+        if (config.getWriteMode() == WriteMode.QUEUED) {
+            flushExecutor.execute(this::flush);
+        }
+        // deleting files may block, never run it on the tick thread of shared timer
+        this.cleanUpRegistration = SharedTimer.getInstance()
+                .registerBlocking(TimeUnit.HOURS.toMillis(1), () -> cleanUpOldFiles(config.getKeepDays()));
     }
 
     private ExcerptAppender initMainAppender() {
         return CompletableFuture.supplyAsync(this.queue::createAppender, this.flushExecutor).join();
     }
 
+    private ExcerptAppender createDirectAppender() {
+        ExcerptAppender appender = this.queue.createAppender();
+        directAppenders.add(appender);
+        return appender;
+    }
+
     // region flush to file
 
     private void stopFlush() {
@@ -73,27 +132,51 @@ public class SimpleProducer implements IProducer {
     }
 
     private void flush() {
-        while (isFlushRunning.get() && !isClosing.get()) {
-            flushMessages(config.getFlushBatchSize());
+        try {
+            while (isFlushRunning.get() && !isClosing.get() && !Thread.currentThread().isInterrupted()) {
+                flushMessages(config.getFlushBatchSize());
+            }
+        } finally {
+            failPendingMessages();
+        }
+    }
+
+    // should only call by flushExecutor, messages left after flush stopped are never written.
+    private void failPendingMessages() {
+        IllegalStateException closingException = new IllegalStateException("producer is closing");
+        for (InternalWriteMessage message : tempFlushMessages) {
+            if (Objects.nonNull(message.getFuture())) {
+                message.getFuture().completeExceptionally(closingException);
+            }
+            message.clear();
         }
+        tempFlushMessages.clear();
     }
 
+    // should only call by flushExecutor, messages are copied from cache and reused.
+    private final InternalWriteMessage[] flushMessagePool;
     private final List<InternalWriteMessage> tempFlushMessages = new ArrayList<>();
 
     private void flushMessages(int batchSize) {
         try {
             logDebug("[flushInternal] start");
             if (tempFlushMessages.isEmpty()) {
-                // take 主要作用就是卡主线程
-                InternalWriteMessage firstItem = this.messageCache.poll(config.getFlushInterval(), TimeUnit.MILLISECONDS);
-                if (firstItem == null) {
+                // 没有消息的时候最多等待 flushInterval
+                int count = this.messageCache.drainTo(flushMessagePool, batchSize, config.getFlushInterval(), TimeUnit.MILLISECONDS);
+                if (count == 0) {
                     return;
                 }
-                this.tempFlushMessages.add(firstItem);
-                // 如果空了从消息缓存放入待刷消息
-                this.messageCache.drainTo(tempFlushMessages, batchSize - 1);
+                for (int i = 0; i < count; i++) {
+                    tempFlushMessages.add(flushMessagePool[i]);
+                }
             }
             doFlushMessages(tempFlushMessages);
+            notifyFlushed();
+            // complete out of closeLock, waiters of the whole batch share one flush.
+            for (InternalWriteMessage message : tempFlushMessages) {
+                completeFuture(message);
+                message.clear();
+            }
             tempFlushMessages.clear();
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
@@ -105,22 +188,87 @@ public class SimpleProducer implements IProducer {
     }
 
     private void doFlushMessages(final List<InternalWriteMessage> messages) {
-        synchronized (closeLocker) {
-            try {
-                logDebug("[flushMessages] start");
-                if (isClosing.get()) {
-                    logDebug("[flushMessages] producer is closing");
-                    return;
-                }
+        closeLock.readLock().lock();
+        try {
+            logDebug("[flushMessages] start");
+            if (isClosing.get()) {
+                logDebug("[flushMessages] producer is closing");
+                return;
+            }
 
+            if (config.isBatchWrite()) {
+                batchWriteMessages(messages);
+            } else {
                 for (InternalWriteMessage message : messages) {
                     long writeTime = System.currentTimeMillis();
                     message.setWriteTime(writeTime);
+                    resolveTagId(message);
                     mainAppender.writeBytes(message);
+                    message.setPosition(mainAppender.lastIndexAppended());
+                    appendIndex(message.getTag(), message.getMessageKey(), message.getWriteTime(), message.getPosition());
                 }
-            } finally {
-                logDebug("[flushMessages] end");
             }
+            if (config.isSyncOnWait() && hasFuture(messages)) {
+                mainAppender.sync();
+            }
+        } finally {
+            logDebug("[flushMessages] end");
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * write each message straight to the appender, all messages of one batch share the same write time.
+     * each message is still its own excerpt with its own index.
+     */
+    private void batchWriteMessages(final List<InternalWriteMessage> messages) {
+        long writeTime = System.currentTimeMillis();
+        for (InternalWriteMessage message : messages) {
+            message.setWriteTime(writeTime);
+            resolveTagId(message);
+            mainAppender.writeBytes(message);
+            message.setPosition(mainAppender.lastIndexAppended());
+            appendIndex(message.getTag(), message.getMessageKey(), message.getWriteTime(), message.getPosition());
+        }
+    }
+
+    private void resolveTagId(final InternalWriteMessage message) {
+        // tag index only needs the dictionary, header stays legacy for old readers unless compact header is on.
+        if (config.isCompactHeader()) {
+            message.setTagId(tagDictionary.getOrCreateId(message.getTag()));
+        }
+    }
+
+    private void appendIndex(final String tag, final String messageKey, final long writeTime, final long position) {
+        if (Objects.nonNull(tagIndexWriter)) {
+            tagIndexWriter.append(tag, position);
+        }
+        if (Objects.nonNull(keyIndex)) {
+            keyIndex.put(messageKey, position);
+        }
+        if (Objects.nonNull(timeIndex)) {
+            timeIndex.put(writeTime, position);
+        }
+    }
+
+    private boolean hasFuture(final List<InternalWriteMessage> messages) {
+        for (InternalWriteMessage message : messages) {
+            if (Objects.nonNull(message.getFuture())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void completeFuture(final InternalWriteMessage message) {
+        CompletableFuture<Long> future = message.getFuture();
+        if (Objects.isNull(future)) {
+            return;
+        }
+        if (message.getPosition() == -1) {
+            future.completeExceptionally(new IllegalStateException("producer is closing"));
+        } else {
+            future.complete(message.getPosition());
         }
     }
 
@@ -134,19 +282,175 @@ public class SimpleProducer implements IProducer {
 
     @Override
     public boolean offer(String messageKey, String message) {
-        InternalWriteMessage internalWriteMessage = new InternalWriteMessage();
-        internalWriteMessage.setContent(message);
-        internalWriteMessage.setMessageKey(messageKey);
-        return this.messageCache.offer(internalWriteMessage);
+        return offer(null, messageKey, message);
     }
 
     @Override
     public boolean offer(String tag, String messageKey, String message) {
-        InternalWriteMessage internalWriteMessage = new InternalWriteMessage();
-        internalWriteMessage.setContent(message);
-        internalWriteMessage.setMessageKey(messageKey);
-        internalWriteMessage.setTag(tag);
-        return this.messageCache.offer(internalWriteMessage);
+        return offerInternal(tag, messageKey, message, null, null);
+    }
+
+    @Override
+    public boolean offerBytes(byte[] message) {
+        return offerBytes(null, null, message);
+    }
+
+    @Override
+    public boolean offerBytes(String messageKey, byte[] message) {
+        return offerBytes(null, messageKey, message);
+    }
+
+    @Override
+    public boolean offerBytes(String tag, String messageKey, byte[] message) {
+        return offerInternal(tag, messageKey, null, message, null);
+    }
+
+    @Override
+    public boolean offerBuffer(ByteBuffer message) {
+        return offerBuffer(null, null, message);
+    }
+
+    @Override
+    public boolean offerBuffer(String messageKey, ByteBuffer message) {
+        return offerBuffer(null, messageKey, message);
+    }
+
+    @Override
+    public boolean offerBuffer(String tag, String messageKey, ByteBuffer message) {
+        return offerInternal(tag, messageKey, null, null, message);
+    }
+
+    private boolean offerInternal(String tag, String messageKey, String content, byte[] contentBytes, ByteBuffer contentBuffer) {
+        if (config.getWriteMode() == WriteMode.DIRECT) {
+            try {
+                return directWrite(tag, messageKey, content, contentBytes, contentBuffer, false) != -1;
+            } catch (Exception ex) {
+                logger.error("[offer] direct write error", ex);
+                return false;
+            }
+        }
+        if (Objects.nonNull(contentBuffer)) {
+            // caller may reuse the buffer after offer, so copy it before caching.
+            contentBytes = toBytes(contentBuffer);
+        }
+        if (Objects.nonNull(contentBytes)) {
+            return this.messageCache.offer(tag, messageKey, contentBytes, null);
+        }
+        return this.messageCache.offer(tag, messageKey, content);
+    }
+
+    private byte[] toBytes(ByteBuffer buffer) {
+        byte[] result = new byte[buffer.remaining()];
+        buffer.duplicate().get(result);
+        return result;
+    }
+
+    /**
+     * write message in offer thread.
+     *
+     * @return position, -1 if producer is closing
+     */
+    private long directWrite(String tag, String messageKey, String content, byte[] contentBytes, ByteBuffer contentBuffer, boolean sync) {
+        long position = appendDirect(tag, messageKey, content, contentBytes, contentBuffer, sync);
+        if (position != -1) {
+            notifyFlushed();
+        }
+        return position;
+    }
+
+    private long appendDirect(String tag, String messageKey, String content, byte[] contentBytes, ByteBuffer contentBuffer, boolean sync) {
+        closeLock.readLock().lock();
+        try {
+            if (isClosing.get()) {
+                logDebug("[directWrite] producer is closing");
+                return -1;
+            }
+            if (!hasIndex()) {
+                return writeDirect(tag, messageKey, content, contentBytes, contentBuffer, sync);
+            }
+            directIndexLock.lock();
+            try {
+                return writeDirect(tag, messageKey, content, contentBytes, contentBuffer, sync);
+            } finally {
+                directIndexLock.unlock();
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    private long writeDirect(String tag, String messageKey, String content, byte[] contentBytes, ByteBuffer contentBuffer, boolean sync) {
+        ExcerptAppender appender = directAppender.get();
+        InternalWriteMessage internalWriteMessage = directMessage.get();
+        try {
+            internalWriteMessage.setTag(tag);
+            internalWriteMessage.setMessageKey(messageKey);
+            internalWriteMessage.setContent(content);
+            internalWriteMessage.setContentBytes(contentBytes);
+            internalWriteMessage.setContentBuffer(contentBuffer);
+            internalWriteMessage.setWriteTime(System.currentTimeMillis());
+            resolveTagId(internalWriteMessage);
+            appender.writeBytes(internalWriteMessage);
+            long position = appender.lastIndexAppended();
+            appendIndex(tag, messageKey, internalWriteMessage.getWriteTime(), position);
+            if (sync) {
+                appender.sync();
+            }
+            return position;
+        } finally {
+            internalWriteMessage.clear();
+        }
+    }
+
+    private boolean hasIndex() {
+        return Objects.nonNull(tagIndexWriter) || Objects.nonNull(keyIndex) || Objects.nonNull(timeIndex);
+    }
+
+    @Override
+    public CompletableFuture<Long> offerAsync(String messageKey, String message) {
+        return offerAsync(null, messageKey, message);
+    }
+
+    @Override
+    public CompletableFuture<Long> offerAsync(String tag, String messageKey, String message) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        if (config.getWriteMode() == WriteMode.DIRECT) {
+            try {
+                long position = directWrite(tag, messageKey, message, null, null, config.isSyncOnWait());
+                if (position == -1) {
+                    future.completeExceptionally(new IllegalStateException("producer is closing"));
+                } else {
+                    future.complete(position);
+                }
+            } catch (Exception ex) {
+                future.completeExceptionally(ex);
+            }
+            return future;
+        }
+        boolean offerResult = this.messageCache.offer(tag, messageKey, message, future);
+        if (!offerResult) {
+            String errorMessage = isClosing.get() ? "producer is closing" : "producer cache is full";
+            future.completeExceptionally(new IllegalStateException(errorMessage));
+        }
+        return future;
+    }
+
+    @Override
+    public long offerAndWait(String messageKey, String message) throws InterruptedException {
+        return offerAndWait(null, messageKey, message);
+    }
+
+    @Override
+    public long offerAndWait(String tag, String messageKey, String message) throws InterruptedException {
+        try {
+            return offerAsync(tag, messageKey, message).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
     }
 
     /**
@@ -178,33 +482,48 @@ public class SimpleProducer implements IProducer {
             return;
         }
         isClosing.set(true);
+        messageCache.close();
         stopFlush();
-        synchronized (closeLocker) {
-            try {
-                if (!queue.isClosed()) {
-                    queue.close();
-                }
-                flushExecutor.shutdown();
-                scheduler.shutdown();
-                try {
-                    if (!scheduler.awaitTermination(1, TimeUnit.SECONDS)) {
-                        scheduler.shutdownNow();
-                    }
-                    if (!flushExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
-                        flushExecutor.shutdownNow();
-                    }
-                } catch (InterruptedException e) {
-                    scheduler.shutdownNow();
-                    flushExecutor.shutdownNow();
-                    Thread.currentThread().interrupt();
-                }
-                for (CloseListener closeListener : closeListeners) {
-                    closeListener.onClose();
-                }
-                isClosed.set(true);
-            } finally {
-                logDebug("[close] end");
+        // stop flush thread before closing, pending messages of flush thread are failed by itself.
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+                flushExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flushExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        closeLock.writeLock().lock();
+        try {
+            for (ExcerptAppender appender : directAppenders) {
+                appender.close();
+            }
+            directAppenders.clear();
+            if (ownsQueue && !queue.isClosed()) {
+                queue.close();
+            }
+            cleanUpRegistration.cancel();
+            if (Objects.nonNull(tagIndexWriter)) {
+                tagIndexWriter.close();
             }
+            if (Objects.nonNull(keyIndex)) {
+                keyIndex.close();
+            }
+            if (Objects.nonNull(timeIndex)) {
+                timeIndex.close();
+            }
+            if (Objects.nonNull(tagDictionary)) {
+                tagDictionary.close();
+            }
+            messageCache.clear(new IllegalStateException("producer is closing"));
+            for (CloseListener closeListener : closeListeners) {
+                closeListener.onClose();
+            }
+            isClosed.set(true);
+        } finally {
+            logDebug("[close] end");
+            closeLock.writeLock().unlock();
         }
     }
 
@@ -213,6 +532,28 @@ public class SimpleProducer implements IProducer {
         closeListeners.add(listener);
     }
 
+    /**
+     * add flush listener, called after messages are appended to file.
+     *
+     * @param listener flush listener
+     */
+    public void addFlushListener(FlushListener listener) {
+        flushListeners.add(listener);
+    }
+
+    private void notifyFlushed() {
+        if (flushListeners.isEmpty()) {
+            return;
+        }
+        for (FlushListener listener : flushListeners) {
+            try {
+                listener.onFlush();
+            } catch (Exception ex) {
+                logger.error("[notifyFlushed] flush listener error", ex);
+            }
+        }
+    }
+
     private void cleanUpOldFiles(int keepDays) {
         if (keepDays == -1) {
             // no need clean up old files
@@ -220,17 +561,19 @@ public class SimpleProducer implements IProducer {
         }
         logDebug("[cleanUpOldFiles] start");
         try {
-            // Assuming .cq4 is the file extension for Chronicle Queue
-            File[] files = config.getDataDir().listFiles((dir, name) -> name.endsWith(".cq4"));
-            if (files == null || files.length == 0) {
-                logDebug("[cleanUpOldFiles] no files found");
-                return;
-            }
             LocalDate now = LocalDate.now();
             LocalDate keepStartDate = now.minusDays(keepDays);
-            for (File file : files) {
-                cleanUpOldFile(file, keepStartDate);
+            cleanUpOldFilesInDir(config.getDataDir(), keepStartDate, ".cq4");
+            // tag index queues roll with main queue
+            File[] indexDirs = TagIndexWriter.getIndexDir(config.getDataDir()).listFiles(File::isDirectory);
+            if (indexDirs != null) {
+                for (File indexDir : indexDirs) {
+                    cleanUpOldFilesInDir(indexDir, keepStartDate, ".cq4");
+                }
             }
+            // key / time index files are named by cycle as well
+            cleanUpOldFilesInDir(KeyIndex.getIndexDir(config.getDataDir()), keepStartDate, KeyIndex.FILE_SUFFIX);
+            cleanUpOldFilesInDir(TimeIndex.getIndexDir(config.getDataDir()), keepStartDate, TimeIndex.FILE_SUFFIX);
         } catch (Exception ex) {
             logger.error("[cleanUpOldFiles] error", ex);
         } finally {
@@ -238,6 +581,17 @@ public class SimpleProducer implements IProducer {
         }
     }
 
+    private void cleanUpOldFilesInDir(final File dir, final LocalDate keepStartDate, final String suffix) throws IOException {
+        // Assuming .cq4 is the file extension for Chronicle Queue
+        File[] files = dir.listFiles((d, name) -> name.endsWith(suffix));
+        if (files == null || files.length == 0) {
+            logDebug("[cleanUpOldFiles] no files found");
+            return;
+        }
+        for (File file : files) {
+            cleanUpOldFile(file, keepStartDate);
+        }
+    }
 
     private void cleanUpOldFile(final File file, final LocalDate keepDate) throws IOException {
         String fileName = file.getName();
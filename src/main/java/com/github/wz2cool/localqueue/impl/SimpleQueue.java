@@ -3,13 +3,19 @@ package com.github.wz2cool.localqueue.impl;
 import com.github.wz2cool.localqueue.IConsumer;
 import com.github.wz2cool.localqueue.IQueue;
 import com.github.wz2cool.localqueue.event.CloseListener;
+import com.github.wz2cool.localqueue.helper.ChronicleQueueHelper;
+import com.github.wz2cool.localqueue.helper.ThreadHelper;
 import com.github.wz2cool.localqueue.model.config.SimpleConsumerConfig;
 import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
 import com.github.wz2cool.localqueue.model.config.SimpleQueueConfig;
 import com.github.wz2cool.localqueue.model.enums.ConsumeFromWhere;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
@@ -25,6 +31,16 @@ public class SimpleQueue implements IQueue {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final SimpleQueueConfig config;
+    // shared by producer and consumers, each of them only creates own appender / tailer
+    private final SingleChronicleQueue queue;
+    // consumers read on shared reader threads, null if each consumer has own read thread
+    private final ReadEngine readEngine;
+    // tag dictionary and indexes shared by consumers
+    private final ReadIndexes readIndexes;
+    // reads new messages once for caught up consumers, created with first consumer, null if no read engine
+    private volatile SharedReadPass sharedReadPass;
+    // flushes positions of all consumers in one pass, created with first consumer
+    private volatile PositionFlusher positionFlusher;
     private final SimpleProducer simpleProducer;
     private final Map<String, SimpleConsumer> consumerMap = new ConcurrentHashMap<>();
     private final ConcurrentLinkedQueue<CloseListener> closeListeners = new ConcurrentLinkedQueue<>();
@@ -35,7 +51,17 @@ public class SimpleQueue implements IQueue {
 
     public SimpleQueue(SimpleQueueConfig config) {
         this.config = config;
+        RollCycle rollCycle = ChronicleQueueHelper.getRollCycle(config.getRollCycleType());
+        this.queue = ChronicleQueue.singleBuilder(config.getDataDir())
+                .rollCycle(rollCycle)
+                .timeProvider(ChronicleQueueHelper.getTimeProvider(config.getTimeZone()))
+                .build();
+        this.readEngine = config.getReaderThreads() > 0 ? new ReadEngine(config.getReaderThreads(),
+                ThreadHelper.newThreadFactory(config.getThreadType(), "local-queue-read-")) : null;
+        this.readIndexes = new ReadIndexes(config.getDataDir(), rollCycle);
         this.simpleProducer = getProducer();
+        // consumers of the same jvm are woken up after flush instead of polling file
+        this.simpleProducer.addFlushListener(this::wakeUpConsumers);
     }
 
     @Override
@@ -48,6 +74,26 @@ public class SimpleQueue implements IQueue {
         return simpleProducer.offer(messageKey, message);
     }
 
+    @Override
+    public boolean offerBytes(byte[] message) {
+        return simpleProducer.offerBytes(message);
+    }
+
+    @Override
+    public boolean offerBytes(String messageKey, byte[] message) {
+        return simpleProducer.offerBytes(messageKey, message);
+    }
+
+    @Override
+    public boolean offerBuffer(ByteBuffer message) {
+        return simpleProducer.offerBuffer(message);
+    }
+
+    @Override
+    public boolean offerBuffer(String messageKey, ByteBuffer message) {
+        return simpleProducer.offerBuffer(messageKey, message);
+    }
+
     @Override
     public boolean isClosed() {
         return isClosed.get();
@@ -59,7 +105,8 @@ public class SimpleQueue implements IQueue {
                 .setKeepDays(config.getKeepDays())
                 .setRollCycleType(config.getRollCycleType())
                 .setTimeZone(config.getTimeZone())
-                .build());
+                .setThreadType(config.getThreadType())
+                .build(), queue);
     }
 
     @Override
@@ -78,14 +125,24 @@ public class SimpleQueue implements IQueue {
             return consumer;
         }
 
-        consumer = new SimpleConsumer(new SimpleConsumerConfig.Builder()
+        SimpleConsumerConfig consumerConfig = new SimpleConsumerConfig.Builder()
                 .setDataDir(config.getDataDir())
                 .setConsumerId(consumerId)
                 .setConsumeFromWhere(consumeFromWhere)
                 .setRollCycleType(config.getRollCycleType())
                 .setTimeZone(config.getTimeZone())
                 .setSelectorTag(selectTag)
-                .build());
+                .setIdleStrategyType(config.getIdleStrategyType())
+                .setThreadType(config.getThreadType())
+                .build();
+        if (Objects.nonNull(readEngine) && Objects.isNull(sharedReadPass)) {
+            sharedReadPass = new SharedReadPass(queue, readEngine, consumerConfig.getIdleStrategyType(),
+                    consumerConfig.getPullInterval(), consumerConfig.getReadBatchSize(), readIndexes.getTagDictionary()::getTag);
+        }
+        if (Objects.isNull(positionFlusher)) {
+            positionFlusher = new PositionFlusher(consumerConfig.getPositionFile(), consumerConfig.getFlushPositionInterval());
+        }
+        consumer = new SimpleConsumer(consumerConfig, queue, readEngine, readIndexes, sharedReadPass, positionFlusher);
         consumer.addCloseListener(() -> {
             SimpleConsumer removeItem = consumerMap.remove(consumerId);
             removeItem.close();
@@ -94,6 +151,16 @@ public class SimpleQueue implements IQueue {
         return consumer;
     }
 
+    private void wakeUpConsumers() {
+        SharedReadPass currentReadPass = sharedReadPass;
+        if (Objects.nonNull(currentReadPass)) {
+            currentReadPass.wakeUp();
+        }
+        for (SimpleConsumer consumer : consumerMap.values()) {
+            consumer.wakeUp();
+        }
+    }
+
     @Override
     public void close() {
         synchronized (closeLocker) {
@@ -113,6 +180,19 @@ public class SimpleQueue implements IQueue {
                         entry.getValue().close();
                     }
                 }
+                if (Objects.nonNull(sharedReadPass)) {
+                    sharedReadPass.close();
+                }
+                if (Objects.nonNull(positionFlusher)) {
+                    positionFlusher.close();
+                }
+                if (Objects.nonNull(readEngine)) {
+                    readEngine.close();
+                }
+                readIndexes.close();
+                if (!queue.isClosed()) {
+                    queue.close();
+                }
                 for (CloseListener listener : closeListeners) {
                     listener.onClose();
                 }
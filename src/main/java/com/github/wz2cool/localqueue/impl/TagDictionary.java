@@ -0,0 +1,181 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.model.message.MessageHeader;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.map.ChronicleMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * tag 字典, tag 与 id 一一对应, 存储在数据目录中, 供生产者和消费者共享.
+ * 文件在第一次使用时才创建.
+ *
+ * @author frank
+ */
+public class TagDictionary implements AutoCloseable {
+
+    public static final String TAG_TO_ID_FILE_NAME = "tag-dictionary.dat";
+    public static final String ID_TO_TAG_FILE_NAME = "tag-dictionary-id.dat";
+    public static final int MAX_TAG_COUNT = 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final File dataDir;
+    private final ConcurrentHashMap<String, Integer> tagIdCache = new ConcurrentHashMap<>();
+    // id -> tag, read without lock
+    private volatile String[] tagCache = new String[64];
+    private ChronicleMap<String, Integer> tagToIdMap;
+    private ChronicleMap<Integer, String> idToTagMap;
+
+    private final AtomicBoolean isClosing = new AtomicBoolean(false);
+    private final Object locker = new Object();
+
+    /**
+     * constructor
+     *
+     * @param dataDir data dir of queue
+     */
+    public TagDictionary(final File dataDir) {
+        this.dataDir = dataDir;
+    }
+
+    /**
+     * get tag id, create if not exists.
+     *
+     * @param tag tag
+     * @return tag id, {@link MessageHeader#INLINE_TAG_ID} if dictionary is full
+     */
+    public int getOrCreateId(final String tag) {
+        if (Objects.isNull(tag)) {
+            return MessageHeader.NULL_TAG_ID;
+        }
+        Integer cachedId = tagIdCache.get(tag);
+        if (Objects.nonNull(cachedId)) {
+            return cachedId;
+        }
+        synchronized (locker) {
+            try {
+                openIfNeeded();
+                Integer id = tagToIdMap.get(tag);
+                if (Objects.isNull(id)) {
+                    id = claimId(tag);
+                }
+                if (id != MessageHeader.INLINE_TAG_ID) {
+                    cacheTag(id, tag);
+                }
+                tagIdCache.put(tag, id);
+                return id;
+            } catch (Exception ex) {
+                logger.error("[getOrCreateId] error, tag: {}", tag, ex);
+                return MessageHeader.INLINE_TAG_ID;
+            }
+        }
+    }
+
+    private int claimId(final String tag) {
+        for (int id = idToTagMap.size() + 1; id <= MAX_TAG_COUNT; id++) {
+            // other producer may claim the same id at the same time.
+            if (Objects.isNull(idToTagMap.putIfAbsent(id, tag))) {
+                Integer existsId = tagToIdMap.putIfAbsent(tag, id);
+                return Objects.isNull(existsId) ? id : existsId;
+            }
+        }
+        logger.warn("[claimId] tag dictionary is full, tag: {}", tag);
+        return MessageHeader.INLINE_TAG_ID;
+    }
+
+    /**
+     * get tag by id.
+     *
+     * @param id tag id
+     * @return tag, null if id is {@link MessageHeader#NULL_TAG_ID}
+     */
+    public String getTag(final int id) {
+        if (id <= MessageHeader.NULL_TAG_ID) {
+            return null;
+        }
+        String[] tags = this.tagCache;
+        if (id < tags.length && Objects.nonNull(tags[id])) {
+            return tags[id];
+        }
+        synchronized (locker) {
+            openIfNeeded();
+            String tag = idToTagMap.get(id);
+            if (Objects.isNull(tag)) {
+                throw new IllegalStateException("unknown tag id: " + id);
+            }
+            cacheTag(id, tag);
+            return tag;
+        }
+    }
+
+    private void cacheTag(final int id, final String tag) {
+        String[] tags = this.tagCache;
+        if (id >= tags.length) {
+            tags = Arrays.copyOf(tags, Math.max(id + 1, tags.length * 2));
+        } else {
+            tags = tags.clone();
+        }
+        tags[id] = tag;
+        this.tagCache = tags;
+    }
+
+    private void openIfNeeded() {
+        if (isClosing.get()) {
+            throw new IORuntimeException("TagDictionary is closing");
+        }
+        if (Objects.nonNull(tagToIdMap)) {
+            return;
+        }
+        try {
+            if (!Files.exists(dataDir.toPath())) {
+                Files.createDirectories(dataDir.toPath());
+            }
+            this.tagToIdMap = ChronicleMap.of(String.class, Integer.class)
+                    .name(TAG_TO_ID_FILE_NAME)
+                    .averageKeySize(32)
+                    .entries(MAX_TAG_COUNT)
+                    .createPersistedTo(new File(dataDir, TAG_TO_ID_FILE_NAME));
+            this.idToTagMap = ChronicleMap.of(Integer.class, String.class)
+                    .name(ID_TO_TAG_FILE_NAME)
+                    .averageValueSize(32)
+                    .entries(MAX_TAG_COUNT)
+                    .createPersistedTo(new File(dataDir, ID_TO_TAG_FILE_NAME));
+        } catch (Exception ex) {
+            throw new IORuntimeException("[TagDictionary.openIfNeeded] error", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (locker) {
+            logDebug("[close] start");
+            if (isClosing.getAndSet(true)) {
+                return;
+            }
+            if (Objects.nonNull(tagToIdMap) && !tagToIdMap.isClosed()) {
+                tagToIdMap.close();
+            }
+            if (Objects.nonNull(idToTagMap) && !idToTagMap.isClosed()) {
+                idToTagMap.close();
+            }
+            logDebug("[close] end");
+        }
+    }
+
+    // region logger
+
+    private void logDebug(String format) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(format);
+        }
+    }
+
+    // endregion
+}
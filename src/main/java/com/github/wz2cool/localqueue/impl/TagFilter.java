@@ -0,0 +1,128 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.model.message.MessageHeader;
+import net.openhft.chronicle.bytes.BytesIn;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * filter excerpt by tag without decoding, read position of bytes is not changed.
+ * compact header is filtered by tag id, legacy header by comparing raw utf8 bytes of tag.
+ * not thread safe, should only call by read thread.
+ *
+ * @author frank
+ */
+public class TagFilter {
+
+    private static final byte TAG_UNKNOWN = 0;
+    private static final byte TAG_MATCHED = 1;
+    private static final byte TAG_NOT_MATCHED = 2;
+
+    private final boolean matchAll;
+    private final Set<String> matchTags;
+    private final byte[][] matchTagBytes;
+    private final IntFunction<String> tagResolver;
+    private byte[] tagIdMatches = new byte[64];
+
+    /**
+     * constructor
+     *
+     * @param matchTags   match tags, "*" means all
+     * @param tagResolver resolve tag by tag id of compact header
+     */
+    public TagFilter(final Set<String> matchTags, final IntFunction<String> tagResolver) {
+        this.matchAll = matchTags.contains("*");
+        this.matchTags = matchTags;
+        this.tagResolver = tagResolver;
+        this.matchTagBytes = new byte[matchTags.size()][];
+        int i = 0;
+        for (String matchTag : matchTags) {
+            matchTagBytes[i++] = matchTag.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * check whether the message matches.
+     *
+     * @param bytes bytes, read position at the beginning of message
+     * @return true if match
+     */
+    public boolean matches(final BytesIn<?> bytes) {
+        if (matchAll) {
+            return true;
+        }
+        long start = bytes.readPosition();
+        if (!MessageHeader.isCompact(bytes)) {
+            return matchesTagBytes(bytes, start);
+        }
+        int tagId = bytes.readShort(start + MessageHeader.TAG_ID_OFFSET);
+        if (tagId == MessageHeader.INLINE_TAG_ID) {
+            return matchesTagBytes(bytes, start + MessageHeader.WRITE_TIME_OFFSET + 8);
+        }
+        if (tagId == MessageHeader.NULL_TAG_ID) {
+            return false;
+        }
+        return matchesTagId(tagId);
+    }
+
+    private boolean matchesTagId(final int tagId) {
+        if (tagId >= tagIdMatches.length) {
+            tagIdMatches = Arrays.copyOf(tagIdMatches, Math.max(tagId + 1, tagIdMatches.length * 2));
+        }
+        byte result = tagIdMatches[tagId];
+        if (result == TAG_UNKNOWN) {
+            String tag = tagResolver.apply(tagId);
+            result = Objects.nonNull(tag) && matchTags.contains(tag) ? TAG_MATCHED : TAG_NOT_MATCHED;
+            tagIdMatches[tagId] = result;
+        }
+        return result == TAG_MATCHED;
+    }
+
+    /**
+     * compare utf8 tag (stop bit length + bytes) at offset with match tags.
+     */
+    private boolean matchesTagBytes(final BytesIn<?> bytes, final long offset) {
+        long limit = bytes.readLimit();
+        // read stop bit length
+        long length = 0;
+        int shift = 0;
+        long position = offset;
+        while (true) {
+            if (position >= limit) {
+                return false;
+            }
+            int b = bytes.readUnsignedByte(position++);
+            length |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+            shift += 7;
+        }
+        if (shift > 0 && length == 0) {
+            // 0x80 0x00 is null tag
+            return false;
+        }
+        for (byte[] tagBytes : matchTagBytes) {
+            if (tagBytes.length == length && equalsAt(bytes, position, limit, tagBytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean equalsAt(final BytesIn<?> bytes, final long offset, final long limit, final byte[] tagBytes) {
+        if (offset + tagBytes.length > limit) {
+            return false;
+        }
+        for (int i = 0; i < tagBytes.length; i++) {
+            if (bytes.readByte(offset + i) != tagBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.wz2cool.localqueue.impl;
+
+import net.openhft.chronicle.core.time.TimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.wire.DocumentContext;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * merge the per-tag index queues of selected tags, positions are returned in ascending order.
+ * not thread safe, should only call by read thread of consumer.
+ *
+ * @author frank
+ */
+public class TagIndexReader implements AutoCloseable {
+
+    private static final long NO_POSITION = -1;
+
+    private final RollCycle rollCycle;
+    private final SingleChronicleQueue[] indexQueues;
+    private final ExcerptTailer[] tailers;
+    // next position read from each tailer but not consumed yet
+    private final long[] nextPositions;
+    // positions before this are ignored
+    private long startPosition = 0;
+
+    /**
+     * constructor
+     *
+     * @param dataDir      data dir of main queue
+     * @param tagIds       tag ids to read
+     * @param rollCycle    roll cycle of main queue
+     * @param timeProvider time provider of main queue
+     */
+    public TagIndexReader(final File dataDir, final int[] tagIds, final RollCycle rollCycle, final TimeProvider timeProvider) {
+        this.rollCycle = rollCycle;
+        File indexDir = TagIndexWriter.getIndexDir(dataDir);
+        this.indexQueues = new SingleChronicleQueue[tagIds.length];
+        this.tailers = new ExcerptTailer[tagIds.length];
+        this.nextPositions = new long[tagIds.length];
+        Arrays.fill(nextPositions, NO_POSITION);
+        for (int i = 0; i < tagIds.length; i++) {
+            indexQueues[i] = ChronicleQueue.singleBuilder(new File(indexDir, String.valueOf(tagIds[i])))
+                    .rollCycle(rollCycle)
+                    .timeProvider(timeProvider)
+                    .build();
+            tailers[i] = indexQueues[i].createTailer();
+            // read by different threads of read engine, but never concurrently.
+            tailers[i].singleThreadedCheckDisabled(true);
+        }
+    }
+
+    /**
+     * positions before start position will be skipped.
+     *
+     * @param startPosition start position of main queue
+     */
+    public void moveTo(final long startPosition) {
+        this.startPosition = startPosition;
+        int cycle = rollCycle.toCycle(startPosition);
+        for (int i = 0; i < tailers.length; i++) {
+            nextPositions[i] = NO_POSITION;
+            // index is written after message, so entries of this cycle are never in an earlier index cycle.
+            if (!tailers[i].moveToCycle(cycle)) {
+                tailers[i].toStart();
+            }
+        }
+    }
+
+    /**
+     * get the smallest next position, without consuming it.
+     *
+     * @return next position, -1 if no more
+     */
+    public long peek() {
+        long result = NO_POSITION;
+        for (int i = 0; i < tailers.length; i++) {
+            long position = fill(i);
+            if (position != NO_POSITION && (result == NO_POSITION || position < result)) {
+                result = position;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * consume the position returned by peek.
+     *
+     * @param position position returned by peek
+     */
+    public void advance(final long position) {
+        for (int i = 0; i < nextPositions.length; i++) {
+            if (nextPositions[i] == position) {
+                nextPositions[i] = NO_POSITION;
+            }
+        }
+    }
+
+    private long fill(final int i) {
+        while (nextPositions[i] == NO_POSITION) {
+            try (DocumentContext documentContext = tailers[i].readingDocument()) {
+                if (!documentContext.isPresent()) {
+                    return NO_POSITION;
+                }
+                long position = documentContext.wire().bytes().readLong();
+                if (position >= startPosition) {
+                    nextPositions[i] = position;
+                }
+            }
+        }
+        return nextPositions[i];
+    }
+
+    @Override
+    public void close() {
+        for (ExcerptTailer tailer : tailers) {
+            tailer.close();
+        }
+        for (SingleChronicleQueue indexQueue : indexQueues) {
+            if (!indexQueue.isClosed()) {
+                indexQueue.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.wz2cool.localqueue.impl;
+
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.core.time.TimeProvider;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * per-tag index, each tag has a small queue under dataDir/tag-index/{tagId},
+ * every excerpt is the position (long) of a message with this tag in main queue.
+ * index queue use the same roll cycle as main queue, so old files can be cleaned up in the same way.
+ * not thread safe, should be called with the write lock of producer.
+ *
+ * @author frank
+ */
+public class TagIndexWriter implements AutoCloseable {
+
+    public static final String TAG_INDEX_DIR_NAME = "tag-index";
+
+    private final File indexDir;
+    private final RollCycle rollCycle;
+    private final TimeProvider timeProvider;
+    private final TagDictionary tagDictionary;
+    private final Map<Integer, SingleChronicleQueue> indexQueueMap = new HashMap<>();
+    private final Map<Integer, ExcerptAppender> appenderMap = new HashMap<>();
+    private final Bytes<?> entryBytes = Bytes.allocateElasticDirect(8);
+
+    /**
+     * constructor
+     *
+     * @param dataDir       data dir of main queue
+     * @param rollCycle     roll cycle of main queue
+     * @param timeProvider  time provider of main queue
+     * @param tagDictionary tag dictionary
+     */
+    public TagIndexWriter(final File dataDir, final RollCycle rollCycle, final TimeProvider timeProvider, final TagDictionary tagDictionary) {
+        this.indexDir = getIndexDir(dataDir);
+        this.rollCycle = rollCycle;
+        this.timeProvider = timeProvider;
+        this.tagDictionary = tagDictionary;
+    }
+
+    /**
+     * append position of message to index of its tag, null tag or tag without id is not indexed.
+     *
+     * @param tag      tag
+     * @param position position in main queue
+     */
+    public void append(final String tag, final long position) {
+        if (Objects.isNull(tag)) {
+            return;
+        }
+        int tagId = tagDictionary.getOrCreateId(tag);
+        if (tagId <= 0) {
+            return;
+        }
+        ExcerptAppender appender = appenderMap.computeIfAbsent(tagId, this::createAppender);
+        entryBytes.clear();
+        entryBytes.writeLong(position);
+        appender.writeBytes(entryBytes);
+    }
+
+    private ExcerptAppender createAppender(final int tagId) {
+        SingleChronicleQueue indexQueue = ChronicleQueue.singleBuilder(new File(indexDir, String.valueOf(tagId)))
+                .rollCycle(rollCycle)
+                .timeProvider(timeProvider)
+                .build();
+        indexQueueMap.put(tagId, indexQueue);
+        ExcerptAppender appender = indexQueue.createAppender();
+        // direct write mode append in different threads, but always with the write lock.
+        appender.singleThreadedCheckDisabled(true);
+        return appender;
+    }
+
+    /**
+     * get index dir of data dir.
+     *
+     * @param dataDir data dir of main queue
+     * @return index dir
+     */
+    public static File getIndexDir(final File dataDir) {
+        return new File(dataDir, TAG_INDEX_DIR_NAME);
+    }
+
+    @Override
+    public void close() {
+        for (ExcerptAppender appender : appenderMap.values()) {
+            appender.close();
+        }
+        for (SingleChronicleQueue indexQueue : indexQueueMap.values()) {
+            if (!indexQueue.isClosed()) {
+                indexQueue.close();
+            }
+        }
+        appenderMap.clear();
+        indexQueueMap.clear();
+        entryBytes.releaseLast();
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.helper.ChronicleQueueHelper;
+import net.openhft.chronicle.core.io.IORuntimeException;
+import net.openhft.chronicle.queue.RollCycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * sparse write time index, one file per roll cycle under dataDir/time-index,
+ * each entry is 16 bytes (write time, position), written for the first message of cycle
+ * and then at most once per interval, so entries of one file are ordered by write time.
+ *
+ * @author frank
+ */
+public class TimeIndex implements AutoCloseable {
+
+    public static final String TIME_INDEX_DIR_NAME = "time-index";
+    public static final String FILE_SUFFIX = ".idx";
+    private static final int ENTRY_SIZE = 16;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final File indexDir;
+    private final RollCycle rollCycle;
+    private final long interval;
+
+    // writer, should be called with the write lock of producer
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(ENTRY_SIZE);
+    private int writeCycle = Integer.MIN_VALUE;
+    private FileChannel writeChannel;
+    private long lastWriteTime = Long.MIN_VALUE;
+
+    /**
+     * constructor
+     *
+     * @param dataDir   data dir of queue
+     * @param rollCycle roll cycle of queue
+     * @param interval  min interval (ms) between two entries, only for writer
+     */
+    public TimeIndex(final File dataDir, final RollCycle rollCycle, final long interval) {
+        this.indexDir = getIndexDir(dataDir);
+        this.rollCycle = rollCycle;
+        this.interval = interval;
+    }
+
+    /**
+     * get index dir of data dir.
+     *
+     * @param dataDir data dir of queue
+     * @return index dir
+     */
+    public static File getIndexDir(final File dataDir) {
+        return new File(dataDir, TIME_INDEX_DIR_NAME);
+    }
+
+    private File getIndexFile(final int cycle) {
+        return new File(indexDir, ChronicleQueueHelper.cycleFileName(rollCycle, cycle) + FILE_SUFFIX);
+    }
+
+    // region writer
+
+    /**
+     * record write time of message if interval passed since last entry.
+     *
+     * @param writeTime write time of message
+     * @param position  position of message
+     */
+    public void put(final long writeTime, final long position) {
+        int cycle = rollCycle.toCycle(position);
+        if (cycle != writeCycle) {
+            openWriteChannel(cycle);
+        } else if (writeTime < lastWriteTime + interval) {
+            return;
+        }
+        // keep write time ordered even if clock goes back.
+        long entryTime = Math.max(writeTime, lastWriteTime);
+        // call through Buffer, ByteBuffer.clear() / flip() of jdk 9+ do not exist on java 8
+        ((Buffer) writeBuffer).clear();
+        writeBuffer.putLong(entryTime).putLong(position);
+        ((Buffer) writeBuffer).flip();
+        try {
+            while (writeBuffer.hasRemaining()) {
+                writeChannel.write(writeBuffer);
+            }
+        } catch (IOException ex) {
+            throw new IORuntimeException("[TimeIndex.put] error", ex);
+        }
+        lastWriteTime = entryTime;
+    }
+
+    private void openWriteChannel(final int cycle) {
+        closeWriteChannel();
+        try {
+            Files.createDirectories(indexDir.toPath());
+            this.writeChannel = FileChannel.open(getIndexFile(cycle).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+            // drop partial entry and continue after the last one
+            long count = writeChannel.size() / ENTRY_SIZE;
+            writeChannel.position(count * ENTRY_SIZE);
+            this.lastWriteTime = count > 0 ? readTime(writeChannel, count - 1, ByteBuffer.allocate(8)) : Long.MIN_VALUE;
+        } catch (IOException ex) {
+            throw new IORuntimeException("[TimeIndex.openWriteChannel] error", ex);
+        }
+        this.writeCycle = cycle;
+    }
+
+    private void closeWriteChannel() {
+        if (Objects.nonNull(writeChannel)) {
+            try {
+                writeChannel.close();
+            } catch (IOException ex) {
+                logger.warn("[TimeIndex] close error", ex);
+            }
+        }
+        writeChannel = null;
+        writeCycle = Integer.MIN_VALUE;
+        lastWriteTime = Long.MIN_VALUE;
+    }
+
+    // endregion
+
+    // region reader
+
+    /**
+     * binary search the last entry whose write time is before timestamp.
+     *
+     * @param cycle     cycle
+     * @param timestamp timestamp
+     * @return position of the entry, -1 if cycle is not indexed or no entry before timestamp
+     */
+    public long floor(final int cycle, final long timestamp) {
+        File file = getIndexFile(cycle);
+        if (!file.exists()) {
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            long low = 0;
+            long high = channel.size() / ENTRY_SIZE - 1;
+            long found = -1;
+            while (low <= high) {
+                long mid = (low + high) >>> 1;
+                if (readTime(channel, mid, buffer) < timestamp) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            if (found < 0) {
+                return -1;
+            }
+            ((Buffer) buffer).clear();
+            channel.read(buffer, found * ENTRY_SIZE + 8);
+            ((Buffer) buffer).flip();
+            return buffer.getLong();
+        } catch (IOException ex) {
+            logger.warn("[TimeIndex] read time index error, cycle: {}", cycle, ex);
+            return -1;
+        }
+    }
+
+    private long readTime(final FileChannel channel, final long entry, final ByteBuffer buffer) throws IOException {
+        ((Buffer) buffer).clear();
+        channel.read(buffer, entry * ENTRY_SIZE);
+        ((Buffer) buffer).flip();
+        return buffer.getLong();
+    }
+
+    // endregion
+
+    @Override
+    public void close() {
+        closeWriteChannel();
+    }
+}
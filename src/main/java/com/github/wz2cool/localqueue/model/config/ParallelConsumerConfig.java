@@ -0,0 +1,110 @@
+package com.github.wz2cool.localqueue.model.config;
+
+import com.github.wz2cool.localqueue.model.enums.AckMode;
+
+import java.util.Objects;
+
+public class ParallelConsumerConfig {
+
+    private final SimpleConsumerConfig consumerConfig;
+
+    // worker 数量, 相同 messageKey 的消息由同一个 worker 顺序处理
+    private final int parallelism;
+
+    // 每个 worker 等待处理的消息数量上限
+    private final int laneCapacity;
+
+    private final int batchSize;
+
+    // 消息处理失败后的最大重试次数, 超过后交给死信监听并跳过, -1 表示一直重试
+    private final int maxRetries;
+
+    private ParallelConsumerConfig(final Builder builder) {
+        this.consumerConfig = builder.consumerConfig;
+        this.parallelism = builder.parallelism;
+        this.laneCapacity = builder.laneCapacity;
+        this.batchSize = builder.batchSize;
+        this.maxRetries = builder.maxRetries;
+    }
+
+    public SimpleConsumerConfig getConsumerConfig() {
+        return consumerConfig;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getLaneCapacity() {
+        return laneCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public static class Builder {
+
+        private SimpleConsumerConfig consumerConfig;
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        private int laneCapacity = 100;
+
+        private int batchSize = 100;
+
+        private int maxRetries = 16;
+
+        public Builder setConsumerConfig(SimpleConsumerConfig consumerConfig) {
+            this.consumerConfig = consumerConfig;
+            return this;
+        }
+
+        public Builder setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public Builder setLaneCapacity(int laneCapacity) {
+            this.laneCapacity = laneCapacity;
+            return this;
+        }
+
+        public Builder setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public ParallelConsumerConfig build() {
+            if (Objects.isNull(consumerConfig)) {
+                throw new IllegalArgumentException("consumerConfig cannot be null");
+            }
+            // messages are acked out of order by workers
+            if (consumerConfig.getAckMode() != AckMode.SELECTIVE) {
+                throw new IllegalArgumentException("ackMode of consumerConfig should be SELECTIVE");
+            }
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("parallelism should > 0");
+            }
+            if (laneCapacity <= 0) {
+                throw new IllegalArgumentException("laneCapacity should > 0");
+            }
+            if (batchSize <= 0) {
+                throw new IllegalArgumentException("batchSize should > 0");
+            }
+            if (maxRetries < -1) {
+                throw new IllegalArgumentException("maxRetries should >= -1");
+            }
+            return new ParallelConsumerConfig(this);
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.github.wz2cool.localqueue.model.config;
 
+import com.github.wz2cool.localqueue.helper.ThreadHelper;
+import com.github.wz2cool.localqueue.model.enums.AckMode;
 import com.github.wz2cool.localqueue.model.enums.ConsumeFromWhere;
+import com.github.wz2cool.localqueue.model.enums.IdleStrategyType;
 import com.github.wz2cool.localqueue.model.enums.RollCycleType;
+import com.github.wz2cool.localqueue.model.enums.ThreadType;
 
 import java.io.File;
 import java.util.Objects;
 import java.util.TimeZone;
+import java.util.concurrent.ThreadFactory;
 
 public class SimpleConsumerConfig {
 
@@ -31,6 +36,24 @@ public class SimpleConsumerConfig {
 
     private final String selectorTag;
 
+    // 通过 tag 索引跳到匹配的消息, 要求所有生产者开启 tagIndex
+    private final boolean consumeByTagIndex;
+
+    // 逐条确认, 位点只提交到连续确认的最大位置
+    private final AckMode ackMode;
+
+    // 没有新消息时读线程的等待方式, 最多等待 pullInterval
+    private final IdleStrategyType idleStrategyType;
+
+    // 读线程每次加锁最多读取的消息数量
+    private final int readBatchSize;
+
+    // 读写线程类型, 虚拟线程需要 java 21+
+    private final ThreadType threadType;
+
+    // 自定义读写线程工厂, 如绑定 cpu, 设置后忽略 threadType
+    private final ThreadFactory threadFactory;
+
     private SimpleConsumerConfig(final Builder builder) {
         this.dataDir = builder.dataDir;
         this.positionFile = builder.positionFile;
@@ -43,6 +66,12 @@ public class SimpleConsumerConfig {
         this.rollCycleType = builder.rollCycleType;
         this.timeZone = builder.timeZone;
         this.selectorTag = builder.selectorTag;
+        this.consumeByTagIndex = builder.consumeByTagIndex;
+        this.ackMode = builder.ackMode;
+        this.idleStrategyType = builder.idleStrategyType;
+        this.readBatchSize = builder.readBatchSize;
+        this.threadType = builder.threadType;
+        this.threadFactory = builder.threadFactory;
     }
 
     public File getDataDir() {
@@ -89,6 +118,30 @@ public class SimpleConsumerConfig {
         return selectorTag;
     }
 
+    public boolean isConsumeByTagIndex() {
+        return consumeByTagIndex;
+    }
+
+    public AckMode getAckMode() {
+        return ackMode;
+    }
+
+    public IdleStrategyType getIdleStrategyType() {
+        return idleStrategyType;
+    }
+
+    public int getReadBatchSize() {
+        return readBatchSize;
+    }
+
+    public ThreadType getThreadType() {
+        return threadType;
+    }
+
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
     public static class Builder {
 
         private File dataDir;
@@ -99,6 +152,13 @@ public class SimpleConsumerConfig {
 
         private String selectorTag = "*";
 
+        private boolean consumeByTagIndex = false;
+        private AckMode ackMode = AckMode.CUMULATIVE;
+        private IdleStrategyType idleStrategyType = IdleStrategyType.SLEEP;
+        private int readBatchSize = 256;
+        private ThreadType threadType = ThreadType.PLATFORM;
+        private ThreadFactory threadFactory;
+
         private long pullInterval = 10;
 
         private int cacheSize = 10000;
@@ -168,6 +228,36 @@ public class SimpleConsumerConfig {
             return this;
         }
 
+        public Builder setConsumeByTagIndex(boolean consumeByTagIndex) {
+            this.consumeByTagIndex = consumeByTagIndex;
+            return this;
+        }
+
+        public Builder setAckMode(AckMode ackMode) {
+            this.ackMode = ackMode;
+            return this;
+        }
+
+        public Builder setIdleStrategyType(IdleStrategyType idleStrategyType) {
+            this.idleStrategyType = idleStrategyType;
+            return this;
+        }
+
+        public Builder setReadBatchSize(int readBatchSize) {
+            this.readBatchSize = readBatchSize;
+            return this;
+        }
+
+        public Builder setThreadType(ThreadType threadType) {
+            this.threadType = threadType;
+            return this;
+        }
+
+        public Builder setThreadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
         public SimpleConsumerConfig build() {
             if (Objects.isNull(dataDir)) {
                 throw new IllegalArgumentException("dataDir cannot be null");
@@ -210,6 +300,26 @@ public class SimpleConsumerConfig {
             if (Objects.isNull(timeZone)) {
                 throw new IllegalArgumentException("timeZone cannot be null");
             }
+            if (Objects.isNull(ackMode)) {
+                throw new IllegalArgumentException("ackMode cannot be null");
+            }
+            if (Objects.isNull(idleStrategyType)) {
+                throw new IllegalArgumentException("idleStrategyType cannot be null");
+            }
+            if (readBatchSize <= 0) {
+                throw new IllegalArgumentException("readBatchSize should > 0");
+            }
+            if (Objects.isNull(threadType)) {
+                throw new IllegalArgumentException("threadType cannot be null");
+            }
+            if (threadType == ThreadType.VIRTUAL && !ThreadHelper.isVirtualThreadSupported()) {
+                throw new IllegalArgumentException("virtual thread requires java 21+");
+            }
+            if (threadType == ThreadType.VIRTUAL
+                    && (idleStrategyType == IdleStrategyType.BUSY_SPIN || idleStrategyType == IdleStrategyType.YIELD)) {
+                // never park, occupies a carrier thread forever
+                throw new IllegalArgumentException("idleStrategyType BUSY_SPIN / YIELD cannot run on virtual thread");
+            }
 
             if (Objects.isNull(selectorTag)) {
                 this.selectorTag = "*";
@@ -1,10 +1,15 @@
 package com.github.wz2cool.localqueue.model.config;
 
+import com.github.wz2cool.localqueue.helper.ThreadHelper;
+import com.github.wz2cool.localqueue.model.enums.OverflowPolicy;
 import com.github.wz2cool.localqueue.model.enums.RollCycleType;
+import com.github.wz2cool.localqueue.model.enums.ThreadType;
+import com.github.wz2cool.localqueue.model.enums.WriteMode;
 
 import java.io.File;
 import java.util.Objects;
 import java.util.TimeZone;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * the config of producer
@@ -13,6 +18,9 @@ import java.util.TimeZone;
  */
 public class SimpleProducerConfig {
 
+    // 每个 cycle 默认最多索引的 key 数量
+    public static final int DEFAULT_KEY_INDEX_ENTRIES = 1_000_000;
+
     private final File dataDir;
     // -1 表示不删除
     private final int keepDays;
@@ -25,6 +33,43 @@ public class SimpleProducerConfig {
 
     private final TimeZone timeZone;
 
+    // 批量写入，每批次只取一次写入时间，消息直接写入 appender
+    private final boolean batchWrite;
+
+    // 待写入消息缓存大小，会向上取到 2 的幂
+    private final int cacheSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    // 有等待写入结果的消息时，批次写完先刷盘再通知
+    private final boolean syncOnWait;
+
+    private final WriteMode writeMode;
+
+    // tag 写入字典 id, 老版本无法读取
+    private final boolean compactHeader;
+
+    // 为每个 tag 记录消息位置, 供按 tag 索引消费
+    private final boolean tagIndex;
+
+    // 记录 message key 的位置, 加速按 key 查询
+    private final boolean keyIndex;
+
+    // 每个 cycle 最多索引的 key 数量
+    private final int keyIndexEntries;
+
+    // 稀疏时间索引, 加速按时间定位
+    private final boolean timeIndex;
+
+    // 时间索引的最小间隔(毫秒)
+    private final long timeIndexInterval;
+
+    // 读写线程类型, 虚拟线程需要 java 21+
+    private final ThreadType threadType;
+
+    // 自定义读写线程工厂, 如绑定 cpu, 设置后忽略 threadType
+    private final ThreadFactory threadFactory;
+
     private SimpleProducerConfig(Builder builder) {
         this.dataDir = builder.dataDir;
         this.keepDays = builder.keepDays;
@@ -32,6 +77,19 @@ public class SimpleProducerConfig {
         this.flushInterval = builder.flushInterval;
         this.rollCycleType = builder.rollCycleType;
         this.timeZone = builder.timeZone;
+        this.batchWrite = builder.batchWrite;
+        this.cacheSize = builder.cacheSize;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.syncOnWait = builder.syncOnWait;
+        this.writeMode = builder.writeMode;
+        this.compactHeader = builder.compactHeader;
+        this.tagIndex = builder.tagIndex;
+        this.keyIndex = builder.keyIndex;
+        this.keyIndexEntries = builder.keyIndexEntries;
+        this.timeIndex = builder.timeIndex;
+        this.timeIndexInterval = builder.timeIndexInterval;
+        this.threadType = builder.threadType;
+        this.threadFactory = builder.threadFactory;
     }
 
     public File getDataDir() {
@@ -58,6 +116,58 @@ public class SimpleProducerConfig {
         return timeZone;
     }
 
+    public boolean isBatchWrite() {
+        return batchWrite;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public boolean isSyncOnWait() {
+        return syncOnWait;
+    }
+
+    public WriteMode getWriteMode() {
+        return writeMode;
+    }
+
+    public boolean isCompactHeader() {
+        return compactHeader;
+    }
+
+    public boolean isTagIndex() {
+        return tagIndex;
+    }
+
+    public boolean isKeyIndex() {
+        return keyIndex;
+    }
+
+    public int getKeyIndexEntries() {
+        return keyIndexEntries;
+    }
+
+    public boolean isTimeIndex() {
+        return timeIndex;
+    }
+
+    public long getTimeIndexInterval() {
+        return timeIndexInterval;
+    }
+
+    public ThreadType getThreadType() {
+        return threadType;
+    }
+
+    public ThreadFactory getThreadFactory() {
+        return threadFactory;
+    }
+
     public static class Builder {
         private File dataDir;
         private int keepDays = -1;
@@ -65,6 +175,19 @@ public class SimpleProducerConfig {
         private long flushInterval = 10;
         private RollCycleType rollCycleType = RollCycleType.HOURLY;
         private TimeZone timeZone = TimeZone.getDefault();
+        private boolean batchWrite = false;
+        private int cacheSize = 65536;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        private boolean syncOnWait = false;
+        private WriteMode writeMode = WriteMode.QUEUED;
+        private boolean compactHeader = false;
+        private boolean tagIndex = false;
+        private boolean keyIndex = false;
+        private int keyIndexEntries = DEFAULT_KEY_INDEX_ENTRIES;
+        private boolean timeIndex = false;
+        private long timeIndexInterval = 1000;
+        private ThreadType threadType = ThreadType.PLATFORM;
+        private ThreadFactory threadFactory;
 
         public Builder setDataDir(File dataDir) {
             this.dataDir = dataDir;
@@ -96,6 +219,71 @@ public class SimpleProducerConfig {
             return this;
         }
 
+        public Builder setBatchWrite(boolean batchWrite) {
+            this.batchWrite = batchWrite;
+            return this;
+        }
+
+        public Builder setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+            return this;
+        }
+
+        public Builder setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        public Builder setSyncOnWait(boolean syncOnWait) {
+            this.syncOnWait = syncOnWait;
+            return this;
+        }
+
+        public Builder setWriteMode(WriteMode writeMode) {
+            this.writeMode = writeMode;
+            return this;
+        }
+
+        public Builder setCompactHeader(boolean compactHeader) {
+            this.compactHeader = compactHeader;
+            return this;
+        }
+
+        public Builder setTagIndex(boolean tagIndex) {
+            this.tagIndex = tagIndex;
+            return this;
+        }
+
+        public Builder setKeyIndex(boolean keyIndex) {
+            this.keyIndex = keyIndex;
+            return this;
+        }
+
+        public Builder setKeyIndexEntries(int keyIndexEntries) {
+            this.keyIndexEntries = keyIndexEntries;
+            return this;
+        }
+
+        public Builder setTimeIndex(boolean timeIndex) {
+            this.timeIndex = timeIndex;
+            return this;
+        }
+
+        public Builder setTimeIndexInterval(long timeIndexInterval) {
+            this.timeIndexInterval = timeIndexInterval;
+            return this;
+        }
+
+        public Builder setThreadType(ThreadType threadType) {
+            this.threadType = threadType;
+            return this;
+        }
+
+        public Builder setThreadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
         public SimpleProducerConfig build() {
             if (Objects.isNull(dataDir)) {
                 throw new IllegalArgumentException("dataDir cannot be null");
@@ -112,6 +300,27 @@ public class SimpleProducerConfig {
             if (Objects.isNull(timeZone)) {
                 throw new IllegalArgumentException("timeZone cannot be null");
             }
+            if (cacheSize <= 0) {
+                throw new IllegalArgumentException("cacheSize should > 0");
+            }
+            if (Objects.isNull(overflowPolicy)) {
+                throw new IllegalArgumentException("overflowPolicy cannot be null");
+            }
+            if (Objects.isNull(writeMode)) {
+                throw new IllegalArgumentException("writeMode cannot be null");
+            }
+            if (keyIndexEntries <= 0) {
+                throw new IllegalArgumentException("keyIndexEntries should > 0");
+            }
+            if (timeIndexInterval <= 0) {
+                throw new IllegalArgumentException("timeIndexInterval should > 0");
+            }
+            if (Objects.isNull(threadType)) {
+                throw new IllegalArgumentException("threadType cannot be null");
+            }
+            if (threadType == ThreadType.VIRTUAL && !ThreadHelper.isVirtualThreadSupported()) {
+                throw new IllegalArgumentException("virtual thread requires java 21+");
+            }
 
             return new SimpleProducerConfig(this);
         }
@@ -1,6 +1,9 @@
 package com.github.wz2cool.localqueue.model.config;
 
+import com.github.wz2cool.localqueue.helper.ThreadHelper;
+import com.github.wz2cool.localqueue.model.enums.IdleStrategyType;
 import com.github.wz2cool.localqueue.model.enums.RollCycleType;
+import com.github.wz2cool.localqueue.model.enums.ThreadType;
 
 import java.io.File;
 import java.util.Objects;
@@ -16,11 +19,23 @@ public class SimpleQueueConfig {
 
     private final TimeZone timeZone;
 
+    // 消费者空闲时的等待方式, 默认阻塞等待生产者 flush 唤醒
+    private final IdleStrategyType idleStrategyType;
+
+    // 共享读线程数, 消费者轮流在共享线程上读取, 0 表示每个消费者独占一个读线程
+    private final int readerThreads;
+
+    // 读写线程类型, 虚拟线程需要 java 21+
+    private final ThreadType threadType;
+
     private SimpleQueueConfig(final Builder builder) {
         this.dataDir = builder.dataDir;
         this.keepDays = builder.keepDays;
         this.rollCycleType = builder.rollCycleType;
         this.timeZone = builder.timeZone;
+        this.idleStrategyType = builder.idleStrategyType;
+        this.readerThreads = builder.readerThreads;
+        this.threadType = builder.threadType;
     }
 
     public File getDataDir() {
@@ -39,11 +54,26 @@ public class SimpleQueueConfig {
         return timeZone;
     }
 
+    public IdleStrategyType getIdleStrategyType() {
+        return idleStrategyType;
+    }
+
+    public int getReaderThreads() {
+        return readerThreads;
+    }
+
+    public ThreadType getThreadType() {
+        return threadType;
+    }
+
     public static class Builder {
         private File dataDir;
         private int keepDays;
         private RollCycleType rollCycleType = RollCycleType.HOURLY;
         private TimeZone timeZone = TimeZone.getDefault();
+        private IdleStrategyType idleStrategyType = IdleStrategyType.BLOCKING;
+        private int readerThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+        private ThreadType threadType = ThreadType.PLATFORM;
 
         public Builder setDataDir(File dataDir) {
             this.dataDir = dataDir;
@@ -65,6 +95,21 @@ public class SimpleQueueConfig {
             return this;
         }
 
+        public Builder setIdleStrategyType(IdleStrategyType idleStrategyType) {
+            this.idleStrategyType = idleStrategyType;
+            return this;
+        }
+
+        public Builder setReaderThreads(int readerThreads) {
+            this.readerThreads = readerThreads;
+            return this;
+        }
+
+        public Builder setThreadType(ThreadType threadType) {
+            this.threadType = threadType;
+            return this;
+        }
+
         public SimpleQueueConfig build() {
             if (Objects.isNull(dataDir)) {
                 throw new IllegalArgumentException("dataDir cannot be null");
@@ -78,6 +123,23 @@ public class SimpleQueueConfig {
             if (Objects.isNull(timeZone)) {
                 throw new IllegalArgumentException("timeZone cannot be null");
             }
+            if (Objects.isNull(idleStrategyType)) {
+                throw new IllegalArgumentException("idleStrategyType cannot be null");
+            }
+            if (readerThreads < 0) {
+                throw new IllegalArgumentException("readerThreads should >= 0");
+            }
+            if (Objects.isNull(threadType)) {
+                throw new IllegalArgumentException("threadType cannot be null");
+            }
+            if (threadType == ThreadType.VIRTUAL && !ThreadHelper.isVirtualThreadSupported()) {
+                throw new IllegalArgumentException("virtual thread requires java 21+");
+            }
+            if (threadType == ThreadType.VIRTUAL
+                    && (idleStrategyType == IdleStrategyType.BUSY_SPIN || idleStrategyType == IdleStrategyType.YIELD)) {
+                // never park, occupies a carrier thread forever
+                throw new IllegalArgumentException("idleStrategyType BUSY_SPIN / YIELD cannot run on virtual thread");
+            }
 
             return new SimpleQueueConfig(this);
         }
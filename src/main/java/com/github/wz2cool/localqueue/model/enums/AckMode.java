@@ -0,0 +1,18 @@
+package com.github.wz2cool.localqueue.model.enums;
+
+/**
+ * how consumer commit acked position
+ *
+ * @author frank
+ */
+public enum AckMode {
+    /**
+     * ack a message means all messages before it are consumed, unacked messages are taken again.
+     */
+    CUMULATIVE,
+    /**
+     * each message is acked individually and in any order, take always returns new messages,
+     * position is only committed to the highest contiguous acked message.
+     */
+    SELECTIVE,
+}
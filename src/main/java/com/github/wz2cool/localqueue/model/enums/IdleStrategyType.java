@@ -0,0 +1,29 @@
+package com.github.wz2cool.localqueue.model.enums;
+
+/**
+ * what consumer read thread does when no new message
+ *
+ * @author frank
+ */
+public enum IdleStrategyType {
+    /**
+     * sleep pullInterval, latency is up to pullInterval
+     */
+    SLEEP,
+    /**
+     * spin without giving up cpu, lowest latency, occupies a whole core
+     */
+    BUSY_SPIN,
+    /**
+     * yield thread, low latency, still high cpu usage
+     */
+    YIELD,
+    /**
+     * spin, then yield, then park with exponential backoff up to pullInterval
+     */
+    BACKOFF,
+    /**
+     * park up to pullInterval, woken up immediately when producer of the same jvm flushed
+     */
+    BLOCKING,
+}
@@ -0,0 +1,21 @@
+package com.github.wz2cool.localqueue.model.enums;
+
+/**
+ * what to do when the producer cache is full
+ *
+ * @author frank
+ */
+public enum OverflowPolicy {
+    /**
+     * block the offer thread until there is free space
+     */
+    BLOCK,
+    /**
+     * return false immediately
+     */
+    FAIL_FAST,
+    /**
+     * drop the oldest message which has not been flushed
+     */
+    DROP_OLDEST,
+}
@@ -0,0 +1,17 @@
+package com.github.wz2cool.localqueue.model.enums;
+
+/**
+ * what kind of thread runs read / flush loops
+ *
+ * @author frank
+ */
+public enum ThreadType {
+    /**
+     * platform thread
+     */
+    PLATFORM,
+    /**
+     * virtual thread, only on java 21+, cheap enough to host thousands of consumers per jvm
+     */
+    VIRTUAL,
+}
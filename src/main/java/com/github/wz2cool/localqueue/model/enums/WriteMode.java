@@ -0,0 +1,17 @@
+package com.github.wz2cool.localqueue.model.enums;
+
+/**
+ * how producer write messages
+ *
+ * @author frank
+ */
+public enum WriteMode {
+    /**
+     * offer put message into cache, flush thread write messages in batch
+     */
+    QUEUED,
+    /**
+     * offer thread append message directly, better latency for single writer
+     */
+    DIRECT,
+}
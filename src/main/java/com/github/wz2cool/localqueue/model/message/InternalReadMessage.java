@@ -6,38 +6,221 @@ import net.openhft.chronicle.core.io.IORuntimeException;
 import net.openhft.chronicle.core.io.InvalidMarshallableException;
 
 import java.nio.BufferUnderflowException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 public class InternalReadMessage extends BaseInternalMessage implements ReadBytesMarshallable {
 
-    private final boolean ignoreReadContent;
+    private static final byte TAG_UNKNOWN = 0;
+    private static final byte TAG_MATCHED = 1;
+    private static final byte TAG_NOT_MATCHED = 2;
+
+    private final int projection;
     private final Set<String> tags;
+    // tag should be compared with tags
+    private final boolean filterTag;
+    // resolve tag id of compact header
+    private final IntFunction<String> tagResolver;
+    // match result of tag id, so that tag of compact header is filtered by id.
+    private byte[] tagIdMatches = new byte[64];
+    // raw content, decode to string only when needed.
+    private byte[] contentBytes;
+    // compare raw key bytes when key is not projected
+    private String matchKey;
+    private byte[] matchKeyBytes;
+    private boolean keyMatched;
 
     public InternalReadMessage() {
-        this.ignoreReadContent = false;
-        this.tags = null;
+        this(null, false, null);
     }
 
     public InternalReadMessage(boolean ignoreReadContent) {
-        this.ignoreReadContent = ignoreReadContent;
-        this.tags = null;
+        this(null, ignoreReadContent, null);
     }
 
     public InternalReadMessage(Set<String> tags) {
+        this(tags, false, null);
+    }
+
+    /**
+     * constructor
+     *
+     * @param tags              match tags, null means all
+     * @param ignoreReadContent ignore read content
+     * @param tagResolver       resolve tag by tag id of compact header
+     */
+    public InternalReadMessage(Set<String> tags, boolean ignoreReadContent, IntFunction<String> tagResolver) {
+        this(tags, ignoreReadContent ? ReadProjection.HEADER : ReadProjection.ALL, tagResolver);
+    }
+
+    /**
+     * constructor
+     *
+     * @param tags        match tags, null means all
+     * @param projection  fields to read, see {@link ReadProjection}
+     * @param tagResolver resolve tag by tag id of compact header
+     */
+    public InternalReadMessage(Set<String> tags, int projection, IntFunction<String> tagResolver) {
         this.tags = tags;
-        this.ignoreReadContent = false;
+        this.filterTag = tags != null && !tags.contains("*");
+        this.projection = projection;
+        this.tagResolver = tagResolver;
+    }
+
+    public byte[] getContentBytes() {
+        return contentBytes;
+    }
+
+    @Override
+    public String getContent() {
+        if (Objects.isNull(content) && Objects.nonNull(contentBytes)) {
+            content = new String(contentBytes, StandardCharsets.UTF_8);
+        }
+        return content;
+    }
+
+    /**
+     * set the key to match, the result is {@link #isKeyMatched()} after read.
+     *
+     * @param matchKey key to match
+     */
+    public void setMatchKey(String matchKey) {
+        this.matchKey = matchKey;
+        this.matchKeyBytes = Objects.isNull(matchKey) ? null : matchKey.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * whether key of last read message equals match key.
+     *
+     * @return true if matched
+     */
+    public boolean isKeyMatched() {
+        return keyMatched;
     }
 
     @Override
     public void readMarshallable(BytesIn<?> bytes) throws IORuntimeException, BufferUnderflowException, IllegalStateException, InvalidMarshallableException {
-        this.tag = bytes.readUtf8();
-        String messageTag = tag == null ? "*" : tag;
-        if (tags == null || tags.contains("*") || tags.contains(messageTag)) {
+        this.content = null;
+        this.contentBytes = null;
+        this.tag = null;
+        this.messageKey = null;
+        this.keyMatched = false;
+        boolean projectTag = ReadProjection.contains(projection, ReadProjection.TAG);
+        boolean matched;
+        if (MessageHeader.isCompact(bytes)) {
+            bytes.readSkip(MessageHeader.COMPACT_MARKER_SIZE);
+            int tagId = bytes.readShort();
+            readWriteTime(bytes);
+            if (tagId == MessageHeader.INLINE_TAG_ID) {
+                readTag(bytes, projectTag);
+                matched = isMatchTag(tag);
+            } else {
+                matched = !filterTag || isMatchTagId(tagId);
+                if (projectTag) {
+                    this.tag = resolveTag(tagId);
+                }
+            }
+        } else {
+            readTag(bytes, projectTag);
+            matched = isMatchTag(tag);
+            if (matched) {
+                readWriteTime(bytes);
+            }
+        }
+        if (matched) {
+            readKey(bytes);
+            if (ReadProjection.contains(projection, ReadProjection.CONTENT)) {
+                this.contentBytes = readContentBytes(bytes);
+            }
+        }
+    }
+
+    private void readTag(BytesIn<?> bytes, boolean projectTag) {
+        if (projectTag || filterTag) {
+            this.tag = bytes.readUtf8();
+        } else {
+            skipUtf8(bytes);
+        }
+    }
+
+    private void readWriteTime(BytesIn<?> bytes) {
+        if (ReadProjection.contains(projection, ReadProjection.WRITE_TIME)) {
             this.writeTime = bytes.readLong();
+        } else {
+            bytes.readSkip(8);
+        }
+    }
+
+    private void readKey(BytesIn<?> bytes) {
+        if (ReadProjection.contains(projection, ReadProjection.KEY)) {
             this.messageKey = bytes.readUtf8();
-            if (!ignoreReadContent) {
-                this.content = bytes.readUtf8();
+            this.keyMatched = Objects.nonNull(matchKey) && matchKey.equals(messageKey);
+            return;
+        }
+        long length = bytes.readStopBit();
+        if (length < 0) {
+            // null key
+            return;
+        }
+        if (Objects.nonNull(matchKeyBytes) && matchKeyBytes.length == length) {
+            this.keyMatched = equalsAt(bytes, bytes.readPosition(), matchKeyBytes);
+        }
+        bytes.readSkip(length);
+    }
+
+    private static boolean equalsAt(BytesIn<?> bytes, long offset, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (bytes.readByte(offset + i) != expected[i]) {
+                return false;
             }
         }
+        return true;
+    }
+
+    private static void skipUtf8(BytesIn<?> bytes) {
+        long length = bytes.readStopBit();
+        if (length > 0) {
+            bytes.readSkip(length);
+        }
+    }
+
+    private String resolveTag(int tagId) {
+        if (tagId == MessageHeader.NULL_TAG_ID) {
+            return null;
+        }
+        if (Objects.isNull(tagResolver)) {
+            throw new IllegalStateException("no tag resolver for tag id: " + tagId);
+        }
+        return tagResolver.apply(tagId);
+    }
+
+    private boolean isMatchTag(String messageTag) {
+        String matchTag = messageTag == null ? "*" : messageTag;
+        return tags == null || tags.contains("*") || tags.contains(matchTag);
+    }
+
+    private boolean isMatchTagId(int tagId) {
+        if (tagId >= tagIdMatches.length) {
+            tagIdMatches = Arrays.copyOf(tagIdMatches, Math.max(tagId + 1, tagIdMatches.length * 2));
+        }
+        byte result = tagIdMatches[tagId];
+        if (result == TAG_UNKNOWN) {
+            result = isMatchTag(resolveTag(tagId)) ? TAG_MATCHED : TAG_NOT_MATCHED;
+            tagIdMatches[tagId] = result;
+        }
+        return result == TAG_MATCHED;
+    }
+
+    private byte[] readContentBytes(BytesIn<?> bytes) {
+        long length = bytes.readStopBit();
+        if (length < 0) {
+            return null;
+        }
+        byte[] result = new byte[(int) length];
+        bytes.read(result);
+        return result;
     }
 }
@@ -5,13 +5,138 @@ import net.openhft.chronicle.bytes.WriteBytesMarshallable;
 import net.openhft.chronicle.core.io.InvalidMarshallableException;
 
 import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class InternalWriteMessage extends BaseInternalMessage implements WriteBytesMarshallable {
+
+    // binary content, one of content / contentBytes / contentBuffer is used.
+    private byte[] contentBytes;
+    private ByteBuffer contentBuffer;
+    // not serialized, complete with position after written.
+    private CompletableFuture<Long> future;
+    // not serialized, position after written.
+    private long position = -1;
+    // write compact header if resolved.
+    private int tagId = MessageHeader.NO_TAG_ID;
+
+    public byte[] getContentBytes() {
+        return contentBytes;
+    }
+
+    public void setContentBytes(byte[] contentBytes) {
+        this.contentBytes = contentBytes;
+    }
+
+    public ByteBuffer getContentBuffer() {
+        return contentBuffer;
+    }
+
+    public void setContentBuffer(ByteBuffer contentBuffer) {
+        this.contentBuffer = contentBuffer;
+    }
+
+    public CompletableFuture<Long> getFuture() {
+        return future;
+    }
+
+    public void setFuture(CompletableFuture<Long> future) {
+        this.future = future;
+    }
+
+    public int getTagId() {
+        return tagId;
+    }
+
+    public void setTagId(int tagId) {
+        this.tagId = tagId;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public void setPosition(long position) {
+        this.position = position;
+    }
+
     @Override
     public void writeMarshallable(BytesOut<?> bytes) throws IllegalStateException, BufferOverflowException, InvalidMarshallableException {
-        bytes.writeUtf8(this.tag);
-        bytes.writeLong(this.writeTime);
+        if (this.tagId == MessageHeader.NO_TAG_ID) {
+            bytes.writeUtf8(this.tag);
+            bytes.writeLong(this.writeTime);
+        } else {
+            bytes.writeStopBit(MessageHeader.COMPACT_MARKER);
+            bytes.writeShort((short) this.tagId);
+            bytes.writeLong(this.writeTime);
+            if (this.tagId == MessageHeader.INLINE_TAG_ID) {
+                bytes.writeUtf8(this.tag);
+            }
+        }
         bytes.writeUtf8(this.messageKey);
-        bytes.writeUtf8(this.content);
+        writeContent(bytes);
+    }
+
+    /**
+     * content is a length-prefixed raw byte section, string content is written as its utf8 bytes,
+     * which is the same layout as writeUtf8, so old data can still be read.
+     */
+    private void writeContent(BytesOut<?> bytes) {
+        if (Objects.nonNull(this.contentBytes)) {
+            bytes.writeStopBit(this.contentBytes.length);
+            bytes.write(this.contentBytes);
+        } else if (Objects.nonNull(this.contentBuffer)) {
+            ByteBuffer buffer = this.contentBuffer;
+            bytes.writeStopBit(buffer.remaining());
+            if (buffer.hasArray()) {
+                bytes.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            } else {
+                // do not change the position of caller's buffer.
+                ByteBuffer duplicate = buffer.duplicate();
+                // writeSome may write part of buffer, body must be as long as its length prefix
+                while (duplicate.hasRemaining()) {
+                    int remaining = duplicate.remaining();
+                    bytes.writeSome(duplicate);
+                    if (duplicate.remaining() == remaining) {
+                        throw new IllegalStateException("content buffer cannot be written, remaining: " + remaining);
+                    }
+                }
+            }
+        } else {
+            bytes.writeUtf8(this.content);
+        }
+    }
+
+    /**
+     * copy all fields from other message, used to reuse message instance.
+     *
+     * @param other other message
+     */
+    public void copyFrom(InternalWriteMessage other) {
+        this.tag = other.tag;
+        this.writeTime = other.writeTime;
+        this.messageKey = other.messageKey;
+        this.content = other.content;
+        this.contentBytes = other.contentBytes;
+        this.contentBuffer = other.contentBuffer;
+        this.future = other.future;
+        this.position = other.position;
+        this.tagId = other.tagId;
+    }
+
+    /**
+     * clear all fields, so that reused instance will not hold references.
+     */
+    public void clear() {
+        this.tag = null;
+        this.writeTime = 0;
+        this.messageKey = null;
+        this.content = null;
+        this.contentBytes = null;
+        this.contentBuffer = null;
+        this.future = null;
+        this.position = -1;
+        this.tagId = MessageHeader.NO_TAG_ID;
     }
 }
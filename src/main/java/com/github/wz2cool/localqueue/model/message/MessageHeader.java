@@ -0,0 +1,72 @@
+package com.github.wz2cool.localqueue.model.message;
+
+import net.openhft.chronicle.bytes.BytesIn;
+
+/**
+ * message header layout.
+ * <pre>
+ * legacy:  utf8 tag | long writeTime | utf8 key | content
+ * compact: marker(0x81 0x00) | short tagId | long writeTime | [utf8 tag if tagId == -1] | utf8 key | content
+ * </pre>
+ * legacy message starts with the stop bit length of tag (null is 0x80 0x00),
+ * 0x81 0x00 is stop bit of -2 which never written as a length, so it can tell the two layouts apart.
+ *
+ * @author frank
+ */
+public final class MessageHeader {
+
+    public static final int COMPACT_MARKER = -2;
+    public static final int COMPACT_MARKER_SIZE = 2;
+    public static final int TAG_ID_OFFSET = COMPACT_MARKER_SIZE;
+    public static final int WRITE_TIME_OFFSET = TAG_ID_OFFSET + 2;
+
+    /**
+     * tag id of null tag.
+     */
+    public static final int NULL_TAG_ID = 0;
+    /**
+     * tag is not in dictionary, written inline after write time.
+     */
+    public static final int INLINE_TAG_ID = -1;
+    /**
+     * not resolved, write legacy header.
+     */
+    public static final int NO_TAG_ID = Integer.MIN_VALUE;
+
+    private static final int MARKER_BYTE_0 = 0x81;
+    private static final int MARKER_BYTE_1 = 0x00;
+
+    private MessageHeader() {
+    }
+
+    /**
+     * check whether message is compact without moving read position.
+     *
+     * @param bytes bytes, read position at the beginning of message
+     * @return true if compact header
+     */
+    public static boolean isCompact(final BytesIn<?> bytes) {
+        long start = bytes.readPosition();
+        return bytes.readRemaining() >= WRITE_TIME_OFFSET
+                && bytes.readUnsignedByte(start) == MARKER_BYTE_0
+                && bytes.readUnsignedByte(start + 1) == MARKER_BYTE_1;
+    }
+
+    /**
+     * read write time from header only, tag / key / content are skipped.
+     *
+     * @param bytes bytes, read position at the beginning of message
+     * @return write time
+     */
+    public static long readWriteTime(final BytesIn<?> bytes) {
+        if (isCompact(bytes)) {
+            return bytes.readLong(bytes.readPosition() + WRITE_TIME_OFFSET);
+        }
+        // stop bit length of tag, null tag is -1
+        long tagLength = bytes.readStopBit();
+        if (tagLength > 0) {
+            bytes.readSkip(tagLength);
+        }
+        return bytes.readLong();
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.wz2cool.localqueue.model.message;
+
+import net.openhft.chronicle.bytes.BytesIn;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.IntFunction;
+
+/**
+ * flyweight view over the mapped excerpt, the instance is reused by consumer,
+ * so it is only valid during the callback, copy what you need if you want to keep it.
+ *
+ * @author frank
+ */
+public class MessageView {
+
+    private final StringBuilder tagBuilder = new StringBuilder();
+    private final StringBuilder messageKey = new StringBuilder();
+    // tagBuilder or resolved tag of compact header
+    private CharSequence tag;
+    private int tagId = MessageHeader.NO_TAG_ID;
+    private boolean hasMessageKey;
+    private long writeTime;
+    private long position = -1;
+    private BytesIn<?> bytes;
+    private long contentOffset;
+    private int contentLength = -1;
+
+    /**
+     * wrap the excerpt, tag / key / write time are decoded, content is only located.
+     * should only call by consumer.
+     *
+     * @param bytes       bytes of excerpt, read position at the beginning of message
+     * @param position    position of message
+     * @param tagResolver resolve tag by tag id of compact header
+     */
+    public void wrap(final BytesIn<?> bytes, final long position, final IntFunction<String> tagResolver) {
+        this.position = position;
+        if (MessageHeader.isCompact(bytes)) {
+            bytes.readSkip(MessageHeader.COMPACT_MARKER_SIZE);
+            this.tagId = bytes.readShort();
+            this.writeTime = bytes.readLong();
+            if (tagId == MessageHeader.INLINE_TAG_ID) {
+                this.tag = bytes.readUtf8(this.tagBuilder) ? this.tagBuilder : null;
+            } else if (tagId == MessageHeader.NULL_TAG_ID) {
+                this.tag = null;
+            } else {
+                this.tag = tagResolver.apply(tagId);
+            }
+        } else {
+            this.tagId = MessageHeader.NO_TAG_ID;
+            this.tag = bytes.readUtf8(this.tagBuilder) ? this.tagBuilder : null;
+            this.writeTime = bytes.readLong();
+        }
+        this.hasMessageKey = bytes.readUtf8(this.messageKey);
+        long length = bytes.readStopBit();
+        this.bytes = bytes;
+        this.contentOffset = bytes.readPosition();
+        this.contentLength = (int) length;
+        if (length > 0) {
+            bytes.readSkip(length);
+        }
+    }
+
+    /**
+     * release the excerpt, should only call by consumer after callback.
+     */
+    public void clear() {
+        this.bytes = null;
+        this.tag = null;
+        this.contentLength = -1;
+        this.position = -1;
+    }
+
+    /**
+     * get tag.
+     *
+     * @return tag, null if message has no tag
+     */
+    public CharSequence getTag() {
+        return tag;
+    }
+
+    /**
+     * get tag id of compact header.
+     *
+     * @return tag id, {@link MessageHeader#NO_TAG_ID} if message is written with legacy header
+     */
+    public int getTagId() {
+        return tagId;
+    }
+
+    /**
+     * get message key.
+     *
+     * @return message key, null if message has no key
+     */
+    public CharSequence getMessageKey() {
+        return hasMessageKey ? messageKey : null;
+    }
+
+    public long getWriteTime() {
+        return writeTime;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * get content length.
+     *
+     * @return content length, -1 if content is null
+     */
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * get content byte without copy.
+     *
+     * @param index index of content
+     * @return the byte
+     */
+    public byte getContentByte(final int index) {
+        if (index < 0 || index >= contentLength) {
+            throw new IndexOutOfBoundsException("index: " + index + ", contentLength: " + contentLength);
+        }
+        return bytes.readByte(contentOffset + index);
+    }
+
+    /**
+     * copy content into target.
+     *
+     * @param target       target bytes
+     * @param targetOffset offset of target
+     * @return the count of copied bytes
+     */
+    public int copyContent(final byte[] target, final int targetOffset) {
+        if (contentLength <= 0) {
+            return 0;
+        }
+        int length = Math.min(contentLength, target.length - targetOffset);
+        return (int) bytes.read(contentOffset, target, targetOffset, length);
+    }
+
+    /**
+     * get a copy of content bytes.
+     *
+     * @return content bytes, null if content is null
+     */
+    public byte[] getContentBytes() {
+        if (contentLength < 0) {
+            return null;
+        }
+        byte[] result = new byte[contentLength];
+        copyContent(result, 0);
+        return result;
+    }
+
+    /**
+     * decode content as utf8 string.
+     *
+     * @return content, null if content is null
+     */
+    public String getContent() {
+        byte[] contentBytes = getContentBytes();
+        return contentBytes == null ? null : new String(contentBytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,9 @@
 package com.github.wz2cool.localqueue.model.message;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
 /**
  * queue message
  *
@@ -9,10 +13,12 @@ public class QueueMessage {
 
     private final int positionVersion;
     private final long position;
-    private final String content;
     private final long writeTime;
     private final String messageKey;
     private final String tag;
+    // raw content, content string is decoded lazily.
+    private volatile byte[] contentBytes;
+    private volatile String content;
 
     /**
      * constructor
@@ -25,20 +31,81 @@ public class QueueMessage {
      * @param writeTime       write time
      */
     public QueueMessage(String tag, String messageKey, int positionVersion, long position, String content, long writeTime) {
+        this(tag, messageKey, positionVersion, position, null, content, writeTime);
+    }
+
+    private QueueMessage(String tag, String messageKey, int positionVersion, long position, byte[] contentBytes,
+                         String content, long writeTime) {
         this.tag = tag;
         this.messageKey = messageKey;
         this.positionVersion = positionVersion;
         this.position = position;
+        this.contentBytes = contentBytes;
         this.content = content;
         this.writeTime = writeTime;
     }
 
+    /**
+     * create message of binary content, content string is decoded lazily.
+     *
+     * @param tag             tag
+     * @param messageKey      message key
+     * @param positionVersion position version
+     * @param position        position of queue
+     * @param contentBytes    content bytes, will not be copied
+     * @param writeTime       write time
+     * @return message
+     */
+    public static QueueMessage ofBytes(String tag, String messageKey, int positionVersion, long position,
+                                       byte[] contentBytes, long writeTime) {
+        return new QueueMessage(tag, messageKey, positionVersion, position, contentBytes, null, writeTime);
+    }
+
     public long getPosition() {
         return position;
     }
 
+    /**
+     * get content as utf8 string.
+     *
+     * @return content
+     */
     public String getContent() {
-        return content;
+        String result = content;
+        if (Objects.isNull(result) && Objects.nonNull(contentBytes)) {
+            result = new String(contentBytes, StandardCharsets.UTF_8);
+            content = result;
+        }
+        return result;
+    }
+
+    /**
+     * get content as read-only buffer, the bytes are not copied.
+     *
+     * @return content buffer, null if content is null
+     */
+    public ByteBuffer getContentBuffer() {
+        byte[] bytes = getRawContentBytes();
+        return Objects.isNull(bytes) ? null : ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    /**
+     * get a copy of content bytes.
+     *
+     * @return content bytes, null if content is null
+     */
+    public byte[] getContentBytes() {
+        byte[] bytes = getRawContentBytes();
+        return Objects.isNull(bytes) ? null : bytes.clone();
+    }
+
+    private byte[] getRawContentBytes() {
+        byte[] result = contentBytes;
+        if (Objects.isNull(result) && Objects.nonNull(content)) {
+            result = content.getBytes(StandardCharsets.UTF_8);
+            contentBytes = result;
+        }
+        return result;
     }
 
     public int getPositionVersion() {
@@ -0,0 +1,28 @@
+package com.github.wz2cool.localqueue.model.message;
+
+/**
+ * fields of message to materialize when read, not projected fields are skipped without decoding.
+ * combine with bitwise or, e.g. {@code ReadProjection.KEY | ReadProjection.WRITE_TIME}.
+ *
+ * @author frank
+ */
+public final class ReadProjection {
+
+    public static final int TAG = 1;
+    public static final int KEY = 1 << 1;
+    public static final int WRITE_TIME = 1 << 2;
+    public static final int CONTENT = 1 << 3;
+
+    /**
+     * tag / key / write time.
+     */
+    public static final int HEADER = TAG | KEY | WRITE_TIME;
+    public static final int ALL = HEADER | CONTENT;
+
+    private ReadProjection() {
+    }
+
+    public static boolean contains(final int projection, final int field) {
+        return (projection & field) != 0;
+    }
+}
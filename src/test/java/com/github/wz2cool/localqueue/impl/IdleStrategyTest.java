@@ -0,0 +1,105 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.model.enums.IdleStrategyType;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("all")
+public class IdleStrategyTest {
+
+    @Test
+    public void create_AllTypes_Created() {
+        for (IdleStrategyType type : IdleStrategyType.values()) {
+            assertNotNull(IdleStrategy.create(type, 10));
+        }
+    }
+
+    @Test
+    public void idle_BlockingWakeUpBeforeIdle_NotParked() throws InterruptedException {
+        IdleStrategy idleStrategy = IdleStrategy.create(IdleStrategyType.BLOCKING, 5000);
+        idleStrategy.wakeUp();
+        long start = System.nanoTime();
+        idleStrategy.idle();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void idle_BlockingWakeUpByOtherThread_Unparked() throws InterruptedException {
+        IdleStrategy idleStrategy = IdleStrategy.create(IdleStrategyType.BLOCKING, 5000);
+        Thread thread = new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            idleStrategy.wakeUp();
+        });
+        thread.start();
+        long start = System.nanoTime();
+        idleStrategy.idle();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        thread.join();
+    }
+
+    @Test
+    public void idle_BlockingNoWakeUp_ParkedUpToPullInterval() throws InterruptedException {
+        IdleStrategy idleStrategy = IdleStrategy.create(IdleStrategyType.BLOCKING, 50);
+        long start = System.nanoTime();
+        idleStrategy.idle();
+        // park may return spuriously
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void idle_Interrupted_ThrowsInterruptedException() {
+        for (IdleStrategyType type : IdleStrategyType.values()) {
+            IdleStrategy idleStrategy = IdleStrategy.create(type, 10);
+            Thread.currentThread().interrupt();
+            assertThrows(InterruptedException.class, idleStrategy::idle);
+            assertFalse(Thread.currentThread().isInterrupted());
+        }
+    }
+
+    @Test
+    public void idle_BackoffReset_SpinAgain() throws InterruptedException {
+        IdleStrategy idleStrategy = IdleStrategy.create(IdleStrategyType.BACKOFF, 10);
+        for (int i = 0; i < 300; i++) {
+            idleStrategy.idle();
+        }
+        idleStrategy.reset();
+        long start = System.nanoTime();
+        idleStrategy.idle();
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    public void idleDelay_EachType_DelayOfReadEngine() {
+        assertEquals(10, IdleStrategy.create(IdleStrategyType.SLEEP, 10).idleDelay());
+        assertEquals(10, IdleStrategy.create(IdleStrategyType.BLOCKING, 10).idleDelay());
+        assertEquals(0, IdleStrategy.create(IdleStrategyType.BUSY_SPIN, 10).idleDelay());
+        assertEquals(0, IdleStrategy.create(IdleStrategyType.YIELD, 10).idleDelay());
+    }
+
+    @Test
+    public void idleDelay_Backoff_GrowsUpToPullIntervalAndReset() {
+        IdleStrategy idleStrategy = IdleStrategy.create(IdleStrategyType.BACKOFF, 10);
+        assertEquals(0, idleStrategy.idleDelay());
+        long delay = 0;
+        for (int i = 0; i < 300; i++) {
+            delay = idleStrategy.idleDelay();
+        }
+        assertEquals(10, delay);
+        idleStrategy.reset();
+        assertEquals(0, idleStrategy.idleDelay());
+    }
+
+    @Test
+    public void isWakeUpSupported_OnlyBlocking() {
+        for (IdleStrategyType type : IdleStrategyType.values()) {
+            assertEquals(type == IdleStrategyType.BLOCKING, IdleStrategy.create(type, 10).isWakeUpSupported());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.model.enums.OverflowPolicy;
+import com.github.wz2cool.localqueue.model.message.InternalWriteMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("all")
+public class MessageRingBufferTest {
+
+    @Test
+    public void constructor_CapacityNotPowerOfTwo_RoundUp() {
+        assertEquals(2, new MessageRingBuffer(1, OverflowPolicy.BLOCK).getCapacity());
+        assertEquals(4, new MessageRingBuffer(3, OverflowPolicy.BLOCK).getCapacity());
+        assertEquals(8, new MessageRingBuffer(8, OverflowPolicy.BLOCK).getCapacity());
+        assertThrows(IllegalArgumentException.class, () -> new MessageRingBuffer(0, OverflowPolicy.BLOCK));
+    }
+
+    @Test
+    public void drainTo_MessagesOffered_KeepOrder() throws InterruptedException {
+        MessageRingBuffer ringBuffer = new MessageRingBuffer(8, OverflowPolicy.FAIL_FAST);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(ringBuffer.offer("tag" + i, "key" + i, "content" + i));
+        }
+        assertEquals(5, ringBuffer.size());
+        InternalWriteMessage[] targets = newTargets(10);
+        int count = ringBuffer.drainTo(targets, 10, 0, TimeUnit.MILLISECONDS);
+        assertEquals(5, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals("tag" + i, targets[i].getTag());
+            assertEquals("key" + i, targets[i].getMessageKey());
+            assertEquals("content" + i, targets[i].getContent());
+        }
+        assertTrue(ringBuffer.isEmpty());
+    }
+
+    @Test
+    public void offer_FailFastAndFull_ReturnsFalse() {
+        MessageRingBuffer ringBuffer = new MessageRingBuffer(2, OverflowPolicy.FAIL_FAST);
+        assertTrue(ringBuffer.offer(null, null, "1"));
+        assertTrue(ringBuffer.offer(null, null, "2"));
+        assertFalse(ringBuffer.offer(null, null, "3"));
+        assertEquals(2, ringBuffer.size());
+    }
+
+    @Test
+    public void offer_DropOldestAndFull_KeepNewest() throws InterruptedException {
+        MessageRingBuffer ringBuffer = new MessageRingBuffer(2, OverflowPolicy.DROP_OLDEST);
+        assertTrue(ringBuffer.offer(null, null, "1"));
+        assertTrue(ringBuffer.offer(null, null, "2"));
+        assertTrue(ringBuffer.offer(null, null, "3"));
+        InternalWriteMessage[] targets = newTargets(2);
+        assertEquals(2, ringBuffer.drainTo(targets, 2, 0, TimeUnit.MILLISECONDS));
+        assertEquals("2", targets[0].getContent());
+        assertEquals("3", targets[1].getContent());
+    }
+
+    @Test
+    public void offer_BlockAndFull_WaitUntilDrained() throws InterruptedException {
+        MessageRingBuffer ringBuffer = new MessageRingBuffer(2, OverflowPolicy.BLOCK);
+        assertTrue(ringBuffer.offer(null, null, "1"));
+        assertTrue(ringBuffer.offer(null, null, "2"));
+        AtomicBoolean offerResult = new AtomicBoolean(false);
+        Thread offerThread = new Thread(() -> offerResult.set(ringBuffer.offer(null, null, "3")));
+        offerThread.start();
+        Thread.sleep(100);
+        assertTrue(offerThread.isAlive());
+        InternalWriteMessage[] targets = newTargets(1);
+        assertEquals(1, ringBuffer.drainTo(targets, 1, 0, TimeUnit.MILLISECONDS));
+        offerThread.join(1000);
+        assertTrue(offerResult.get());
+        assertEquals(1, ringBuffer.drainTo(targets, 1, 0, TimeUnit.MILLISECONDS));
+        assertEquals("2", targets[0].getContent());
+        assertEquals(1, ringBuffer.drainTo(targets, 1, 0, TimeUnit.MILLISECONDS));
+        assertEquals("3", targets[0].getContent());
+    }
+
+    @Test
+    public void offer_BlockAndClosed_ReturnsFalse() throws InterruptedException {
+        MessageRingBuffer ringBuffer = new MessageRingBuffer(2, OverflowPolicy.BLOCK);
+        assertTrue(ringBuffer.offer(null, null, "1"));
+        assertTrue(ringBuffer.offer(null, null, "2"));
+        AtomicBoolean offerResult = new AtomicBoolean(true);
+        Thread offerThread = new Thread(() -> offerResult.set(ringBuffer.offer(null, null, "3")));
+        offerThread.start();
+        Thread.sleep(50);
+        ringBuffer.close();
+        offerThread.join(1000);
+        assertFalse(offerResult.get());
+    }
+
+    @Test
+    public void drainTo_EmptyWithTimeout_WakeUpByOffer() throws InterruptedException {
+        MessageRingBuffer ringBuffer = new MessageRingBuffer(8, OverflowPolicy.BLOCK);
+        Thread offerThread = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ringBuffer.offer(null, null, "1");
+        });
+        offerThread.start();
+        InternalWriteMessage[] targets = newTargets(1);
+        int count = 0;
+        long start = System.currentTimeMillis();
+        while (count == 0 && System.currentTimeMillis() - start < 5000) {
+            count = ringBuffer.drainTo(targets, 1, 5, TimeUnit.SECONDS);
+        }
+        offerThread.join();
+        assertEquals(1, count);
+        assertEquals("1", targets[0].getContent());
+    }
+
+    @Test
+    public void offer_MultiProducers_NoMessageLost() throws InterruptedException {
+        int producerCount = 4;
+        int messageCount = 20000;
+        MessageRingBuffer ringBuffer = new MessageRingBuffer(64, OverflowPolicy.BLOCK);
+        CountDownLatch latch = new CountDownLatch(producerCount);
+        for (int p = 0; p < producerCount; p++) {
+            int producerId = p;
+            new Thread(() -> {
+                for (int i = 0; i < messageCount; i++) {
+                    ringBuffer.offer(null, null, producerId + "-" + i);
+                }
+                latch.countDown();
+            }).start();
+        }
+        Set<String> received = new HashSet<>();
+        InternalWriteMessage[] targets = newTargets(16);
+        while (received.size() < producerCount * messageCount) {
+            int count = ringBuffer.drainTo(targets, 16, 10, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < count; i++) {
+                assertTrue(received.add(targets[i].getContent()));
+            }
+        }
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(ringBuffer.isEmpty());
+    }
+
+    private InternalWriteMessage[] newTargets(int size) {
+        InternalWriteMessage[] targets = new InternalWriteMessage[size];
+        for (int i = 0; i < size; i++) {
+            targets[i] = new InternalWriteMessage();
+        }
+        return targets;
+    }
+}
@@ -0,0 +1,234 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.model.config.ParallelConsumerConfig;
+import com.github.wz2cool.localqueue.model.config.SimpleConsumerConfig;
+import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
+import com.github.wz2cool.localqueue.model.enums.AckMode;
+import com.github.wz2cool.localqueue.model.enums.ConsumeFromWhere;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("all")
+public class ParallelConsumerTest {
+
+    private File dir;
+    private SimpleProducerConfig producerConfig;
+    private ParallelConsumerConfig config;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = new File("./test");
+        FileUtils.deleteDirectory(dir);
+        producerConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setKeepDays(1)
+                .build();
+        SimpleConsumerConfig consumerConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .setConsumerId("test")
+                .setPullInterval(1)
+                .setFlushPositionInterval(10)
+                .setAckMode(AckMode.SELECTIVE)
+                .build();
+        config = new ParallelConsumerConfig.Builder()
+                .setConsumerConfig(consumerConfig)
+                .setParallelism(4)
+                .setLaneCapacity(10)
+                .build();
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private void waitFor(AtomicInteger counter, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (counter.get() < expected && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    @Test
+    public void onMessage_SameKey_HandledInOrder() throws InterruptedException {
+        Map<String, List<Integer>> handled = new ConcurrentHashMap<>();
+        AtomicInteger count = new AtomicInteger();
+        AtomicLong lastPosition = new AtomicLong(-1);
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig)) {
+            for (int i = 0; i < 1000; i++) {
+                simpleProducer.offer("key" + (i % 10), String.valueOf(i));
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        try (ParallelConsumer parallelConsumer = new ParallelConsumer(config, message -> {
+            handled.computeIfAbsent(message.getMessageKey(), k -> new ArrayList<>())
+                    .add(Integer.parseInt(message.getContent()));
+            lastPosition.accumulateAndGet(message.getPosition(), Math::max);
+            count.incrementAndGet();
+        })) {
+            waitFor(count, 1000);
+            assertEquals(1000, count.get());
+            for (int k = 0; k < 10; k++) {
+                List<Integer> values = handled.get("key" + k);
+                assertEquals(100, values.size());
+                for (int j = 0; j < values.size(); j++) {
+                    assertEquals(k + j * 10, values.get(j));
+                }
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(lastPosition.get(), parallelConsumer.getAckedReadPosition());
+        }
+    }
+
+    @Test
+    public void onMessage_OtherKeyBlocked_HandledConcurrently() throws InterruptedException {
+        CountDownLatch otherKeyHandled = new CountDownLatch(1);
+        AtomicInteger count = new AtomicInteger();
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig);
+             ParallelConsumer parallelConsumer = new ParallelConsumer(config, message -> {
+                 if ("a".equals(message.getMessageKey())) {
+                     // blocked until message of other key handled
+                     assertTrue(otherKeyHandled.await(5, TimeUnit.SECONDS));
+                 } else {
+                     otherKeyHandled.countDown();
+                 }
+                 count.incrementAndGet();
+             })) {
+            // "a" and "b" are in different lanes
+            assertNotEquals("a".hashCode() % 4, "b".hashCode() % 4);
+            simpleProducer.offer("a", "1");
+            simpleProducer.offer("b", "2");
+            waitFor(count, 2);
+            assertEquals(2, count.get());
+        }
+    }
+
+    @Test
+    public void onMessage_Error_RetryAndKeepOrder() throws InterruptedException {
+        List<String> handled = new ArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger count = new AtomicInteger();
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig);
+             ParallelConsumer parallelConsumer = new ParallelConsumer(config, message -> {
+                 if ("1".equals(message.getContent()) && failures.incrementAndGet() <= 3) {
+                     throw new IllegalStateException("test");
+                 }
+                 handled.add(message.getContent());
+                 count.incrementAndGet();
+             })) {
+            for (int i = 0; i < 3; i++) {
+                simpleProducer.offer("key", String.valueOf(i));
+            }
+            waitFor(count, 3);
+            assertEquals(4, failures.get());
+            assertEquals(3, handled.size());
+            assertEquals("0", handled.get(0));
+            assertEquals("1", handled.get(1));
+            assertEquals("2", handled.get(2));
+        }
+    }
+
+    @Test
+    public void onMessage_AlwaysFails_DeadLetterAndSkipped() throws InterruptedException {
+        ParallelConsumerConfig retryConfig = new ParallelConsumerConfig.Builder()
+                .setConsumerConfig(config.getConsumerConfig())
+                .setParallelism(4)
+                .setLaneCapacity(10)
+                .setMaxRetries(2)
+                .build();
+        List<String> handled = new ArrayList<>();
+        List<String> deadLetters = new ArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger count = new AtomicInteger();
+        AtomicLong lastPosition = new AtomicLong(-1);
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig);
+             ParallelConsumer parallelConsumer = new ParallelConsumer(retryConfig, message -> {
+                 lastPosition.accumulateAndGet(message.getPosition(), Math::max);
+                 if ("bad".equals(message.getContent())) {
+                     failures.incrementAndGet();
+                     throw new IllegalStateException("test");
+                 }
+                 handled.add(message.getContent());
+                 count.incrementAndGet();
+             }, message -> deadLetters.add(message.getContent()))) {
+            simpleProducer.offer("key", "0");
+            simpleProducer.offer("key", "bad");
+            simpleProducer.offer("key", "2");
+            waitFor(count, 2);
+            // first try and 2 retries
+            assertEquals(3, failures.get());
+            assertEquals(Collections.singletonList("bad"), deadLetters);
+            // later message of the same key is not blocked
+            assertEquals(Arrays.asList("0", "2"), handled);
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(lastPosition.get(), parallelConsumer.getAckedReadPosition());
+        }
+    }
+
+    @Test
+    public void close_MessageNotHandled_ConsumedAgainAfterRestart() throws InterruptedException {
+        // retry forever, message is never skipped
+        config = new ParallelConsumerConfig.Builder()
+                .setConsumerConfig(config.getConsumerConfig())
+                .setParallelism(4)
+                .setLaneCapacity(10)
+                .setMaxRetries(-1)
+                .build();
+        Set<String> handled = ConcurrentHashMap.newKeySet();
+        AtomicInteger count = new AtomicInteger();
+        AtomicLong failedPosition = new AtomicLong(Long.MAX_VALUE);
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig)) {
+            for (int i = 0; i < 100; i++) {
+                simpleProducer.offer("key" + (i % 10), String.valueOf(i));
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+        }
+        try (ParallelConsumer parallelConsumer = new ParallelConsumer(config, message -> {
+            if ("key3".equals(message.getMessageKey())) {
+                // never handled before close
+                failedPosition.accumulateAndGet(message.getPosition(), Math::min);
+                throw new IllegalStateException("test");
+            }
+            handled.add(message.getContent());
+            count.incrementAndGet();
+        })) {
+            // messages after key3 in the same lane are blocked too
+            TimeUnit.MILLISECONDS.sleep(500);
+            assertTrue(count.get() > 0);
+            assertTrue(count.get() < 100);
+            assertTrue(parallelConsumer.getAckedReadPosition() < failedPosition.get());
+        }
+        try (ParallelConsumer parallelConsumer = new ParallelConsumer(config, message -> {
+            handled.add(message.getContent());
+            count.incrementAndGet();
+        })) {
+            // messages acked above the watermark are consumed again
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (handled.size() < 100 && System.currentTimeMillis() < deadline) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            for (int i = 0; i < 100; i++) {
+                assertTrue(handled.contains(String.valueOf(i)));
+            }
+        }
+    }
+}
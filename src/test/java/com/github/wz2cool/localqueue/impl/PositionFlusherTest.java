@@ -0,0 +1,71 @@
+package com.github.wz2cool.localqueue.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("all")
+public class PositionFlusherTest {
+
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = new File("./test");
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void add_ManyConsumers_AllFlushedToOneStore() throws InterruptedException {
+        try (PositionFlusher positionFlusher = new PositionFlusher(new File(dir, "position.dat"), 10)) {
+            AtomicLong position1 = new AtomicLong(-1);
+            AtomicLong position2 = new AtomicLong(-1);
+            positionFlusher.add("consumer1", position1::get);
+            positionFlusher.add("consumer2", position2::get);
+            position1.set(1);
+            position2.set(2);
+            TimeUnit.MILLISECONDS.sleep(100);
+            PositionStore positionStore = positionFlusher.getPositionStore();
+            assertEquals(Optional.of(1L), positionStore.get("consumer1"));
+            assertEquals(Optional.of(2L), positionStore.get("consumer2"));
+        }
+    }
+
+    @Test
+    public void remove_LastPositionFlushed() {
+        try (PositionFlusher positionFlusher = new PositionFlusher(new File(dir, "position.dat"), TimeUnit.HOURS.toMillis(1))) {
+            AtomicLong position = new AtomicLong(-1);
+            positionFlusher.add("consumer1", position::get);
+            position.set(3);
+            positionFlusher.remove("consumer1");
+            position.set(4);
+            assertEquals(Optional.of(3L), positionFlusher.getPositionStore().get("consumer1"));
+        }
+    }
+
+    @Test
+    public void close_PositionFlushedAndStoreClosed() {
+        PositionFlusher positionFlusher = new PositionFlusher(new File(dir, "position.dat"), TimeUnit.HOURS.toMillis(1));
+        AtomicLong position = new AtomicLong(5);
+        positionFlusher.add("consumer1", position::get);
+        positionFlusher.close();
+        assertTrue(positionFlusher.getPositionStore().isClosed());
+        try (PositionStore positionStore = new PositionStore(new File(dir, "position.dat"))) {
+            assertEquals(Optional.of(5L), positionStore.get("consumer1"));
+        }
+    }
+}
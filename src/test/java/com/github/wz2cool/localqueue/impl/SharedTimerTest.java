@@ -0,0 +1,88 @@
+package com.github.wz2cool.localqueue.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("all")
+public class SharedTimerTest {
+
+    @Test
+    public void register_SameInterval_AllRunPeriodically() throws InterruptedException {
+        CountDownLatch latch1 = new CountDownLatch(3);
+        CountDownLatch latch2 = new CountDownLatch(3);
+        SharedTimer.Registration registration1 = SharedTimer.getInstance().register(10, latch1::countDown);
+        SharedTimer.Registration registration2 = SharedTimer.getInstance().register(10, latch2::countDown);
+        try {
+            assertTrue(latch1.await(1, TimeUnit.SECONDS));
+            assertTrue(latch2.await(1, TimeUnit.SECONDS));
+        } finally {
+            registration1.cancel();
+            registration2.cancel();
+        }
+    }
+
+    @Test
+    public void cancel_NotRunAfterCancel() throws InterruptedException {
+        AtomicInteger count = new AtomicInteger();
+        SharedTimer.Registration registration = SharedTimer.getInstance().register(10, count::incrementAndGet);
+        TimeUnit.MILLISECONDS.sleep(50);
+        registration.cancel();
+        int countAfterCancel = count.get();
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertEquals(countAfterCancel, count.get());
+    }
+
+    @Test
+    public void register_TaskThrows_OtherTasksStillRun() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(3);
+        SharedTimer.Registration failing = SharedTimer.getInstance().register(10, () -> {
+            throw new IllegalStateException("test");
+        });
+        SharedTimer.Registration registration = SharedTimer.getInstance().register(10, latch::countDown);
+        try {
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+        } finally {
+            failing.cancel();
+            registration.cancel();
+        }
+    }
+
+    @Test
+    public void registerBlocking_TaskBlocks_OtherTasksStillRun() throws InterruptedException {
+        CountDownLatch blockingStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger blockingCount = new AtomicInteger();
+        SharedTimer.Registration blocking = SharedTimer.getInstance().registerBlocking(10, () -> {
+            blockingCount.incrementAndGet();
+            blockingStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CountDownLatch latch = new CountDownLatch(3);
+        SharedTimer.Registration registration = SharedTimer.getInstance().register(10, latch::countDown);
+        try {
+            assertTrue(blockingStarted.await(1, TimeUnit.SECONDS));
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            // ticks are skipped while last run is not finished
+            assertEquals(1, blockingCount.get());
+        } finally {
+            release.countDown();
+            blocking.cancel();
+            registration.cancel();
+        }
+    }
+
+    @Test
+    public void register_InvalidInterval_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> SharedTimer.getInstance().register(0, () -> {
+        }));
+    }
+}
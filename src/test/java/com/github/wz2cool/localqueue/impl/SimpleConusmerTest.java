@@ -2,7 +2,9 @@ package com.github.wz2cool.localqueue.impl;
 
 import com.github.wz2cool.localqueue.model.config.SimpleConsumerConfig;
 import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
+import com.github.wz2cool.localqueue.model.enums.AckMode;
 import com.github.wz2cool.localqueue.model.enums.ConsumeFromWhere;
+import com.github.wz2cool.localqueue.model.enums.IdleStrategyType;
 import com.github.wz2cool.localqueue.model.message.QueueMessage;
 import com.github.wz2cool.localqueue.model.page.PageInfo;
 import com.github.wz2cool.localqueue.model.page.SortDirection;
@@ -393,8 +395,449 @@ public class SimpleConusmerTest {
         }
     }
 
+    @Test
+    public void ack_PartOfBatch_OthersTakenAgain() throws InterruptedException {
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            for (int i = 0; i < 10; i++) {
+                simpleProducer.offer("test" + i);
+            }
+            TimeUnit.MILLISECONDS.sleep(300);
+            List<QueueMessage> messages = simpleConsumer.batchTake(10);
+            assertEquals(10, messages.size());
+            simpleConsumer.ack(messages.subList(0, 3));
+            simpleConsumer.ack(messages.get(5));
+            List<QueueMessage> pending = simpleConsumer.batchTake(10);
+            assertEquals(6, pending.size());
+            assertEquals("test3", pending.get(0).getContent());
+            assertEquals("test6", pending.get(2).getContent());
+            assertSame(pending.get(0), simpleConsumer.take());
+            simpleConsumer.ack(pending);
+            assertEquals(pending.get(5).getPosition(), simpleConsumer.getAckedReadPosition());
+            assertFalse(simpleConsumer.poll().isPresent());
+        }
+    }
+
+    @Test
+    public void ack_WhileTakeBlocked_NotBlocked() throws InterruptedException {
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            Thread takeThread = new Thread(() -> {
+                try {
+                    simpleConsumer.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            takeThread.start();
+            TimeUnit.MILLISECONDS.sleep(100);
+            List<QueueMessage> messages = new ArrayList<>();
+            messages.add(new QueueMessage(null, UUID.randomUUID().toString(), 0, 1L, "message1", System.currentTimeMillis()));
+            assertTimeoutPreemptively(java.time.Duration.ofSeconds(1), () -> {
+                simpleConsumer.ack(messages);
+                simpleConsumer.poll();
+            });
+            assertEquals(1L, simpleConsumer.getAckedReadPosition());
+            takeThread.interrupt();
+            takeThread.join();
+        }
+    }
+
+    @Test
+    public void ack_SelectiveOutOfOrder_PositionOnlyMovesToContiguousAck() throws InterruptedException {
+        SimpleConsumerConfig selectiveConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .setConsumerId("test")
+                .setPullInterval(1)
+                .setAckMode(AckMode.SELECTIVE)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(selectiveConfig)) {
+            for (int i = 0; i < 5; i++) {
+                simpleProducer.offer("test" + i);
+            }
+            TimeUnit.MILLISECONDS.sleep(300);
+            List<QueueMessage> messages = simpleConsumer.batchTake(3);
+            assertEquals(3, messages.size());
+            simpleConsumer.ack(messages.get(1));
+            simpleConsumer.ack(messages.get(2));
+            assertEquals(-1, simpleConsumer.getAckedReadPosition());
+            // not acked messages are not taken again
+            assertEquals("test3", simpleConsumer.take().getContent());
+            simpleConsumer.ack(messages.get(0));
+            assertEquals(messages.get(2).getPosition(), simpleConsumer.getAckedReadPosition());
+        }
+    }
+
+    @Test
+    public void ack_SelectiveByWorkers_AllAckedPositionIsLast() throws InterruptedException {
+        SimpleConsumerConfig selectiveConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .setConsumerId("test")
+                .setPullInterval(1)
+                .setAckMode(AckMode.SELECTIVE)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(selectiveConfig)) {
+            for (int i = 0; i < 1000; i++) {
+                simpleProducer.offer("test" + i);
+            }
+            List<QueueMessage> taken = Collections.synchronizedList(new ArrayList<>());
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread worker = new Thread(() -> {
+                    try {
+                        while (taken.size() < 1000) {
+                            Optional<QueueMessage> message = simpleConsumer.take(10, TimeUnit.MILLISECONDS);
+                            message.ifPresent(m -> {
+                                taken.add(m);
+                                simpleConsumer.ack(m);
+                            });
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join(10_000);
+            }
+            assertEquals(1000, taken.size());
+            long lastPosition = taken.stream().mapToLong(QueueMessage::getPosition).max().getAsLong();
+            assertEquals(lastPosition, simpleConsumer.getAckedReadPosition());
+        }
+    }
+
     // endreigon
 
+    // region idle strategy
+
+    @Test
+    public void take_BlockingIdleWakeUp_NotWaitPullInterval() throws InterruptedException {
+        SimpleConsumerConfig blockingConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .setConsumerId("test")
+                .setPullInterval(5000)
+                .setIdleStrategyType(IdleStrategyType.BLOCKING)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(blockingConfig)) {
+            simpleProducer.addFlushListener(simpleConsumer::wakeUp);
+            // read thread is parked
+            TimeUnit.MILLISECONDS.sleep(100);
+            simpleProducer.offer("test");
+            Optional<QueueMessage> message = simpleConsumer.take(1, TimeUnit.SECONDS);
+            assertTrue(message.isPresent());
+            assertEquals("test", message.get().getContent());
+        }
+    }
+
+    @Test
+    public void take_AllIdleStrategies_MessageTaken() throws InterruptedException {
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig)) {
+            for (IdleStrategyType type : IdleStrategyType.values()) {
+                SimpleConsumerConfig idleConfig = new SimpleConsumerConfig.Builder()
+                        .setDataDir(dir)
+                        .setConsumeFromWhere(ConsumeFromWhere.LAST)
+                        .setConsumerId(type.name())
+                        .setPullInterval(10)
+                        .setIdleStrategyType(type)
+                        .build();
+                try (SimpleConsumer simpleConsumer = new SimpleConsumer(idleConfig)) {
+                    TimeUnit.MILLISECONDS.sleep(50);
+                    simpleProducer.offer(type.name());
+                    Optional<QueueMessage> message = simpleConsumer.take(1, TimeUnit.SECONDS);
+                    assertTrue(message.isPresent());
+                    assertEquals(type.name(), message.get().getContent());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void take_ReadBatchLargerThanCache_AllTakenInOrder() throws InterruptedException {
+        SimpleConsumerConfig smallCacheConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .setConsumerId("test")
+                .setPullInterval(1)
+                .setCacheSize(10)
+                .setReadBatchSize(256)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(smallCacheConfig)) {
+            for (int i = 0; i < 1000; i++) {
+                simpleProducer.offer("test" + i);
+            }
+            for (int i = 0; i < 1000; i++) {
+                QueueMessage message = simpleConsumer.take();
+                assertEquals("test" + i, message.getContent());
+                simpleConsumer.ack(message);
+            }
+            assertFalse(simpleConsumer.take(50, TimeUnit.MILLISECONDS).isPresent());
+        }
+    }
+
+    // endregion
+
+    // region subscribe
+
+    @Test
+    public void subscribe_Messages_PushedAndAcked() throws InterruptedException {
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig);
+             SimpleProducer simpleProducer = new SimpleProducer(producerConfig)) {
+            List<String> contents = Collections.synchronizedList(new ArrayList<>());
+            List<String> tags = Collections.synchronizedList(new ArrayList<>());
+            simpleConsumer.subscribe(message -> {
+                contents.add(message.getContent());
+                tags.add(String.valueOf(message.getTag()));
+            });
+            simpleProducer.offer("key1", "test1");
+            simpleProducer.offer("tagA", "key2", "test2");
+            simpleProducer.offerBytes("key3", new byte[]{1, 2, 3});
+            TimeUnit.MILLISECONDS.sleep(300);
+            assertEquals(3, contents.size());
+            assertEquals("test1", contents.get(0));
+            assertEquals("tagA", tags.get(1));
+            assertEquals("null", tags.get(0));
+            assertEquals(simpleProducer.getLastPosition(), simpleConsumer.getAckedReadPosition());
+        }
+    }
+
+    @Test
+    public void subscribe_ListenerThrows_SameMessageDeliveredAgain() throws InterruptedException {
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig);
+             SimpleProducer simpleProducer = new SimpleProducer(producerConfig)) {
+            List<Long> positions = Collections.synchronizedList(new ArrayList<>());
+            simpleConsumer.subscribe(message -> {
+                positions.add(message.getPosition());
+                if (positions.size() == 1) {
+                    throw new IllegalStateException("mock error");
+                }
+                assertEquals(3, message.getContentLength());
+                assertEquals('b', message.getContentByte(1));
+            });
+            simpleProducer.offer("abc");
+            TimeUnit.MILLISECONDS.sleep(300);
+            assertEquals(2, positions.size());
+            assertEquals(positions.get(0), positions.get(1));
+            assertEquals(positions.get(1).longValue(), simpleConsumer.getAckedReadPosition());
+        }
+    }
+
+    @Test
+    public void subscribe_CachedMessages_NotLost() throws InterruptedException {
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig);
+             SimpleProducer simpleProducer = new SimpleProducer(producerConfig)) {
+            for (int i = 0; i < 5; i++) {
+                simpleProducer.offer("test" + i);
+            }
+            // take but not ack, messages are pending or in cache.
+            QueueMessage message = simpleConsumer.take();
+            assertEquals("test0", message.getContent());
+            List<String> contents = Collections.synchronizedList(new ArrayList<>());
+            simpleConsumer.subscribe(view -> contents.add(view.getContent()));
+            TimeUnit.MILLISECONDS.sleep(300);
+            assertEquals(Arrays.asList("test0", "test1", "test2", "test3", "test4"), contents);
+
+            simpleConsumer.unsubscribe();
+            simpleProducer.offer("test5");
+            assertEquals("test5", simpleConsumer.take().getContent());
+        }
+    }
+
+    @Test
+    public void subscribe_SelectTag_OnlyMatchedPushed() throws InterruptedException {
+        SimpleConsumerConfig tagConsumerConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .setConsumerId("tagConsumer")
+                .setSelectorTag("tagA||tagB")
+                .setPullInterval(1)
+                .build();
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(tagConsumerConfig);
+             SimpleProducer simpleProducer = new SimpleProducer(producerConfig)) {
+            List<String> contents = Collections.synchronizedList(new ArrayList<>());
+            simpleConsumer.subscribe(message -> contents.add(message.getContent()));
+            simpleProducer.offer("tagA", "key1", "test1");
+            simpleProducer.offer("tagC", "key2", "test2");
+            simpleProducer.offer("key3", "test3");
+            simpleProducer.offer("tagB", "key4", "test4");
+            TimeUnit.MILLISECONDS.sleep(300);
+            assertEquals(Arrays.asList("test1", "test4"), contents);
+        }
+    }
+
+    @Test
+    public void subscribeMessage_ListenerThrows_SameMessageDeliveredAgain() throws InterruptedException {
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig);
+             SimpleProducer simpleProducer = new SimpleProducer(producerConfig)) {
+            List<QueueMessage> messages = Collections.synchronizedList(new ArrayList<>());
+            simpleConsumer.subscribeMessage(message -> {
+                messages.add(message);
+                if (messages.size() == 2) {
+                    throw new IllegalStateException("mock error");
+                }
+            });
+            simpleProducer.offer("key1", "test1");
+            simpleProducer.offer("tagA", "key2", "test2");
+            TimeUnit.MILLISECONDS.sleep(300);
+            assertEquals(3, messages.size());
+            assertEquals("test1", messages.get(0).getContent());
+            assertEquals("key2", messages.get(1).getMessageKey());
+            assertEquals("tagA", messages.get(2).getTag());
+            assertEquals(messages.get(1).getPosition(), messages.get(2).getPosition());
+            assertEquals(simpleProducer.getLastPosition(), simpleConsumer.getAckedReadPosition());
+        }
+    }
+
+    @Test
+    public void subscribeMessages_Batch_PushedInBatchAndAcked() throws InterruptedException {
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig);
+             SimpleProducer simpleProducer = new SimpleProducer(producerConfig)) {
+            for (int i = 0; i < 25; i++) {
+                simpleProducer.offer("test" + i);
+            }
+            TimeUnit.MILLISECONDS.sleep(100);
+            List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+            List<String> contents = Collections.synchronizedList(new ArrayList<>());
+            simpleConsumer.subscribeMessages(messages -> {
+                batchSizes.add(messages.size());
+                if (batchSizes.size() == 2) {
+                    throw new IllegalStateException("mock error");
+                }
+                for (QueueMessage message : messages) {
+                    contents.add(message.getContent());
+                }
+            }, 10);
+            TimeUnit.MILLISECONDS.sleep(300);
+            // second batch failed and delivered again
+            assertEquals(Arrays.asList(10, 10, 10, 5), batchSizes);
+            assertEquals(25, contents.size());
+            for (int i = 0; i < 25; i++) {
+                assertEquals("test" + i, contents.get(i));
+            }
+            assertEquals(simpleProducer.getLastPosition(), simpleConsumer.getAckedReadPosition());
+        }
+    }
+
+    @Test
+    public void subscribeMessages_InvalidArgs_ThrowsIllegalArgumentException() {
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            assertThrows(IllegalArgumentException.class, () -> simpleConsumer.subscribeMessages(null, 10));
+            assertThrows(IllegalArgumentException.class, () -> simpleConsumer.subscribeMessages(messages -> {
+            }, 0));
+            assertThrows(IllegalArgumentException.class, () -> simpleConsumer.subscribeMessage(null));
+        }
+    }
+
+    @Test
+    public void subscribe_NullListener_ThrowsIllegalArgumentException() {
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            assertThrows(IllegalArgumentException.class, () -> simpleConsumer.subscribe(null));
+        }
+    }
+
+    // endregion
+
+    // region consume by tag index
+
+    private SimpleConsumerConfig tagIndexConsumerConfig(String consumerId) {
+        return new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .setConsumerId(consumerId)
+                .setSelectorTag("tagA||tagB")
+                .setConsumeByTagIndex(true)
+                .setPullInterval(1)
+                .setFlushPositionInterval(10)
+                .build();
+    }
+
+    @Test
+    public void consumeByTagIndex_MixedTags_OnlyIndexedMatchedRead() throws InterruptedException {
+        SimpleProducerConfig tagIndexProducerConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setTagIndex(true)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(tagIndexProducerConfig)) {
+            for (int i = 0; i < 300; i++) {
+                String tag = i % 100 == 0 ? "tagA" : (i % 100 == 50 ? "tagB" : "tagC");
+                simpleProducer.offer(tag, "key" + i, "content" + i);
+            }
+            simpleProducer.offerAndWait(null, "key", "no tag");
+        }
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(tagIndexConsumerConfig("test"))) {
+            List<QueueMessage> messages = new ArrayList<>();
+            while (messages.size() < 6) {
+                List<QueueMessage> batch = simpleConsumer.batchTake(10);
+                messages.addAll(batch);
+                simpleConsumer.ack(batch);
+            }
+            assertEquals("content0", messages.get(0).getContent());
+            assertEquals("tagB", messages.get(1).getTag());
+            assertEquals("content50", messages.get(1).getContent());
+            assertEquals("content250", messages.get(5).getContent());
+            assertFalse(simpleConsumer.poll().isPresent());
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        // restart from acked position
+        SimpleProducerConfig tagIndexProducerConfig2 = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setTagIndex(true)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(tagIndexProducerConfig2);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(tagIndexConsumerConfig("test"))) {
+            simpleProducer.offer("tagC", "key", "skip");
+            simpleProducer.offer("tagA", "key", "new");
+            assertEquals("new", simpleConsumer.take().getContent());
+        }
+    }
+
+    @Test
+    public void consumeByTagIndex_MoveToPosition_IndexMoved() throws InterruptedException {
+        SimpleProducerConfig tagIndexProducerConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setTagIndex(true)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(tagIndexProducerConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(tagIndexConsumerConfig("test"))) {
+            simpleProducer.offer("tagA", "key1", "test1");
+            simpleProducer.offer("tagC", "key2", "test2");
+            simpleProducer.offer("tagB", "key3", "test3");
+            QueueMessage message1 = simpleConsumer.take();
+            simpleConsumer.ack(message1);
+            QueueMessage message3 = simpleConsumer.take();
+            assertEquals("test3", message3.getContent());
+            simpleConsumer.ack(message3);
+
+            assertTrue(simpleConsumer.moveToPosition(message1.getPosition()));
+            assertEquals("test1", simpleConsumer.take().getContent());
+        }
+    }
+
+    @Test
+    public void consumeByTagIndex_SelectAll_FallbackToScan() throws InterruptedException {
+        SimpleConsumerConfig config = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .setConsumerId("test")
+                .setConsumeByTagIndex(true)
+                .setPullInterval(1)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(config)) {
+            simpleProducer.offer("tagA", "key1", "test1");
+            assertEquals("test1", simpleConsumer.take().getContent());
+        }
+    }
+
+    // endregion
+
     // region close
 
     @Test
@@ -444,6 +887,26 @@ public class SimpleConusmerTest {
 
     // region moveToPosition
 
+    @Test
+    public void moveToPosition_PendingNotAcked_PendingCleared() throws InterruptedException {
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            simpleProducer.offer("test1");
+            simpleProducer.offer("test2");
+            simpleProducer.offer("test3");
+            TimeUnit.MILLISECONDS.sleep(100);
+            QueueMessage message1 = simpleConsumer.take();
+            assertEquals("test1", message1.getContent());
+            QueueMessage message2 = simpleConsumer.get(message1.getPosition() + 1).get();
+            // not acked, move to test2
+            assertTrue(simpleConsumer.moveToPosition(message2.getPosition()));
+            QueueMessage message = simpleConsumer.take();
+            assertEquals("test2", message.getContent());
+            simpleConsumer.ack(message);
+            assertEquals("test3", simpleConsumer.take().getContent());
+        }
+    }
+
     @Test
     public void moveToPosition_valid_position() throws Exception {
         // 写入一条消息到队列中
@@ -658,6 +1121,81 @@ public class SimpleConusmerTest {
         }
     }
 
+    private SimpleProducerConfig keyIndexProducerConfig(int keyIndexEntries) {
+        return new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setKeyIndex(true)
+                .setKeyIndexEntries(keyIndexEntries)
+                .build();
+    }
+
+    @Test
+    public void get_KeyIndex_ReturnsIndexedMessage() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        try (SimpleProducer simpleProducer = new SimpleProducer(keyIndexProducerConfig(1000))) {
+            for (int i = 0; i < 300; i++) {
+                simpleProducer.offer("key" + i, "content" + i);
+            }
+            simpleProducer.offerAndWait("key", "content");
+        }
+        File[] indexFiles = KeyIndex.getIndexDir(dir).listFiles();
+        assertNotNull(indexFiles);
+        assertTrue(indexFiles.length > 0);
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            Optional<QueueMessage> result = simpleConsumer.get("key150", start, System.currentTimeMillis());
+            assertTrue(result.isPresent());
+            assertEquals("content150", result.get().getContent());
+            assertFalse(simpleConsumer.get("notExists", start, System.currentTimeMillis()).isPresent());
+            assertFalse(simpleConsumer.get("key150", System.currentTimeMillis(), System.currentTimeMillis() + 1000).isPresent());
+        }
+    }
+
+    @Test
+    public void get_KeyIndexDuplicateKeyBeforeWindow_ReturnsMessageInWindow() throws InterruptedException {
+        try (SimpleProducer simpleProducer = new SimpleProducer(keyIndexProducerConfig(1000));
+             SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            simpleProducer.offerAndWait("testKey", "content1");
+            Thread.sleep(100);
+            long recordTime = System.currentTimeMillis();
+            simpleProducer.offerAndWait("otherKey", "other");
+            simpleProducer.offerAndWait("testKey", "content2");
+            Thread.sleep(100);
+
+            Optional<QueueMessage> result = simpleConsumer.get("testKey", recordTime, System.currentTimeMillis());
+            assertTrue(result.isPresent());
+            assertEquals("content2", result.get().getContent());
+        }
+    }
+
+    @Test
+    public void get_KeyIndexEnabledLater_ScanUnindexedMessages() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        try (SimpleProducer simpleProducer = new SimpleProducer(producerConfig)) {
+            simpleProducer.offerAndWait("key0", "content0");
+        }
+        try (SimpleProducer simpleProducer = new SimpleProducer(keyIndexProducerConfig(1000))) {
+            simpleProducer.offerAndWait("key1", "content1");
+        }
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            assertEquals("content0", simpleConsumer.get("key0", start, System.currentTimeMillis()).get().getContent());
+            assertEquals("content1", simpleConsumer.get("key1", start, System.currentTimeMillis()).get().getContent());
+        }
+    }
+
+    @Test
+    public void get_KeyIndexFull_ScanOverflowMessages() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        try (SimpleProducer simpleProducer = new SimpleProducer(keyIndexProducerConfig(10))) {
+            for (int i = 0; i < 50; i++) {
+                simpleProducer.offer("key" + i, "content" + i);
+            }
+            simpleProducer.offerAndWait("key", "content");
+        }
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            assertEquals("content3", simpleConsumer.get("key3", start, System.currentTimeMillis()).get().getContent());
+            assertEquals("content40", simpleConsumer.get("key40", start, System.currentTimeMillis()).get().getContent());
+        }
+    }
 
     // endregion
 
@@ -704,6 +1242,74 @@ public class SimpleConusmerTest {
         }
     }
 
+    @Test
+    public void findPosition_TimeIndex_ReturnsFirstMessageAfterTimestamp() throws InterruptedException {
+        SimpleProducerConfig timeIndexProducerConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setTimeIndex(true)
+                .setTimeIndexInterval(20)
+                .build();
+        List<Long> timeList = new ArrayList<>();
+        try (SimpleProducer simpleProducer = new SimpleProducer(timeIndexProducerConfig)) {
+            for (int i = 0; i < 50; i++) {
+                simpleProducer.offerAndWait("key" + i, "content" + i);
+                Thread.sleep(5);
+            }
+        }
+        assertTrue(TimeIndex.getIndexDir(dir).exists());
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            List<QueueMessage> messages = simpleConsumer.getPage(SortDirection.ASC, 50).getData();
+            assertEquals(50, messages.size());
+            for (int i = 0; i < 50; i++) {
+                long writeTime = messages.get(i).getWriteTime();
+                Optional<Long> position = simpleConsumer.findPosition(writeTime);
+                assertTrue(position.isPresent());
+                QueueMessage found = simpleConsumer.get(position.get()).get();
+                assertEquals(writeTime, found.getWriteTime());
+                assertTrue(found.getPosition() <= messages.get(i).getPosition());
+            }
+            assertTrue(simpleConsumer.moveToTimestamp(messages.get(30).getWriteTime() + 1));
+            QueueMessage message = simpleConsumer.take();
+            assertTrue(message.getWriteTime() > messages.get(30).getWriteTime());
+        }
+    }
+
+    @Test
+    public void findPosition_NoTimeIndex_BisectSameAsLinearScan() throws InterruptedException, IOException {
+        for (boolean compactHeader : new boolean[]{false, true}) {
+            FileUtils.deleteDirectory(dir);
+            SimpleProducerConfig bisectProducerConfig = new SimpleProducerConfig.Builder()
+                    .setDataDir(dir)
+                    .setCompactHeader(compactHeader)
+                    .build();
+            try (SimpleProducer simpleProducer = new SimpleProducer(bisectProducerConfig)) {
+                for (int i = 0; i < 300; i++) {
+                    simpleProducer.offerAndWait(i % 2 == 0 ? "tagA" : null, "key" + i, "content" + i);
+                    if (i % 10 == 0) {
+                        Thread.sleep(2);
+                    }
+                }
+            }
+            try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+                List<QueueMessage> messages = simpleConsumer.getPage(SortDirection.ASC, 300).getData();
+                assertEquals(300, messages.size());
+                long firstTime = messages.get(0).getWriteTime();
+                long lastTime = messages.get(299).getWriteTime();
+                for (long timestamp = firstTime - 1; timestamp <= lastTime; timestamp++) {
+                    Long expected = null;
+                    for (QueueMessage message : messages) {
+                        if (message.getWriteTime() >= timestamp) {
+                            expected = message.getPosition();
+                            break;
+                        }
+                    }
+                    assertEquals(expected, simpleConsumer.findPosition(timestamp).get());
+                }
+                assertFalse(simpleConsumer.findPosition(lastTime + 1).isPresent());
+            }
+        }
+    }
+
 
     // endregion page
     @Test
@@ -1,6 +1,17 @@
 package com.github.wz2cool.localqueue.impl;
 
+import com.github.wz2cool.localqueue.model.config.SimpleConsumerConfig;
 import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
+import com.github.wz2cool.localqueue.model.enums.ConsumeFromWhere;
+import com.github.wz2cool.localqueue.model.enums.WriteMode;
+import com.github.wz2cool.localqueue.model.message.MessageHeader;
+import com.github.wz2cool.localqueue.model.message.QueueMessage;
+import net.openhft.chronicle.bytes.Bytes;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptAppender;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import net.openhft.chronicle.queue.impl.single.SingleChronicleQueue;
+import net.openhft.chronicle.wire.DocumentContext;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,10 +19,20 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -67,6 +88,436 @@ public class SimpleProducerTest {
         assertTrue(test.isClosed());
     }
 
+    // region batch write
+
+    @Test
+    public void batchWrite_MultipleMessages_EachMessageHasOwnPosition() throws InterruptedException {
+        SimpleProducerConfig batchConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setBatchWrite(true)
+                .build();
+        SimpleConsumerConfig consumerConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumerId("test")
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(batchConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            for (int i = 0; i < 10; i++) {
+                simpleProducer.offer("tag" + i, "key" + i, "content" + i);
+            }
+            // make sure data write
+            TimeUnit.MILLISECONDS.sleep(100);
+            List<QueueMessage> messages = simpleConsumer.batchTake(10);
+            assertEquals(10, messages.size());
+            for (int i = 0; i < 10; i++) {
+                QueueMessage message = messages.get(i);
+                assertEquals("tag" + i, message.getTag());
+                assertEquals("key" + i, message.getMessageKey());
+                assertEquals("content" + i, message.getContent());
+                if (i > 0) {
+                    assertEquals(messages.get(i - 1).getPosition() + 1, message.getPosition());
+                }
+            }
+            assertEquals(messages.get(9).getPosition(), simpleProducer.getLastPosition());
+        }
+    }
+
+    // endregion
+
+    // region offer and wait
+
+    @Test
+    public void offerAndWait_MessageWritten_ReturnsPosition() throws InterruptedException {
+        SimpleProducerConfig syncConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setSyncOnWait(true)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(syncConfig)) {
+            long position1 = simpleProducer.offerAndWait("key1", "test1");
+            assertEquals(position1, simpleProducer.getLastPosition());
+            long position2 = simpleProducer.offerAndWait("tag", "key2", "test2");
+            assertEquals(position1 + 1, position2);
+            assertEquals(position2, simpleProducer.getLastPosition());
+        }
+    }
+
+    @Test
+    public void offerAsync_ManyWaiters_AllCompleteWithOwnPosition() throws Exception {
+        try (SimpleProducer simpleProducer = new SimpleProducer(config)) {
+            List<CompletableFuture<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                futures.add(simpleProducer.offerAsync("key" + i, "test" + i));
+            }
+            long prevPosition = -1;
+            for (CompletableFuture<Long> future : futures) {
+                long position = future.get(1, TimeUnit.SECONDS);
+                if (prevPosition != -1) {
+                    assertEquals(prevPosition + 1, position);
+                }
+                prevPosition = position;
+            }
+            assertEquals(prevPosition, simpleProducer.getLastPosition());
+        }
+    }
+
+    @Test
+    public void offerAsync_ProducerClosed_CompleteExceptionally() {
+        SimpleProducer test;
+        try (SimpleProducer simpleProducer = new SimpleProducer(config)) {
+            test = simpleProducer;
+        }
+        CompletableFuture<Long> future = test.offerAsync("key", "test");
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void offerAsync_CloseWhileFlushing_AllFuturesDone() throws Exception {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        try (SimpleProducer simpleProducer = new SimpleProducer(config)) {
+            for (int i = 0; i < 10000; i++) {
+                futures.add(simpleProducer.offerAsync("key" + i, "test" + i));
+            }
+        }
+        for (CompletableFuture<Long> future : futures) {
+            try {
+                future.get(1, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }
+    }
+
+    // endregion
+
+    // region direct write
+
+    @Test
+    public void directWrite_Offer_WrittenBeforeReturn() throws InterruptedException {
+        SimpleProducerConfig directConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setWriteMode(WriteMode.DIRECT)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(directConfig)) {
+            assertTrue(simpleProducer.offer("test1"));
+            long position1 = simpleProducer.getLastPosition();
+            assertTrue(simpleProducer.offer("tag", "key", "test2"));
+            assertEquals(position1 + 1, simpleProducer.getLastPosition());
+            long position3 = simpleProducer.offerAndWait("key", "test3");
+            assertEquals(position1 + 2, position3);
+        }
+    }
+
+    @Test
+    public void directWrite_MultiThreads_AllWritten() throws InterruptedException {
+        SimpleProducerConfig directConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setWriteMode(WriteMode.DIRECT)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(directConfig)) {
+            long startPosition = simpleProducer.offerAndWait("key", "init");
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        simpleProducer.offer("test" + i);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(startPosition + 400, simpleProducer.getLastPosition());
+        }
+    }
+
+    @Test
+    public void directWrite_ProducerClosed_ReturnsFalse() {
+        SimpleProducerConfig directConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setWriteMode(WriteMode.DIRECT)
+                .build();
+        SimpleProducer test;
+        try (SimpleProducer simpleProducer = new SimpleProducer(directConfig)) {
+            test = simpleProducer;
+        }
+        assertFalse(test.offer("test"));
+        assertThrows(IllegalStateException.class, () -> test.offerAndWait("key", "test"));
+    }
+
+    @Test
+    public void directWrite_MultiThreadsWithKeyIndex_AllIndexed() throws InterruptedException {
+        SimpleProducerConfig directConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setWriteMode(WriteMode.DIRECT)
+                .setKeyIndex(true)
+                .build();
+        SimpleConsumerConfig consumerConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumerId("consumer1")
+                .build();
+        long start = System.currentTimeMillis();
+        try (SimpleProducer simpleProducer = new SimpleProducer(directConfig)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int threadId = t;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        simpleProducer.offer("key" + threadId + "-" + i, "test" + threadId + "-" + i);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            for (int t = 0; t < 4; t++) {
+                Optional<QueueMessage> message = simpleConsumer.get("key" + t + "-99", start, System.currentTimeMillis());
+                assertTrue(message.isPresent());
+                assertEquals("test" + t + "-99", message.get().getContent());
+            }
+        }
+    }
+
+    @Test
+    public void directWrite_SharedQueue_AppendersClosedWithProducer() throws Exception {
+        SimpleProducerConfig directConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setWriteMode(WriteMode.DIRECT)
+                .build();
+        try (SingleChronicleQueue sharedQueue = ChronicleQueue.singleBuilder(dir).build()) {
+            SimpleProducer simpleProducer = new SimpleProducer(directConfig, sharedQueue);
+            Thread thread = new Thread(() -> simpleProducer.offer("test"));
+            thread.start();
+            thread.join();
+            simpleProducer.offer("test");
+            Field field = SimpleProducer.class.getDeclaredField("directAppenders");
+            field.setAccessible(true);
+            List<ExcerptAppender> appenders = new ArrayList<>((Collection<ExcerptAppender>) field.get(simpleProducer));
+            assertEquals(2, appenders.size());
+
+            simpleProducer.close();
+            for (ExcerptAppender appender : appenders) {
+                assertTrue(appender.isClosed());
+            }
+            assertFalse(sharedQueue.isClosed());
+        }
+    }
+
+    // endregion
+
+    // region flush listener
+
+    @Test
+    public void addFlushListener_Flushed_ListenerCalled() throws InterruptedException {
+        SimpleProducerConfig directConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setWriteMode(WriteMode.DIRECT)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(directConfig)) {
+            AtomicInteger flushCount = new AtomicInteger();
+            simpleProducer.addFlushListener(flushCount::incrementAndGet);
+            simpleProducer.offer("test1");
+            simpleProducer.offer("test2");
+            assertEquals(2, flushCount.get());
+        }
+        try (SimpleProducer simpleProducer = new SimpleProducer(config)) {
+            AtomicInteger flushCount = new AtomicInteger();
+            simpleProducer.addFlushListener(() -> {
+                flushCount.incrementAndGet();
+                throw new IllegalStateException("mock error");
+            });
+            simpleProducer.offerAndWait("key", "test1");
+            assertEquals(1, flushCount.get());
+            // listener error does not break flush
+            simpleProducer.offerAndWait("key", "test2");
+            assertEquals(2, flushCount.get());
+        }
+    }
+
+    // endregion
+
+    // region compact header
+
+    @Test
+    public void compactHeader_SelectTag_OnlyMatchedRead() throws InterruptedException {
+        SimpleProducerConfig legacyConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .build();
+        SimpleProducerConfig compactConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setCompactHeader(true)
+                .build();
+        SimpleConsumerConfig consumerConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumerId("consumer1")
+                .setSelectorTag("tagA")
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .build();
+        // legacy and compact messages are mixed in one queue.
+        try (SimpleProducer legacyProducer = new SimpleProducer(legacyConfig)) {
+            legacyProducer.offerAndWait("tagA", "key0", "legacy");
+        }
+        try (SimpleProducer simpleProducer = new SimpleProducer(compactConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            simpleProducer.offer("tagA", "key1", "test1");
+            simpleProducer.offer("tagB", "key2", "test2");
+            simpleProducer.offer(null, "key3", "test3");
+            simpleProducer.offer("tagA", "key4", "test4");
+            TimeUnit.MILLISECONDS.sleep(100);
+            List<QueueMessage> messages = simpleConsumer.batchTake(10);
+            assertEquals(3, messages.size());
+            assertEquals("legacy", messages.get(0).getContent());
+            assertEquals("tagA", messages.get(1).getTag());
+            assertEquals("key1", messages.get(1).getMessageKey());
+            assertEquals("test1", messages.get(1).getContent());
+            assertEquals("test4", messages.get(2).getContent());
+
+            Optional<QueueMessage> nullTagMessage = simpleConsumer.get(messages.get(1).getPosition() + 2);
+            assertTrue(nullTagMessage.isPresent());
+            assertNull(nullTagMessage.get().getTag());
+            assertEquals("test3", nullTagMessage.get().getContent());
+        }
+        assertTrue(new File(dir, TagDictionary.TAG_TO_ID_FILE_NAME).exists());
+    }
+
+    @Test
+    public void compactHeader_Subscribe_TagResolved() throws InterruptedException {
+        SimpleProducerConfig compactConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setWriteMode(WriteMode.DIRECT)
+                .setCompactHeader(true)
+                .build();
+        SimpleConsumerConfig consumerConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumerId("consumer1")
+                .setSelectorTag("tagB")
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(compactConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            simpleProducer.offer("tagA", "key1", "test1");
+            simpleProducer.offer("tagB", "key2", "test2");
+            List<String> received = Collections.synchronizedList(new ArrayList<>());
+            simpleConsumer.subscribe(message -> received.add(message.getTag() + ":" + message.getMessageKey() + ":" + message.getContent()));
+            TimeUnit.MILLISECONDS.sleep(300);
+            assertEquals(Collections.singletonList("tagB:key2:test2"), received);
+        }
+    }
+
+    @Test
+    public void tagIndex_CompactHeaderOff_LegacyHeaderWritten() throws InterruptedException {
+        SimpleProducerConfig tagIndexConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setTagIndex(true)
+                .build();
+        SimpleConsumerConfig consumerConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumerId("consumer1")
+                .setSelectorTag("tagA")
+                .setConsumeByTagIndex(true)
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .build();
+        try (SimpleProducer simpleProducer = new SimpleProducer(tagIndexConfig)) {
+            simpleProducer.offer("tagB", "key1", "test1");
+            simpleProducer.offerAndWait("tagA", "key2", "test2");
+        }
+        // read as an old reader, which only knows legacy header
+        try (ChronicleQueue queue = ChronicleQueue.singleBuilder(dir).build();
+             ExcerptTailer tailer = queue.createTailer()) {
+            try (DocumentContext dc = tailer.readingDocument()) {
+                assertTrue(dc.isPresent());
+                Bytes<?> bytes = dc.wire().bytes();
+                assertFalse(MessageHeader.isCompact(bytes));
+                assertEquals("tagB", bytes.readUtf8());
+            }
+        }
+        try (SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            QueueMessage message = simpleConsumer.take();
+            assertEquals("tagA", message.getTag());
+            assertEquals("test2", message.getContent());
+        }
+    }
+
+    // endregion
+
+    // region binary
+
+    @Test
+    public void offerBinary_ConsumerTake_SameBytes() throws InterruptedException {
+        SimpleConsumerConfig consumerConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumerId("consumer1")
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .build();
+        byte[] bytes = new byte[]{0, 1, 2, (byte) 0xFF, (byte) 0x80};
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(8);
+        directBuffer.put(new byte[]{9, 8, 7, 6}).flip();
+        try (SimpleProducer simpleProducer = new SimpleProducer(config);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            assertTrue(simpleProducer.offerBytes("key1", bytes));
+            assertTrue(simpleProducer.offerBuffer("tag", "key2", ByteBuffer.wrap(bytes, 1, 3)));
+            assertTrue(simpleProducer.offerBuffer(directBuffer));
+            // position of caller's buffer should not be changed.
+            assertEquals(0, directBuffer.position());
+            simpleProducer.offer("text");
+
+            // make sure data write
+            TimeUnit.MILLISECONDS.sleep(100);
+            List<QueueMessage> messages = simpleConsumer.batchTake(4);
+            assertEquals(4, messages.size());
+            assertEquals("key1", messages.get(0).getMessageKey());
+            assertArrayEquals(bytes, messages.get(0).getContentBytes());
+            assertEquals("tag", messages.get(1).getTag());
+            assertArrayEquals(new byte[]{1, 2, (byte) 0xFF}, messages.get(1).getContentBytes());
+            assertArrayEquals(new byte[]{9, 8, 7, 6}, messages.get(2).getContentBytes());
+            assertEquals("text", messages.get(3).getContent());
+        }
+    }
+
+    @Test
+    public void offerBinary_DirectWrite_SameBytes() throws InterruptedException {
+        SimpleProducerConfig directConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setWriteMode(WriteMode.DIRECT)
+                .build();
+        SimpleConsumerConfig consumerConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumerId("consumer1")
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .build();
+        ByteBuffer directBuffer = ByteBuffer.allocateDirect(8);
+        directBuffer.put(new byte[]{9, 8, 7, 6}).flip();
+        try (SimpleProducer simpleProducer = new SimpleProducer(directConfig);
+             SimpleConsumer simpleConsumer = new SimpleConsumer(consumerConfig)) {
+            assertTrue(simpleProducer.offerBytes(new byte[]{1, 2, 3}));
+            assertTrue(simpleProducer.offerBuffer("key", directBuffer));
+            // make sure data read to consumer cache
+            TimeUnit.MILLISECONDS.sleep(100);
+            List<QueueMessage> messages = simpleConsumer.batchTake(2);
+            assertEquals(2, messages.size());
+            assertArrayEquals(new byte[]{1, 2, 3}, messages.get(0).getContentBytes());
+            assertArrayEquals(new byte[]{9, 8, 7, 6}, messages.get(1).getContentBytes());
+        }
+    }
+
+    @Test
+    public void offer_NullLiteral_StringOverloadUsed() {
+        try (SimpleProducer simpleProducer = new SimpleProducer(config)) {
+            // binary overloads have their own names, so null literals still compile.
+            assertTrue(simpleProducer.offer(null));
+            assertTrue(simpleProducer.offer("key", null));
+        }
+    }
+
+    // endregion
+
     // region cleanUpOldFile
     @Test
     public void cleanUpOldFile_FileOlderThanKeepDate_FileDeleted() throws Exception {
@@ -126,6 +577,39 @@ public class SimpleProducerTest {
 
     }
 
+    @Test
+    public void cleanUpOldFiles_TagIndexFileOlderThanKeepDate_FileDeleted() throws Exception {
+        File oldIndexFile = new File(TagIndexWriter.getIndexDir(dir), "1/20230101F.cq4");
+        FileUtils.createParentDirectories(oldIndexFile);
+        assertTrue(oldIndexFile.createNewFile());
+        try (SimpleProducer simpleProducer = new SimpleProducer(config)) {
+            invokePrivateMethod(simpleProducer, "cleanUpOldFiles", new Class[]{int.class}, 1);
+        }
+        assertFalse(oldIndexFile.exists(), "Old tag index file should be deleted");
+    }
+
+    @Test
+    public void cleanUpOldFiles_KeyIndexFileOlderThanKeepDate_FileDeleted() throws Exception {
+        File oldIndexFile = new File(KeyIndex.getIndexDir(dir), "20230101F.dat");
+        FileUtils.createParentDirectories(oldIndexFile);
+        assertTrue(oldIndexFile.createNewFile());
+        try (SimpleProducer simpleProducer = new SimpleProducer(config)) {
+            invokePrivateMethod(simpleProducer, "cleanUpOldFiles", new Class[]{int.class}, 1);
+        }
+        assertFalse(oldIndexFile.exists(), "Old key index file should be deleted");
+    }
+
+    @Test
+    public void cleanUpOldFiles_TimeIndexFileOlderThanKeepDate_FileDeleted() throws Exception {
+        File oldIndexFile = new File(TimeIndex.getIndexDir(dir), "20230101F.idx");
+        FileUtils.createParentDirectories(oldIndexFile);
+        assertTrue(oldIndexFile.createNewFile());
+        try (SimpleProducer simpleProducer = new SimpleProducer(config)) {
+            invokePrivateMethod(simpleProducer, "cleanUpOldFiles", new Class[]{int.class}, 1);
+        }
+        assertFalse(oldIndexFile.exists(), "Old time index file should be deleted");
+    }
+
     @Test
     public void cleanUpOldFiles_FileNewerThanKeepDate_FileNotDeleted() throws Exception {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd");
@@ -1,8 +1,10 @@
 package com.github.wz2cool.localqueue.impl;
 
 import com.github.wz2cool.localqueue.IConsumer;
+import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
 import com.github.wz2cool.localqueue.model.config.SimpleQueueConfig;
 import com.github.wz2cool.localqueue.model.enums.ConsumeFromWhere;
+import com.github.wz2cool.localqueue.model.enums.IdleStrategyType;
 import com.github.wz2cool.localqueue.model.enums.RollCycleType;
 import com.github.wz2cool.localqueue.model.message.QueueMessage;
 import net.openhft.chronicle.queue.RollCycles;
@@ -13,9 +15,13 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -132,4 +138,243 @@ public class SimpleQueueHourlyTest {
         }
         assertTrue(true, "no error return.");
     }
+
+    @Test
+    public void offer_ConsumerIdle_WokenUpByFlush() throws InterruptedException {
+        try (SimpleQueue queue = new SimpleQueue(config)) {
+            IConsumer consumer = queue.getConsumer("consumer1", ConsumeFromWhere.LAST);
+            Thread.sleep(100);
+            long[] latencies = new long[21];
+            for (int i = 0; i < latencies.length; i++) {
+                long start = System.nanoTime();
+                queue.offer("test" + i);
+                QueueMessage message = consumer.take();
+                latencies[i] = System.nanoTime() - start;
+                assertEquals("test" + i, message.getContent());
+                consumer.ack(message);
+                // let consumer go idle
+                Thread.sleep(3);
+            }
+            Arrays.sort(latencies);
+            // polling would wait about half of pullInterval (10 ms)
+            assertTrue(latencies[latencies.length / 2] < TimeUnit.MILLISECONDS.toNanos(3));
+        }
+    }
+
+    @Test
+    public void getConsumer_OneConsumerClosed_SharedQueueStillOpen() throws InterruptedException {
+        try (SimpleQueue queue = new SimpleQueue(config)) {
+            IConsumer consumer1 = queue.getConsumer("consumer1", ConsumeFromWhere.FIRST);
+            IConsumer consumer2 = queue.getConsumer("consumer2", ConsumeFromWhere.FIRST);
+            queue.offer("test1");
+            QueueMessage message = consumer1.take();
+            assertEquals("test1", message.getContent());
+            consumer1.ack(message);
+            Thread.sleep(200);
+            consumer1.close();
+
+            queue.offer("test2");
+            List<QueueMessage> messages = consumer2.batchTake(2, 1, TimeUnit.SECONDS);
+            if (messages.size() == 1) {
+                consumer2.ack(messages);
+                messages = Arrays.asList(messages.get(0), consumer2.take());
+            }
+            assertEquals("test1", messages.get(0).getContent());
+            assertEquals("test2", messages.get(1).getContent());
+            // reopen on shared queue, continue from acked position
+            IConsumer reopened = queue.getConsumer("consumer1", ConsumeFromWhere.FIRST);
+            assertNotSame(consumer1, reopened);
+            assertEquals("test2", reopened.take().getContent());
+        }
+    }
+
+    @Test
+    public void getConsumer_ManyConsumersOnTwoReaderThreads_AllConsumed() throws InterruptedException {
+        SimpleQueueConfig sharedConfig = new SimpleQueueConfig.Builder()
+                .setDataDir(dir)
+                .setKeepDays(1)
+                .setRollCycleType(RollCycleType.HOURLY)
+                .setReaderThreads(2)
+                .build();
+        try (SimpleQueue queue = new SimpleQueue(sharedConfig)) {
+            List<IConsumer> consumers = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                consumers.add(queue.getConsumer("consumer" + i, ConsumeFromWhere.FIRST));
+            }
+            for (int i = 0; i < 100; i++) {
+                queue.offer("test" + i);
+            }
+            long lastPosition = 0;
+            for (IConsumer consumer : consumers) {
+                for (int i = 0; i < 100; i++) {
+                    QueueMessage message = consumer.take();
+                    assertEquals("test" + i, message.getContent());
+                    consumer.ack(message);
+                    lastPosition = message.getPosition();
+                }
+            }
+            // move and subscribe on shared reader threads
+            IConsumer consumer0 = consumers.get(0);
+            assertTrue(consumer0.moveToPosition(lastPosition));
+            CountDownLatch latch = new CountDownLatch(1);
+            consumer0.subscribeMessage(message -> {
+                assertEquals("test99", message.getContent());
+                latch.countDown();
+            });
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void getConsumer_CaughtUpConsumers_ReadBySharedPass() throws Exception {
+        SimpleQueueConfig sharedConfig = new SimpleQueueConfig.Builder()
+                .setDataDir(dir)
+                .setKeepDays(1)
+                .setRollCycleType(RollCycleType.HOURLY)
+                .setReaderThreads(2)
+                .build();
+        SimpleProducerConfig producerConfig = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setKeepDays(1)
+                .setRollCycleType(RollCycleType.HOURLY)
+                .build();
+        try (SimpleQueue queue = new SimpleQueue(sharedConfig);
+             SimpleProducer producer = new SimpleProducer(producerConfig)) {
+            List<IConsumer> consumers = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                consumers.add(queue.getConsumer("consumer" + i, ConsumeFromWhere.FIRST));
+            }
+            IConsumer tagConsumer = queue.getConsumer("tagConsumer", "tagA", ConsumeFromWhere.FIRST);
+            for (int i = 0; i < 10; i++) {
+                producer.offer(i % 2 == 0 ? "tagA" : "tagB", null, "first" + i);
+            }
+            // read by own tailer until caught up
+            for (IConsumer consumer : consumers) {
+                for (int i = 0; i < 10; i++) {
+                    consumer.ack(consumer.take());
+                }
+            }
+            for (int i = 0; i < 10; i += 2) {
+                QueueMessage message = tagConsumer.take();
+                assertEquals("first" + i, message.getContent());
+                tagConsumer.ack(message);
+            }
+            Field field = SimpleQueue.class.getDeclaredField("sharedReadPass");
+            field.setAccessible(true);
+            SharedReadPass sharedReadPass = (SharedReadPass) field.get(queue);
+            Field consumersField = SharedReadPass.class.getDeclaredField("consumers");
+            consumersField.setAccessible(true);
+            List<?> attachedConsumers = (List<?>) consumersField.get(sharedReadPass);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (attachedConsumers.size() < 6 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(6, attachedConsumers.size());
+
+            for (int i = 0; i < 100; i++) {
+                producer.offer(i % 2 == 0 ? "tagA" : "tagB", null, "second" + i);
+            }
+            long firstPosition = 0;
+            for (IConsumer consumer : consumers) {
+                for (int i = 0; i < 100; i++) {
+                    QueueMessage message = consumer.take();
+                    assertEquals("second" + i, message.getContent());
+                    consumer.ack(message);
+                    if (i == 0) {
+                        firstPosition = message.getPosition();
+                    }
+                }
+            }
+            for (int i = 0; i < 100; i += 2) {
+                QueueMessage message = tagConsumer.take();
+                assertEquals("second" + i, message.getContent());
+                tagConsumer.ack(message);
+            }
+
+            // moved consumer leaves shared pass and reads by own tailer again
+            IConsumer consumer0 = consumers.get(0);
+            assertTrue(consumer0.moveToPosition(firstPosition));
+            for (int i = 0; i < 100; i++) {
+                QueueMessage message = consumer0.take();
+                assertEquals("second" + i, message.getContent());
+                consumer0.ack(message);
+            }
+            // subscribed consumer leaves shared pass and continues after the last read message
+            IConsumer consumer1 = consumers.get(1);
+            CountDownLatch latch = new CountDownLatch(1);
+            consumer1.subscribeMessage(message -> {
+                assertEquals("third", message.getContent());
+                latch.countDown();
+            });
+            producer.offer("tagA", null, "third");
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            QueueMessage message = consumers.get(2).take();
+            assertEquals("third", message.getContent());
+            consumers.get(2).ack(message);
+        }
+    }
+
+    @Test
+    public void getConsumer_NonBlockingIdleStrategyOnReaderThreads_AllConsumed() throws InterruptedException {
+        for (IdleStrategyType type : Arrays.asList(IdleStrategyType.SLEEP, IdleStrategyType.BUSY_SPIN, IdleStrategyType.BACKOFF)) {
+            SimpleQueueConfig sharedConfig = new SimpleQueueConfig.Builder()
+                    .setDataDir(dir)
+                    .setKeepDays(1)
+                    .setRollCycleType(RollCycleType.HOURLY)
+                    .setReaderThreads(1)
+                    .setIdleStrategyType(type)
+                    .build();
+            try (SimpleQueue queue = new SimpleQueue(sharedConfig)) {
+                IConsumer consumer = queue.getConsumer("consumer-" + type, ConsumeFromWhere.LAST);
+                // consumer is idle before offer, not woken up by flush
+                Thread.sleep(50);
+                queue.offer("test-" + type);
+                Optional<QueueMessage> message = consumer.take(1, TimeUnit.SECONDS);
+                assertTrue(message.isPresent());
+                assertEquals("test-" + type, message.get().getContent());
+                consumer.ack(message.get());
+            }
+        }
+    }
+
+    @Test
+    public void getConsumer_OneConsumerNotTaking_OtherConsumerNotBlocked() throws InterruptedException {
+        SimpleQueueConfig sharedConfig = new SimpleQueueConfig.Builder()
+                .setDataDir(dir)
+                .setKeepDays(1)
+                .setRollCycleType(RollCycleType.HOURLY)
+                .setReaderThreads(1)
+                .build();
+        try (SimpleQueue queue = new SimpleQueue(sharedConfig)) {
+            // cache of this consumer is full and never taken
+            queue.getConsumer("slowConsumer", ConsumeFromWhere.FIRST);
+            IConsumer consumer = queue.getConsumer("consumer1", ConsumeFromWhere.FIRST);
+            int count = 12000;
+            for (int i = 0; i < count; i++) {
+                queue.offer("test" + i);
+            }
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < count; i++) {
+                QueueMessage message = consumer.take();
+                assertEquals("test" + i, message.getContent());
+                consumer.ack(message);
+            }
+            assertTrue(System.currentTimeMillis() - start < 5000);
+        }
+    }
+
+    @Test
+    public void getConsumer_NoReaderThreads_ConsumedByOwnThread() throws InterruptedException {
+        SimpleQueueConfig ownThreadConfig = new SimpleQueueConfig.Builder()
+                .setDataDir(dir)
+                .setKeepDays(1)
+                .setRollCycleType(RollCycleType.HOURLY)
+                .setReaderThreads(0)
+                .build();
+        try (SimpleQueue queue = new SimpleQueue(ownThreadConfig)) {
+            IConsumer consumer = queue.getConsumer("consumer1", ConsumeFromWhere.FIRST);
+            queue.offer("test1");
+            assertEquals("test1", consumer.take().getContent());
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.model.message.MessageHeader;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("all")
+public class TagDictionaryTest {
+
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = new File("./test");
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void getOrCreateId_SameTag_SameId() {
+        try (TagDictionary tagDictionary = new TagDictionary(dir)) {
+            assertEquals(MessageHeader.NULL_TAG_ID, tagDictionary.getOrCreateId(null));
+            int idA = tagDictionary.getOrCreateId("tagA");
+            int idB = tagDictionary.getOrCreateId("tagB");
+            assertTrue(idA > 0);
+            assertNotEquals(idA, idB);
+            assertEquals(idA, tagDictionary.getOrCreateId("tagA"));
+            assertEquals("tagA", tagDictionary.getTag(idA));
+            assertEquals("tagB", tagDictionary.getTag(idB));
+            assertNull(tagDictionary.getTag(MessageHeader.NULL_TAG_ID));
+        }
+    }
+
+    @Test
+    public void getTag_OtherInstance_ReadFromFile() {
+        try (TagDictionary writer = new TagDictionary(dir);
+             TagDictionary reader = new TagDictionary(dir)) {
+            int id = writer.getOrCreateId("tagA");
+            assertEquals("tagA", reader.getTag(id));
+            // another writer get the same id
+            assertEquals(id, reader.getOrCreateId("tagA"));
+        }
+    }
+
+    @Test
+    public void getTag_UnknownId_ThrowsIllegalStateException() {
+        try (TagDictionary tagDictionary = new TagDictionary(dir)) {
+            assertThrows(IllegalStateException.class, () -> tagDictionary.getTag(100));
+        }
+    }
+
+    @Test
+    public void constructor_NotUsed_NoFileCreated() {
+        try (TagDictionary tagDictionary = new TagDictionary(dir)) {
+            assertFalse(new File(dir, TagDictionary.TAG_TO_ID_FILE_NAME).exists());
+        }
+    }
+}
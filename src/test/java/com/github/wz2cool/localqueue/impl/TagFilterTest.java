@@ -0,0 +1,62 @@
+package com.github.wz2cool.localqueue.impl;
+
+import com.github.wz2cool.localqueue.model.message.InternalWriteMessage;
+import com.github.wz2cool.localqueue.model.message.MessageHeader;
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("all")
+public class TagFilterTest {
+
+    private Bytes<?> encode(String tag, int tagId) {
+        InternalWriteMessage message = new InternalWriteMessage();
+        message.setTag(tag);
+        message.setTagId(tagId);
+        message.setMessageKey("key");
+        message.setContent("content");
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        message.writeMarshallable(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void matches_LegacyHeader_CompareRawBytes() {
+        TagFilter tagFilter = new TagFilter(new HashSet<>(Arrays.asList("tagA", "标签")), id -> null);
+        assertTrue(tagFilter.matches(encode("tagA", MessageHeader.NO_TAG_ID)));
+        assertTrue(tagFilter.matches(encode("标签", MessageHeader.NO_TAG_ID)));
+        assertFalse(tagFilter.matches(encode("tagB", MessageHeader.NO_TAG_ID)));
+        assertFalse(tagFilter.matches(encode("tagAA", MessageHeader.NO_TAG_ID)));
+        assertFalse(tagFilter.matches(encode(null, MessageHeader.NO_TAG_ID)));
+    }
+
+    @Test
+    public void matches_CompactHeader_CompareTagId() {
+        int[] resolveCount = new int[1];
+        TagFilter tagFilter = new TagFilter(new HashSet<>(Arrays.asList("tagA")), id -> {
+            resolveCount[0]++;
+            return id == 1 ? "tagA" : "tagB";
+        });
+        assertTrue(tagFilter.matches(encode("tagA", 1)));
+        assertFalse(tagFilter.matches(encode("tagB", 2)));
+        assertTrue(tagFilter.matches(encode("tagA", 1)));
+        assertFalse(tagFilter.matches(encode(null, MessageHeader.NULL_TAG_ID)));
+        assertTrue(tagFilter.matches(encode("tagA", MessageHeader.INLINE_TAG_ID)));
+        assertFalse(tagFilter.matches(encode("tagC", MessageHeader.INLINE_TAG_ID)));
+        // tag id is only resolved once
+        assertEquals(2, resolveCount[0]);
+    }
+
+    @Test
+    public void matches_MatchAll_AlwaysTrue() {
+        TagFilter tagFilter = new TagFilter(new HashSet<>(Arrays.asList("*")), id -> null);
+        Bytes<?> bytes = encode(null, MessageHeader.NO_TAG_ID);
+        assertTrue(tagFilter.matches(bytes));
+        // read position not changed
+        assertEquals(0, bytes.readPosition());
+    }
+}
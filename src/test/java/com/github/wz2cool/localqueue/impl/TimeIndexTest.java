@@ -0,0 +1,78 @@
+package com.github.wz2cool.localqueue.impl;
+
+import net.openhft.chronicle.queue.RollCycle;
+import net.openhft.chronicle.queue.RollCycles;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("all")
+public class TimeIndexTest {
+
+    private static final RollCycle ROLL_CYCLE = RollCycles.FAST_HOURLY;
+    private static final int CYCLE = 480_000;
+
+    private File dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = new File("./test");
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void floor_EntriesWrittenByInterval_ReturnsLastEntryBeforeTimestamp() {
+        try (TimeIndex timeIndex = new TimeIndex(dir, ROLL_CYCLE, 100)) {
+            // one message per 10 ms, so one entry per 10 messages
+            for (int i = 0; i < 1000; i++) {
+                timeIndex.put(10_000 + i * 10L, ROLL_CYCLE.toIndex(CYCLE, i));
+            }
+            assertEquals(-1, timeIndex.floor(CYCLE, 10_000));
+            assertEquals(ROLL_CYCLE.toIndex(CYCLE, 0), timeIndex.floor(CYCLE, 10_001));
+            assertEquals(ROLL_CYCLE.toIndex(CYCLE, 0), timeIndex.floor(CYCLE, 10_100));
+            assertEquals(ROLL_CYCLE.toIndex(CYCLE, 10), timeIndex.floor(CYCLE, 10_101));
+            assertEquals(ROLL_CYCLE.toIndex(CYCLE, 500), timeIndex.floor(CYCLE, 15_050));
+            assertEquals(ROLL_CYCLE.toIndex(CYCLE, 990), timeIndex.floor(CYCLE, Long.MAX_VALUE));
+            // cycle not indexed
+            assertEquals(-1, timeIndex.floor(CYCLE + 1, 15_050));
+        }
+    }
+
+    @Test
+    public void put_NewCycle_FirstMessageAlwaysIndexed() {
+        try (TimeIndex timeIndex = new TimeIndex(dir, ROLL_CYCLE, 1000)) {
+            timeIndex.put(10_000, ROLL_CYCLE.toIndex(CYCLE, 0));
+            timeIndex.put(10_001, ROLL_CYCLE.toIndex(CYCLE + 1, 0));
+            assertEquals(ROLL_CYCLE.toIndex(CYCLE, 0), timeIndex.floor(CYCLE, 20_000));
+            assertEquals(ROLL_CYCLE.toIndex(CYCLE + 1, 0), timeIndex.floor(CYCLE + 1, 20_000));
+        }
+    }
+
+    @Test
+    public void put_Reopen_ContinueAfterLastEntry() {
+        try (TimeIndex timeIndex = new TimeIndex(dir, ROLL_CYCLE, 100)) {
+            timeIndex.put(10_000, ROLL_CYCLE.toIndex(CYCLE, 0));
+        }
+        try (TimeIndex timeIndex = new TimeIndex(dir, ROLL_CYCLE, 100)) {
+            // clock goes back, entry time is kept ordered
+            timeIndex.put(9_000, ROLL_CYCLE.toIndex(CYCLE, 1));
+            timeIndex.put(10_050, ROLL_CYCLE.toIndex(CYCLE, 2));
+            timeIndex.put(10_200, ROLL_CYCLE.toIndex(CYCLE, 3));
+            assertEquals(-1, timeIndex.floor(CYCLE, 10_000));
+            assertEquals(ROLL_CYCLE.toIndex(CYCLE, 1), timeIndex.floor(CYCLE, 10_001));
+            assertEquals(ROLL_CYCLE.toIndex(CYCLE, 1), timeIndex.floor(CYCLE, 10_200));
+            assertEquals(ROLL_CYCLE.toIndex(CYCLE, 3), timeIndex.floor(CYCLE, 10_201));
+        }
+    }
+}
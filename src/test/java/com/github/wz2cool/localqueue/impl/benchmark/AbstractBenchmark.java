@@ -0,0 +1,126 @@
+package com.github.wz2cool.localqueue.impl.benchmark;
+
+import com.github.wz2cool.localqueue.impl.SimpleProducer;
+import com.github.wz2cool.localqueue.model.config.SimpleConsumerConfig;
+import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
+import com.github.wz2cool.localqueue.model.enums.ConsumeFromWhere;
+import com.github.wz2cool.localqueue.model.enums.WriteMode;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.IntFunction;
+
+/**
+ * shared scaffold of benchmarks: fixture dir, message writing, best of runs and result printing.
+ * subclasses only keep their scenario and are enabled by @EnabledIfSystemProperty.
+ * run with: mvn test -Dtest=XxxBenchmark -Dbenchmark=true, message count by -Dbenchmark.messageCount=N
+ */
+@SuppressWarnings("all")
+abstract class AbstractBenchmark {
+
+    protected static final String CONTENT = "{\"id\":123456789,\"name\":\"local-queue-benchmark\",\"value\":3.1415926}";
+
+    protected final File dir = new File("./test");
+    private final String name = "[" + getClass().getSimpleName() + "]";
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    protected static int messageCount(final int defaultCount) {
+        return Integer.getInteger("benchmark.messageCount", defaultCount);
+    }
+
+    /**
+     * producer writes to fixture dir directly, so that messages are written when offer returns.
+     */
+    protected SimpleProducerConfig.Builder directProducerConfig() {
+        return new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setWriteMode(WriteMode.DIRECT);
+    }
+
+    /**
+     * consumer reads fixture dir from the first message.
+     */
+    protected SimpleConsumerConfig.Builder consumerConfig(final String consumerId) {
+        return new SimpleConsumerConfig.Builder()
+                .setDataDir(dir)
+                .setConsumerId(consumerId)
+                .setConsumeFromWhere(ConsumeFromWhere.FIRST)
+                .setPullInterval(1);
+    }
+
+    /**
+     * write messages with key "key" + i and {@link #CONTENT}.
+     *
+     * @param tagOf tag of message i, null for no tag
+     */
+    protected void write(final SimpleProducerConfig config, final int messageCount, final IntFunction<String> tagOf) {
+        try (SimpleProducer producer = new SimpleProducer(config)) {
+            for (int i = 0; i < messageCount; i++) {
+                producer.offer(tagOf.apply(i), "key" + i, CONTENT);
+            }
+        }
+    }
+
+    /**
+     * run benchmark several times and return the best time, so that gc / jit noise is ignored.
+     */
+    protected long bestOf(final int runs, final Run run) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            best = Math.min(best, run.run());
+        }
+        return best;
+    }
+
+    protected void printThroughput(final String caseName, final int messageCount, final long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%s %-14s messages: %d, time: %.3f s, throughput: %,.0f msg/s%n",
+                name, caseName, messageCount, seconds, messageCount / seconds);
+    }
+
+    protected void printAverage(final String caseName, final int messageCount, final int ops, final long elapsedNanos) {
+        System.out.printf("%s %-6s messages: %d, ops: %d, avg: %.3f ms/op%n",
+                name, caseName, messageCount, ops, elapsedNanos / 1_000_000.0 / ops);
+    }
+
+    protected void printChecksum(final long checksum) {
+        System.out.println(name + " checksum: " + checksum);
+    }
+
+    /**
+     * @param sortedLatencies latencies (ns) in ascending order
+     */
+    protected void printPercentiles(final String caseName, final long[] sortedLatencies) {
+        System.out.printf("%s %-9s count: %d, p50: %,d ns, p99: %,d ns, p99.9: %,d ns, max: %,d ns%n",
+                name, caseName, sortedLatencies.length, percentile(sortedLatencies, 50), percentile(sortedLatencies, 99),
+                percentile(sortedLatencies, 99.9), sortedLatencies[sortedLatencies.length - 1]);
+    }
+
+    private static long percentile(final long[] sortedLatencies, final double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, Math.min(index, sortedLatencies.length - 1))];
+    }
+
+    /**
+     * one run of benchmark.
+     */
+    protected interface Run {
+
+        /**
+         * @return elapsed time (ns)
+         */
+        long run() throws Exception;
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.wz2cool.localqueue.impl.benchmark;
+
+import com.github.wz2cool.localqueue.impl.SimpleConsumer;
+import com.github.wz2cool.localqueue.model.config.SimpleConsumerConfig;
+import com.github.wz2cool.localqueue.model.message.QueueMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * compare consume throughput of taking the close lock per message (readBatchSize = 1) and per batch.
+ * run with: mvn test -Dtest=ConsumerReadBatchBenchmark -Dbenchmark=true
+ */
+@SuppressWarnings("all")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ConsumerReadBatchBenchmark extends AbstractBenchmark {
+
+    private static final int MESSAGE_COUNT = messageCount(2_000_000);
+
+    @Test
+    public void benchmark() throws Exception {
+        write(directProducerConfig().build(), MESSAGE_COUNT, i -> "tag");
+
+        // warm up
+        runTake("warmUpTake1", 1);
+        runTake("warmUpTake256", 256);
+        runSubscribe("warmUpView1", 1);
+        runSubscribe("warmUpView256", 256);
+
+        printThroughput("take 1", MESSAGE_COUNT, runTake("take1", 1));
+        printThroughput("take 256", MESSAGE_COUNT, runTake("take256", 256));
+        printThroughput("view 1", MESSAGE_COUNT, runSubscribe("view1", 1));
+        printThroughput("view 256", MESSAGE_COUNT, runSubscribe("view256", 256));
+    }
+
+    private SimpleConsumerConfig readBatchConfig(String consumerId, int readBatchSize) {
+        return consumerConfig(consumerId).setReadBatchSize(readBatchSize).build();
+    }
+
+    /**
+     * read thread only, no cache hand off.
+     */
+    private long runSubscribe(String consumerId, int readBatchSize) throws Exception {
+        long start = System.nanoTime();
+        AtomicLong checksum = new AtomicLong();
+        CountDownLatch latch = new CountDownLatch(MESSAGE_COUNT);
+        try (SimpleConsumer consumer = new SimpleConsumer(readBatchConfig(consumerId, readBatchSize))) {
+            consumer.subscribe(message -> {
+                checksum.lazySet(checksum.get() + message.getContentLength());
+                latch.countDown();
+            });
+            latch.await(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - start;
+        printChecksum(checksum.get());
+        return elapsed;
+    }
+
+    private long runTake(String consumerId, int readBatchSize) throws Exception {
+        SimpleConsumerConfig consumerConfig = readBatchConfig(consumerId, readBatchSize);
+        long start = System.nanoTime();
+        long checksum = 0;
+        try (SimpleConsumer consumer = new SimpleConsumer(consumerConfig)) {
+            int count = 0;
+            while (count < MESSAGE_COUNT) {
+                List<QueueMessage> messages = consumer.batchTake(1000);
+                for (QueueMessage message : messages) {
+                    checksum += message.getContent().length();
+                }
+                count += messages.size();
+                consumer.ack(messages);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        printChecksum(checksum);
+        return elapsed;
+    }
+}
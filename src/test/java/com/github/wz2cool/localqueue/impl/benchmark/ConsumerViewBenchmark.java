@@ -0,0 +1,69 @@
+package com.github.wz2cool.localqueue.impl.benchmark;
+
+import com.github.wz2cool.localqueue.impl.SimpleConsumer;
+import com.github.wz2cool.localqueue.model.message.QueueMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * compare consume throughput of batchTake (materialized messages) and subscribe (message view).
+ * run with: mvn test -Dtest=ConsumerViewBenchmark -Dbenchmark=true
+ */
+@SuppressWarnings("all")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ConsumerViewBenchmark extends AbstractBenchmark {
+
+    private static final int MESSAGE_COUNT = messageCount(1_000_000);
+
+    @Test
+    public void benchmark() throws Exception {
+        write(directProducerConfig().build(), MESSAGE_COUNT, i -> "tag");
+
+        // warm up
+        runBatchTake("warmUpTake");
+        runSubscribe("warmUpView");
+
+        printThroughput("batchTake", MESSAGE_COUNT, runBatchTake("take"));
+        printThroughput("subscribe", MESSAGE_COUNT, runSubscribe("view"));
+    }
+
+    private long runBatchTake(String consumerId) throws Exception {
+        long start = System.nanoTime();
+        long checksum = 0;
+        try (SimpleConsumer consumer = new SimpleConsumer(consumerConfig(consumerId).build())) {
+            int count = 0;
+            while (count < MESSAGE_COUNT) {
+                List<QueueMessage> messages = consumer.batchTake(1000);
+                for (QueueMessage message : messages) {
+                    checksum += message.getContent().length();
+                }
+                count += messages.size();
+                consumer.ack(messages);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        printChecksum(checksum);
+        return elapsed;
+    }
+
+    private long runSubscribe(String consumerId) throws Exception {
+        long start = System.nanoTime();
+        AtomicLong checksum = new AtomicLong();
+        CountDownLatch latch = new CountDownLatch(MESSAGE_COUNT);
+        try (SimpleConsumer consumer = new SimpleConsumer(consumerConfig(consumerId).build())) {
+            consumer.subscribe(message -> {
+                checksum.lazySet(checksum.get() + message.getContentLength());
+                latch.countDown();
+            });
+            latch.await(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - start;
+        printChecksum(checksum.get());
+        return elapsed;
+    }
+}
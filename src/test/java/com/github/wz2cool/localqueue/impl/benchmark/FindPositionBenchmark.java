@@ -0,0 +1,92 @@
+package com.github.wz2cool.localqueue.impl.benchmark;
+
+import com.github.wz2cool.localqueue.impl.SimpleConsumer;
+import com.github.wz2cool.localqueue.impl.TimeIndex;
+import com.github.wz2cool.localqueue.model.message.InternalReadMessage;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * latency of findPosition(timestamp) inside one roll cycle.
+ * index: binary search sparse time index, then scan a few messages.
+ * bisect: time index dir is moved away, consumer bisects over write time of the cycle.
+ * scan: read header of every message from the start of cycle (the way before bisect).
+ * 10M messages: -Dbenchmark.messageCount=10000000
+ * best of 3 runs is printed.
+ * run with: mvn test -Dtest=FindPositionBenchmark -Dbenchmark=true
+ */
+@SuppressWarnings("all")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class FindPositionBenchmark extends AbstractBenchmark {
+
+    private static final int MESSAGE_COUNT = messageCount(1_000_000);
+    private static final int FIND_COUNT = 20;
+
+    @Test
+    public void benchmark() throws Exception {
+        long windowStart = System.currentTimeMillis();
+        write(directProducerConfig().setTimeIndex(true).setTimeIndexInterval(10).build(), MESSAGE_COUNT, i -> null);
+        long windowEnd = System.currentTimeMillis();
+
+        long indexBest = bestOf(3, () -> runFind("index", windowStart, windowEnd));
+        File movedDir = new File(dir.getParentFile(), "time-index-moved");
+        FileUtils.moveDirectory(TimeIndex.getIndexDir(dir), movedDir);
+        long bisectBest;
+        long scanBest;
+        try {
+            bisectBest = bestOf(3, () -> runFind("bisect", windowStart, windowEnd));
+            scanBest = bestOf(3, () -> runLinearScan(windowStart, windowEnd));
+        } finally {
+            FileUtils.deleteDirectory(movedDir);
+        }
+        printAverage("index", MESSAGE_COUNT, FIND_COUNT, indexBest);
+        printAverage("bisect", MESSAGE_COUNT, FIND_COUNT, bisectBest);
+        printAverage("scan", MESSAGE_COUNT, FIND_COUNT, scanBest);
+    }
+
+    private long runLinearScan(long windowStart, long windowEnd) {
+        Random random = new Random(42);
+        try (ChronicleQueue queue = ChronicleQueue.singleBuilder(dir).build()) {
+            long start = System.nanoTime();
+            InternalReadMessage message = new InternalReadMessage(true);
+            for (int i = 0; i < FIND_COUNT; i++) {
+                long timestamp = windowStart + (long) (random.nextDouble() * (windowEnd - windowStart));
+                boolean found = false;
+                try (ExcerptTailer tailer = queue.createTailer()) {
+                    while (tailer.readBytes(message)) {
+                        if (message.getWriteTime() >= timestamp) {
+                            found = true;
+                            break;
+                        }
+                    }
+                }
+                if (!found) {
+                    throw new IllegalStateException("timestamp " + timestamp + " not found");
+                }
+            }
+            return System.nanoTime() - start;
+        }
+    }
+
+    private long runFind(String consumerId, long windowStart, long windowEnd) {
+        Random random = new Random(42);
+        try (SimpleConsumer consumer = new SimpleConsumer(consumerConfig(consumerId + System.nanoTime()).build())) {
+            long start = System.nanoTime();
+            for (int i = 0; i < FIND_COUNT; i++) {
+                long timestamp = windowStart + (long) (random.nextDouble() * (windowEnd - windowStart));
+                Optional<Long> position = consumer.findPosition(timestamp);
+                if (!position.isPresent()) {
+                    throw new IllegalStateException("timestamp " + timestamp + " not found");
+                }
+            }
+            return System.nanoTime() - start;
+        }
+    }
+}
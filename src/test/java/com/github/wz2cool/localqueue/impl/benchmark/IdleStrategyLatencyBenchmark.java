@@ -0,0 +1,57 @@
+package com.github.wz2cool.localqueue.impl.benchmark;
+
+import com.github.wz2cool.localqueue.impl.SimpleConsumer;
+import com.github.wz2cool.localqueue.impl.SimpleProducer;
+import com.github.wz2cool.localqueue.model.enums.ConsumeFromWhere;
+import com.github.wz2cool.localqueue.model.enums.IdleStrategyType;
+import com.github.wz2cool.localqueue.model.message.QueueMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compare end to end latency (offer -> take) of idle strategies, messages are sent one by one
+ * with a gap so that read thread is idle before each message.
+ * run with: mvn test -Dtest=IdleStrategyLatencyBenchmark -Dbenchmark=true
+ */
+@SuppressWarnings("all")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class IdleStrategyLatencyBenchmark extends AbstractBenchmark {
+
+    private static final int MESSAGE_COUNT = messageCount(1_000);
+    private static final long PULL_INTERVAL = 10;
+
+    @Test
+    public void benchmark() throws Exception {
+        try (SimpleProducer producer = new SimpleProducer(directProducerConfig().build())) {
+            for (IdleStrategyType type : IdleStrategyType.values()) {
+                run(producer, type);
+            }
+        }
+    }
+
+    private void run(SimpleProducer producer, IdleStrategyType type) throws Exception {
+        long[] latencies = new long[MESSAGE_COUNT];
+        try (SimpleConsumer consumer = new SimpleConsumer(consumerConfig(type.name())
+                .setConsumeFromWhere(ConsumeFromWhere.LAST)
+                .setPullInterval(PULL_INTERVAL)
+                .setIdleStrategyType(type)
+                .build())) {
+            producer.addFlushListener(consumer::wakeUp);
+            TimeUnit.MILLISECONDS.sleep(100);
+            for (int i = 0; i < MESSAGE_COUNT; i++) {
+                long start = System.nanoTime();
+                producer.offer("key", String.valueOf(start));
+                QueueMessage message = consumer.take();
+                latencies[i] = System.nanoTime() - start;
+                consumer.ack(message);
+                // let read thread go idle, random gap avoids syncing with sleep
+                TimeUnit.MICROSECONDS.sleep(500 + (i * 7919L) % 2000);
+            }
+        }
+        Arrays.sort(latencies);
+        printPercentiles(type.name(), latencies);
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.wz2cool.localqueue.impl.benchmark;
+
+import com.github.wz2cool.localqueue.impl.KeyIndex;
+import com.github.wz2cool.localqueue.impl.SimpleConsumer;
+import com.github.wz2cool.localqueue.model.message.QueueMessage;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * latency of get(messageKey, start, end) over the whole written window.
+ * index: lookup by per-cycle key index.
+ * scan: key index dir is moved away, consumer falls back to scan.
+ * best of 3 runs is printed.
+ * run with: mvn test -Dtest=KeyLookupBenchmark -Dbenchmark=true
+ */
+@SuppressWarnings("all")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class KeyLookupBenchmark extends AbstractBenchmark {
+
+    private static final int MESSAGE_COUNT = messageCount(1_000_000);
+    private static final int LOOKUP_COUNT = 20;
+
+    @Test
+    public void benchmark() throws Exception {
+        long windowStart = System.currentTimeMillis();
+        write(directProducerConfig().setKeyIndex(true).setKeyIndexEntries(MESSAGE_COUNT + 1).build(), MESSAGE_COUNT, i -> null);
+        long windowEnd = System.currentTimeMillis();
+
+        long indexBest = bestOf(3, () -> runLookup("index", windowStart, windowEnd));
+        File movedDir = new File(dir.getParentFile(), "key-index-moved");
+        FileUtils.moveDirectory(KeyIndex.getIndexDir(dir), movedDir);
+        long scanBest;
+        try {
+            scanBest = bestOf(3, () -> runLookup("scan", windowStart, windowEnd));
+        } finally {
+            FileUtils.deleteDirectory(movedDir);
+        }
+        printAverage("index", MESSAGE_COUNT, LOOKUP_COUNT, indexBest);
+        printAverage("scan", MESSAGE_COUNT, LOOKUP_COUNT, scanBest);
+    }
+
+    private long runLookup(String consumerId, long windowStart, long windowEnd) {
+        Random random = new Random(42);
+        try (SimpleConsumer consumer = new SimpleConsumer(consumerConfig(consumerId + System.nanoTime()).build())) {
+            long start = System.nanoTime();
+            for (int i = 0; i < LOOKUP_COUNT; i++) {
+                int id = random.nextInt(MESSAGE_COUNT);
+                Optional<QueueMessage> message = consumer.get("key" + id, windowStart, windowEnd);
+                if (!message.isPresent()) {
+                    throw new IllegalStateException("key" + id + " not found");
+                }
+            }
+            return System.nanoTime() - start;
+        }
+    }
+}
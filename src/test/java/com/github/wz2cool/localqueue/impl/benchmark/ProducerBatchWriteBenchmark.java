@@ -0,0 +1,55 @@
+package com.github.wz2cool.localqueue.impl.benchmark;
+
+import com.github.wz2cool.localqueue.impl.SimpleProducer;
+import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compare the per message write loop with batch write.
+ * run with: mvn test -Dtest=ProducerBatchWriteBenchmark -Dbenchmark=true
+ */
+@SuppressWarnings("all")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ProducerBatchWriteBenchmark extends AbstractBenchmark {
+
+    private static final int MESSAGE_COUNT = messageCount(1_000_000);
+
+    @Test
+    public void benchmark() throws Exception {
+        // warm up
+        run(false, MESSAGE_COUNT / 10);
+        run(true, MESSAGE_COUNT / 10);
+
+        printThroughput("loop write", MESSAGE_COUNT, run(false, MESSAGE_COUNT));
+        printThroughput("batch write", MESSAGE_COUNT, run(true, MESSAGE_COUNT));
+    }
+
+    private long run(boolean batchWrite, int messageCount) throws Exception {
+        FileUtils.deleteDirectory(dir);
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setBatchWrite(batchWrite)
+                .build();
+        try (SimpleProducer producer = new SimpleProducer(config)) {
+            producer.offer("init");
+            waitWritten(producer, 0);
+            long startPosition = producer.getLastPosition();
+            long start = System.nanoTime();
+            for (int i = 0; i < messageCount; i++) {
+                producer.offer("tag", "key" + i, CONTENT);
+            }
+            waitWritten(producer, startPosition + messageCount);
+            return System.nanoTime() - start;
+        }
+    }
+
+    private void waitWritten(SimpleProducer producer, long position) throws InterruptedException {
+        while (producer.getLastPosition() < position) {
+            TimeUnit.MICROSECONDS.sleep(100);
+        }
+    }
+}
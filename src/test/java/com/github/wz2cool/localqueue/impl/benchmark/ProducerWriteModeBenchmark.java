@@ -0,0 +1,49 @@
+package com.github.wz2cool.localqueue.impl.benchmark;
+
+import com.github.wz2cool.localqueue.impl.SimpleProducer;
+import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
+import com.github.wz2cool.localqueue.model.enums.WriteMode;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+
+/**
+ * compare offer latency (until message written) of queued and direct write mode.
+ * run with: mvn test -Dtest=ProducerWriteModeBenchmark -Dbenchmark=true
+ */
+@SuppressWarnings("all")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class ProducerWriteModeBenchmark extends AbstractBenchmark {
+
+    private static final int MESSAGE_COUNT = messageCount(200_000);
+
+    @Test
+    public void benchmark() throws Exception {
+        // warm up
+        run(WriteMode.QUEUED, MESSAGE_COUNT / 10);
+        run(WriteMode.DIRECT, MESSAGE_COUNT / 10);
+
+        printPercentiles(WriteMode.QUEUED.name(), run(WriteMode.QUEUED, MESSAGE_COUNT));
+        printPercentiles(WriteMode.DIRECT.name(), run(WriteMode.DIRECT, MESSAGE_COUNT));
+    }
+
+    private long[] run(WriteMode writeMode, int messageCount) throws Exception {
+        FileUtils.deleteDirectory(dir);
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(dir)
+                .setWriteMode(writeMode)
+                .build();
+        long[] latencies = new long[messageCount];
+        try (SimpleProducer producer = new SimpleProducer(config)) {
+            for (int i = 0; i < messageCount; i++) {
+                long start = System.nanoTime();
+                producer.offerAndWait("tag", "key" + i, CONTENT);
+                latencies[i] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.wz2cool.localqueue.impl.benchmark;
+
+import com.github.wz2cool.localqueue.impl.SimpleConsumer;
+import com.github.wz2cool.localqueue.impl.TagDictionary;
+import com.github.wz2cool.localqueue.model.message.InternalReadMessage;
+import com.github.wz2cool.localqueue.model.message.QueueMessage;
+import net.openhft.chronicle.queue.ChronicleQueue;
+import net.openhft.chronicle.queue.ExcerptTailer;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * scan throughput of a consumer which only selects 1% of messages.
+ * decode: read and decode every excerpt then compare tag (the way before fast path).
+ * legacy / compact: consumer skip non-matching excerpts by raw tag bytes / tag id.
+ * index: consumer jump between matching positions by per-tag index.
+ * best of 3 runs is printed.
+ * run with: mvn test -Dtest=SelectorTagScanBenchmark -Dbenchmark=true
+ */
+@SuppressWarnings("all")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class SelectorTagScanBenchmark extends AbstractBenchmark {
+
+    private static final int MESSAGE_COUNT = messageCount(1_000_000);
+    private static final int HIT_EVERY = 100;
+    private static final int EXPECTED_HITS = (MESSAGE_COUNT + HIT_EVERY - 1) / HIT_EVERY;
+
+    @Test
+    public void benchmark() throws Exception {
+        for (boolean compactHeader : new boolean[]{false, true}) {
+            FileUtils.deleteDirectory(dir);
+            write(directProducerConfig().setCompactHeader(compactHeader).setTagIndex(true).build(), MESSAGE_COUNT,
+                    i -> i % HIT_EVERY == 0 ? "hit" : "miss-" + (i % 20));
+            String header = compactHeader ? "compact" : "legacy";
+            // warm up
+            runDecode();
+            runConsumer("warmUp", false);
+            runConsumer("warmUp", true);
+
+            printThroughput("decode/" + header, MESSAGE_COUNT, bestOf(3, this::runDecode));
+            printThroughput("skip/" + header, MESSAGE_COUNT, bestOf(3, () -> runConsumer("consumer", false)));
+            printThroughput("index/" + header, MESSAGE_COUNT, bestOf(3, () -> runConsumer("indexConsumer", true)));
+        }
+    }
+
+    private long runDecode() {
+        int hits = 0;
+        long start;
+        try (ChronicleQueue queue = ChronicleQueue.singleBuilder(dir).build();
+             TagDictionary tagDictionary = new TagDictionary(dir);
+             ExcerptTailer tailer = queue.createTailer()) {
+            start = System.nanoTime();
+            InternalReadMessage message = new InternalReadMessage(Collections.singleton("hit"), false, tagDictionary::getTag);
+            while (tailer.readBytes(message)) {
+                if ("hit".equals(message.getTag())) {
+                    hits++;
+                }
+            }
+        }
+        check(hits);
+        return System.nanoTime() - start;
+    }
+
+    private long runConsumer(String consumerId, boolean consumeByTagIndex) throws InterruptedException {
+        long start;
+        int hits = 0;
+        try (SimpleConsumer consumer = new SimpleConsumer(consumerConfig(consumerId + System.nanoTime())
+                .setSelectorTag("hit")
+                .setConsumeByTagIndex(consumeByTagIndex)
+                .build())) {
+            // read thread has started, so this includes a little read time.
+            start = System.nanoTime();
+            while (hits < EXPECTED_HITS) {
+                List<QueueMessage> messages = consumer.batchTake(1000);
+                hits += messages.size();
+                consumer.ack(messages);
+            }
+        }
+        check(hits);
+        return System.nanoTime() - start;
+    }
+
+    private void check(int hits) {
+        if (hits != EXPECTED_HITS) {
+            throw new IllegalStateException("hits: " + hits + ", expected: " + EXPECTED_HITS);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.wz2cool.localqueue.impl.config;
+
+import com.github.wz2cool.localqueue.model.config.ParallelConsumerConfig;
+import com.github.wz2cool.localqueue.model.config.SimpleConsumerConfig;
+import com.github.wz2cool.localqueue.model.enums.AckMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SuppressWarnings("all")
+public class ParallelConsumerConfigTest {
+
+    @TempDir
+    File tempDir;
+
+    private SimpleConsumerConfig consumerConfig;
+
+    @BeforeEach
+    public void setUp() {
+        consumerConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setAckMode(AckMode.SELECTIVE)
+                .build();
+    }
+
+    @Test
+    public void testBuilder() {
+        ParallelConsumerConfig config = new ParallelConsumerConfig.Builder()
+                .setConsumerConfig(consumerConfig)
+                .setParallelism(4)
+                .setLaneCapacity(10)
+                .setBatchSize(20)
+                .setMaxRetries(3)
+                .build();
+        assertSame(consumerConfig, config.getConsumerConfig());
+        assertEquals(4, config.getParallelism());
+        assertEquals(10, config.getLaneCapacity());
+        assertEquals(20, config.getBatchSize());
+        assertEquals(3, config.getMaxRetries());
+    }
+
+    @Test
+    public void build_Default() {
+        ParallelConsumerConfig config = new ParallelConsumerConfig.Builder()
+                .setConsumerConfig(consumerConfig)
+                .build();
+        assertEquals(Runtime.getRuntime().availableProcessors(), config.getParallelism());
+        assertEquals(100, config.getLaneCapacity());
+        assertEquals(100, config.getBatchSize());
+        assertEquals(16, config.getMaxRetries());
+    }
+
+    @Test
+    public void build_NullConsumerConfig_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelConsumerConfig.Builder().build());
+    }
+
+    @Test
+    public void build_CumulativeAckMode_ShouldThrowException() {
+        SimpleConsumerConfig cumulativeConfig = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .build();
+        assertThrows(IllegalArgumentException.class, () -> new ParallelConsumerConfig.Builder()
+                .setConsumerConfig(cumulativeConfig)
+                .build());
+    }
+
+    @Test
+    public void build_InvalidSize_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelConsumerConfig.Builder()
+                .setConsumerConfig(consumerConfig).setParallelism(0).build());
+        assertThrows(IllegalArgumentException.class, () -> new ParallelConsumerConfig.Builder()
+                .setConsumerConfig(consumerConfig).setLaneCapacity(0).build());
+        assertThrows(IllegalArgumentException.class, () -> new ParallelConsumerConfig.Builder()
+                .setConsumerConfig(consumerConfig).setBatchSize(0).build());
+        assertThrows(IllegalArgumentException.class, () -> new ParallelConsumerConfig.Builder()
+                .setConsumerConfig(consumerConfig).setMaxRetries(-2).build());
+    }
+}
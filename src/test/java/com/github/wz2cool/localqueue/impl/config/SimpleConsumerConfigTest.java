@@ -1,14 +1,24 @@
 package com.github.wz2cool.localqueue.impl.config;
 
+import com.github.wz2cool.localqueue.helper.ThreadHelper;
 import com.github.wz2cool.localqueue.model.config.SimpleConsumerConfig;
+import com.github.wz2cool.localqueue.model.enums.AckMode;
+import com.github.wz2cool.localqueue.model.enums.IdleStrategyType;
+import com.github.wz2cool.localqueue.model.enums.ThreadType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SuppressWarnings("all")
 public class SimpleConsumerConfigTest {
@@ -332,4 +342,141 @@ public class SimpleConsumerConfigTest {
                     .build();
         });
     }
+
+    @Test
+    public void testConsumeByTagIndex() {
+        SimpleConsumerConfig config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .build();
+        assertFalse(config.isConsumeByTagIndex());
+
+        config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setConsumeByTagIndex(true)
+                .build();
+        assertTrue(config.isConsumeByTagIndex());
+    }
+
+    @Test
+    public void testAckMode() {
+        SimpleConsumerConfig config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .build();
+        assertEquals(AckMode.CUMULATIVE, config.getAckMode());
+
+        config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setAckMode(AckMode.SELECTIVE)
+                .build();
+        assertEquals(AckMode.SELECTIVE, config.getAckMode());
+
+        assertThrows(IllegalArgumentException.class, () -> new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setAckMode(null)
+                .build());
+    }
+
+    @Test
+    public void testIdleStrategyType() {
+        SimpleConsumerConfig config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .build();
+        assertEquals(IdleStrategyType.SLEEP, config.getIdleStrategyType());
+
+        config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setIdleStrategyType(IdleStrategyType.BLOCKING)
+                .build();
+        assertEquals(IdleStrategyType.BLOCKING, config.getIdleStrategyType());
+
+        assertThrows(IllegalArgumentException.class, () -> new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setIdleStrategyType(null)
+                .build());
+    }
+
+    @Test
+    public void testReadBatchSize() {
+        SimpleConsumerConfig config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .build();
+        assertEquals(256, config.getReadBatchSize());
+
+        config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setReadBatchSize(1)
+                .build();
+        assertEquals(1, config.getReadBatchSize());
+
+        assertThrows(IllegalArgumentException.class, () -> new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setReadBatchSize(0)
+                .build());
+    }
+
+    @Test
+    public void testThreadType() {
+        SimpleConsumerConfig config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .build();
+        assertEquals(ThreadType.PLATFORM, config.getThreadType());
+
+        SimpleConsumerConfig.Builder virtualBuilder = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setThreadType(ThreadType.VIRTUAL);
+        if (ThreadHelper.isVirtualThreadSupported()) {
+            assertEquals(ThreadType.VIRTUAL, virtualBuilder.build().getThreadType());
+        } else {
+            assertThrows(IllegalArgumentException.class, virtualBuilder::build);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setThreadType(null)
+                .build());
+        // busy idle strategies never park
+        assertThrows(IllegalArgumentException.class, () -> new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setThreadType(ThreadType.VIRTUAL)
+                .setIdleStrategyType(IdleStrategyType.BUSY_SPIN)
+                .build());
+        assertThrows(IllegalArgumentException.class, () -> new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setThreadType(ThreadType.VIRTUAL)
+                .setIdleStrategyType(IdleStrategyType.YIELD)
+                .build());
+    }
+
+    @Test
+    public void testThreadFactory() {
+        SimpleConsumerConfig config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .build();
+        assertNull(config.getThreadFactory());
+
+        ThreadFactory threadFactory = Executors.defaultThreadFactory();
+        config = new SimpleConsumerConfig.Builder()
+                .setDataDir(tempDir)
+                .setConsumerId("consumer1")
+                .setThreadFactory(threadFactory)
+                .build();
+        assertSame(threadFactory, config.getThreadFactory());
+    }
 }
@@ -1,13 +1,23 @@
 package com.github.wz2cool.localqueue.impl.config;
 
+import com.github.wz2cool.localqueue.helper.ThreadHelper;
 import com.github.wz2cool.localqueue.model.config.SimpleProducerConfig;
+import com.github.wz2cool.localqueue.model.enums.OverflowPolicy;
+import com.github.wz2cool.localqueue.model.enums.ThreadType;
+import com.github.wz2cool.localqueue.model.enums.WriteMode;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SuppressWarnings("all")
 public class SimpleProducerConfigTest {
@@ -91,4 +101,202 @@ public class SimpleProducerConfigTest {
 
         assertEquals(1000, config.getFlushBatchSize());
     }
+
+    @Test
+    public void testBatchWrite() {
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .build();
+        assertFalse(config.isBatchWrite());
+
+        config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setBatchWrite(true)
+                .build();
+        assertTrue(config.isBatchWrite());
+    }
+
+    @Test
+    public void testCacheSizeAndOverflowPolicy() {
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .build();
+        assertEquals(65536, config.getCacheSize());
+        assertEquals(OverflowPolicy.BLOCK, config.getOverflowPolicy());
+
+        config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setCacheSize(1024)
+                .setOverflowPolicy(OverflowPolicy.DROP_OLDEST)
+                .build();
+        assertEquals(1024, config.getCacheSize());
+        assertEquals(OverflowPolicy.DROP_OLDEST, config.getOverflowPolicy());
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            new SimpleProducerConfig.Builder()
+                    .setDataDir(tempDir)
+                    .setCacheSize(0)
+                    .build();
+        });
+        assertEquals("cacheSize should > 0", exception.getMessage());
+
+        exception = assertThrows(IllegalArgumentException.class, () -> {
+            new SimpleProducerConfig.Builder()
+                    .setDataDir(tempDir)
+                    .setOverflowPolicy(null)
+                    .build();
+        });
+        assertEquals("overflowPolicy cannot be null", exception.getMessage());
+    }
+
+    @Test
+    public void testSyncOnWait() {
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .build();
+        assertFalse(config.isSyncOnWait());
+
+        config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setSyncOnWait(true)
+                .build();
+        assertTrue(config.isSyncOnWait());
+    }
+
+    @Test
+    public void testCompactHeader() {
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .build();
+        assertFalse(config.isCompactHeader());
+
+        config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setCompactHeader(true)
+                .build();
+        assertTrue(config.isCompactHeader());
+    }
+
+    @Test
+    public void testTagIndex() {
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .build();
+        assertFalse(config.isTagIndex());
+
+        config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setTagIndex(true)
+                .build();
+        assertTrue(config.isTagIndex());
+    }
+
+    @Test
+    public void testKeyIndex() {
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .build();
+        assertFalse(config.isKeyIndex());
+        assertEquals(1_000_000, config.getKeyIndexEntries());
+
+        config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setKeyIndex(true)
+                .setKeyIndexEntries(100)
+                .build();
+        assertTrue(config.isKeyIndex());
+        assertEquals(100, config.getKeyIndexEntries());
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            new SimpleProducerConfig.Builder()
+                    .setDataDir(tempDir)
+                    .setKeyIndexEntries(0)
+                    .build();
+        });
+        assertEquals("keyIndexEntries should > 0", exception.getMessage());
+    }
+
+    @Test
+    public void testTimeIndex() {
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .build();
+        assertFalse(config.isTimeIndex());
+        assertEquals(1000, config.getTimeIndexInterval());
+
+        config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setTimeIndex(true)
+                .setTimeIndexInterval(100)
+                .build();
+        assertTrue(config.isTimeIndex());
+        assertEquals(100, config.getTimeIndexInterval());
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            new SimpleProducerConfig.Builder()
+                    .setDataDir(tempDir)
+                    .setTimeIndexInterval(0)
+                    .build();
+        });
+        assertEquals("timeIndexInterval should > 0", exception.getMessage());
+    }
+
+    @Test
+    public void testWriteMode() {
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .build();
+        assertEquals(WriteMode.QUEUED, config.getWriteMode());
+
+        config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setWriteMode(WriteMode.DIRECT)
+                .build();
+        assertEquals(WriteMode.DIRECT, config.getWriteMode());
+
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+            new SimpleProducerConfig.Builder()
+                    .setDataDir(tempDir)
+                    .setWriteMode(null)
+                    .build();
+        });
+        assertEquals("writeMode cannot be null", exception.getMessage());
+    }
+
+    @Test
+    public void testThreadType() {
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .build();
+        assertEquals(ThreadType.PLATFORM, config.getThreadType());
+
+        SimpleProducerConfig.Builder virtualBuilder = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setThreadType(ThreadType.VIRTUAL);
+        if (ThreadHelper.isVirtualThreadSupported()) {
+            assertEquals(ThreadType.VIRTUAL, virtualBuilder.build().getThreadType());
+        } else {
+            assertThrows(IllegalArgumentException.class, virtualBuilder::build);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setThreadType(null)
+                .build());
+    }
+
+    @Test
+    public void testThreadFactory() {
+        SimpleProducerConfig config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .build();
+        assertNull(config.getThreadFactory());
+
+        ThreadFactory threadFactory = Executors.defaultThreadFactory();
+        config = new SimpleProducerConfig.Builder()
+                .setDataDir(tempDir)
+                .setThreadFactory(threadFactory)
+                .build();
+        assertSame(threadFactory, config.getThreadFactory());
+    }
 }
@@ -1,7 +1,9 @@
 package com.github.wz2cool.localqueue.impl.config;
 
 import com.github.wz2cool.localqueue.model.config.SimpleQueueConfig;
+import com.github.wz2cool.localqueue.model.enums.IdleStrategyType;
 import com.github.wz2cool.localqueue.model.enums.RollCycleType;
+import com.github.wz2cool.localqueue.model.enums.ThreadType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -78,4 +80,32 @@ public class SimpleQueueConfigTest {
         assertEquals(rollCycleType, config.getRollCycleType());
         assertEquals(timeZone, config.getTimeZone());
     }
+
+    @Test
+    public void build_IdleStrategyType() {
+        builder.setDataDir(new File("/tmp"));
+        assertEquals(IdleStrategyType.BLOCKING, builder.build().getIdleStrategyType());
+        assertEquals(IdleStrategyType.SLEEP, builder.setIdleStrategyType(IdleStrategyType.SLEEP).build().getIdleStrategyType());
+        builder.setIdleStrategyType(null);
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    @Test
+    public void build_ReaderThreads() {
+        builder.setDataDir(new File("/tmp"));
+        assertEquals(Math.min(4, Runtime.getRuntime().availableProcessors()), builder.build().getReaderThreads());
+        assertEquals(0, builder.setReaderThreads(0).build().getReaderThreads());
+        builder.setReaderThreads(-1);
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    @Test
+    public void build_VirtualThreadWithBusyIdleStrategy_Throws() {
+        builder.setDataDir(new File("/tmp"));
+        builder.setThreadType(ThreadType.VIRTUAL);
+        builder.setIdleStrategyType(IdleStrategyType.BUSY_SPIN);
+        assertThrows(IllegalArgumentException.class, builder::build);
+        builder.setIdleStrategyType(IdleStrategyType.YIELD);
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
 }
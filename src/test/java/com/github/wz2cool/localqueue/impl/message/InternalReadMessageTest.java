@@ -0,0 +1,100 @@
+package com.github.wz2cool.localqueue.impl.message;
+
+import com.github.wz2cool.localqueue.model.message.InternalReadMessage;
+import com.github.wz2cool.localqueue.model.message.InternalWriteMessage;
+import com.github.wz2cool.localqueue.model.message.MessageHeader;
+import com.github.wz2cool.localqueue.model.message.ReadProjection;
+import net.openhft.chronicle.bytes.Bytes;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("all")
+public class InternalReadMessageTest {
+
+    private static final int[] TAG_IDS = {MessageHeader.NO_TAG_ID, 1, MessageHeader.INLINE_TAG_ID};
+
+    private Bytes<?> encode(String tag, int tagId, String messageKey, String content) {
+        InternalWriteMessage message = new InternalWriteMessage();
+        message.setTag(tag);
+        message.setTagId(tagId);
+        message.setMessageKey(messageKey);
+        message.setContent(content);
+        message.setWriteTime(123L);
+        Bytes<?> bytes = Bytes.allocateElasticOnHeap();
+        message.writeMarshallable(bytes);
+        return bytes;
+    }
+
+    private InternalReadMessage read(Bytes<?> bytes, int projection) {
+        InternalReadMessage message = new InternalReadMessage(null, projection, id -> "tagA");
+        message.readMarshallable(bytes);
+        return message;
+    }
+
+    @Test
+    public void readMarshallable_ProjectAll_AllFieldsRead() {
+        for (int tagId : TAG_IDS) {
+            Bytes<?> bytes = encode("tagA", tagId, "key", "content");
+            InternalReadMessage message = read(bytes, ReadProjection.ALL);
+            assertEquals("tagA", message.getTag());
+            assertEquals("key", message.getMessageKey());
+            assertEquals(123L, message.getWriteTime());
+            assertEquals("content", message.getContent());
+            assertEquals(0, bytes.readRemaining());
+        }
+    }
+
+    @Test
+    public void readMarshallable_ProjectWriteTimeAndContent_TagAndKeySkipped() {
+        for (int tagId : TAG_IDS) {
+            InternalReadMessage message = read(encode("tagA", tagId, "key", "content"),
+                    ReadProjection.WRITE_TIME | ReadProjection.CONTENT);
+            assertNull(message.getTag());
+            assertNull(message.getMessageKey());
+            assertEquals(123L, message.getWriteTime());
+            assertEquals("content", message.getContent());
+        }
+    }
+
+    @Test
+    public void readMarshallable_ProjectKey_WriteTimeAndContentSkipped() {
+        for (int tagId : TAG_IDS) {
+            InternalReadMessage message = read(encode("tagA", tagId, "key", "content"), ReadProjection.KEY);
+            assertNull(message.getTag());
+            assertEquals("key", message.getMessageKey());
+            assertEquals(0L, message.getWriteTime());
+            assertNull(message.getContent());
+        }
+    }
+
+    @Test
+    public void readMarshallable_MatchKey_CompareRawKeyBytes() {
+        InternalReadMessage message = new InternalReadMessage(null, ReadProjection.WRITE_TIME, id -> "tagA");
+        message.setMatchKey("键key");
+        for (int tagId : TAG_IDS) {
+            message.readMarshallable(encode("tagA", tagId, "键key", "content"));
+            assertTrue(message.isKeyMatched());
+            assertNull(message.getMessageKey());
+            message.readMarshallable(encode("tagA", tagId, "键kez", "content"));
+            assertFalse(message.isKeyMatched());
+            message.readMarshallable(encode("tagA", tagId, "key", "content"));
+            assertFalse(message.isKeyMatched());
+            message.readMarshallable(encode("tagA", tagId, null, "content"));
+            assertFalse(message.isKeyMatched());
+        }
+    }
+
+    @Test
+    public void readMarshallable_FilterTagNotProjected_StillFiltered() {
+        InternalReadMessage message = new InternalReadMessage(Collections.singleton("tagB"), ReadProjection.KEY, id -> "tagA");
+        for (int tagId : TAG_IDS) {
+            message.readMarshallable(encode("tagA", tagId, "key", "content"));
+            assertNull(message.getMessageKey());
+        }
+        message.readMarshallable(encode("tagB", MessageHeader.NO_TAG_ID, "key", "content"));
+        assertEquals("key", message.getMessageKey());
+    }
+}
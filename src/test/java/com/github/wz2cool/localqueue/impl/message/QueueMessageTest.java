@@ -3,10 +3,11 @@ package com.github.wz2cool.localqueue.impl.message;
 import com.github.wz2cool.localqueue.model.message.QueueMessage;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 @SuppressWarnings("all")
 public class QueueMessageTest {
@@ -110,4 +111,33 @@ public class QueueMessageTest {
         assertEquals(content, message.getContent());
         assertEquals(writeTime, message.getWriteTime());
     }
+
+    @Test
+    public void testConstructorWithContentBytes() {
+        // 二进制内容，按需解码为字符串
+        byte[] contentBytes = "Hello, 世界!".getBytes(StandardCharsets.UTF_8);
+        QueueMessage message = QueueMessage.ofBytes(null, UUID.randomUUID().toString(), 1, 100L, contentBytes, System.currentTimeMillis());
+
+        assertEquals("Hello, 世界!", message.getContent());
+        assertArrayEquals(contentBytes, message.getContentBytes());
+        assertNotSame(contentBytes, message.getContentBytes());
+        ByteBuffer buffer = message.getContentBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals(contentBytes.length, buffer.remaining());
+    }
+
+    @Test
+    public void testStringContentToBytes() {
+        QueueMessage message = new QueueMessage(null, UUID.randomUUID().toString(), 1, 100L, "Hello", System.currentTimeMillis());
+        assertArrayEquals("Hello".getBytes(StandardCharsets.UTF_8), message.getContentBytes());
+
+        QueueMessage nullMessage = QueueMessage.ofBytes(null, UUID.randomUUID().toString(), 1, 100L, null, System.currentTimeMillis());
+        assertNull(nullMessage.getContent());
+        assertNull(nullMessage.getContentBytes());
+        assertNull(nullMessage.getContentBuffer());
+
+        // null literal content still resolves to the string constructor
+        QueueMessage nullStringMessage = new QueueMessage(null, UUID.randomUUID().toString(), 1, 100L, null, System.currentTimeMillis());
+        assertNull(nullStringMessage.getContent());
+    }
 }